@@ -0,0 +1,100 @@
+package com.seecooker.common.core.concurrent;
+
+import com.seecooker.common.core.exception.BizException;
+import com.seecooker.common.core.exception.ErrorType;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * 一组共享截止时间的并行任务
+ * 先通过fork提交互不依赖的查询，再调用join等待全部完成；任一任务失败或超过截止时间时取消其余任务并抛出异常
+ * fork的任务取消时会中断执行线程，include加入的异步调用按其自身的cancel语义处理
+ * 非线程安全，应在同一线程中提交和等待
+ *
+ * @author xueruichen
+ * @date 2024.01.24
+ */
+public class FanOut {
+    private final FanOutExecutor executor;
+    private final long deadlineNanos;
+    private final List<CompletableFuture<?>> tasks = new ArrayList<>();
+    private final CompletableFuture<Void> firstFailure = new CompletableFuture<>();
+
+    FanOut(FanOutExecutor executor, Duration deadline) {
+        this.executor = executor;
+        this.deadlineNanos = System.nanoTime() + deadline.toNanos();
+    }
+
+    /**
+     * 在线程池中执行任务
+     *
+     * @param task 任务
+     * @return 任务结果，join之后可直接取值
+     */
+    public <T> CompletableFuture<T> fork(Supplier<T> task) {
+        return include(executor.supplyAsync(task));
+    }
+
+    /**
+     * 将已开始的异步调用加入本组，一同等待
+     *
+     * @param future 异步调用
+     * @return 传入的异步调用
+     */
+    public <T> CompletableFuture<T> include(CompletableFuture<T> future) {
+        tasks.add(future);
+        future.whenComplete((result, e) -> {
+            if (e != null) {
+                firstFailure.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * 等待全部任务完成
+     */
+    public void join() {
+        CompletableFuture<Void> all = CompletableFuture.allOf(tasks.toArray(new CompletableFuture[0]));
+        try {
+            CompletableFuture.anyOf(all, firstFailure).get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            cancelAll();
+            throw new BizException(ErrorType.SERVER_BUSY, "请求超时");
+        } catch (ExecutionException e) {
+            cancelAll();
+            throw rethrow(e.getCause());
+        } catch (InterruptedException e) {
+            cancelAll();
+            Thread.currentThread().interrupt();
+            throw new BizException(ErrorType.SERVER_ERROR, "请求被中断");
+        }
+    }
+
+    private void cancelAll() {
+        tasks.forEach(task -> task.cancel(true));
+    }
+
+    private static RuntimeException rethrow(Throwable cause) {
+        // 取出原始异常，保证业务异常照常返回
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof CancellationException) {
+            return new BizException(ErrorType.SERVER_BUSY, "请求超时");
+        }
+        if (cause instanceof RuntimeException e) {
+            return e;
+        }
+        return new IllegalStateException(cause);
+    }
+}
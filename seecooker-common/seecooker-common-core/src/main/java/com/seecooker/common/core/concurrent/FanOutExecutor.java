@@ -0,0 +1,132 @@
+package com.seecooker.common.core.concurrent;
+
+import com.seecooker.common.core.context.UserContext;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 并行查询线程池
+ * 提交的任务沿用提交线程的登录用户和请求属性；队列已满时由提交线程直接执行
+ *
+ * @author xueruichen
+ * @date 2024.01.24
+ */
+public class FanOutExecutor implements Executor {
+    private final ThreadPoolExecutor executor;
+    private final Duration defaultDeadline;
+
+    public FanOutExecutor(int poolSize, int queueCapacity, Duration defaultDeadline) {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "fan-out-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory, new ThreadPoolExecutor.CallerRunsPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+        this.defaultDeadline = defaultDeadline;
+    }
+
+    /**
+     * 开始一组使用默认截止时间的并行任务
+     *
+     * @return 并行任务组
+     */
+    public FanOut fanOut() {
+        return fanOut(defaultDeadline);
+    }
+
+    /**
+     * 开始一组并行任务
+     *
+     * @param deadline 整组任务的截止时间
+     * @return 并行任务组
+     */
+    public FanOut fanOut(Duration deadline) {
+        return new FanOut(this, deadline);
+    }
+
+    /**
+     * 异步执行任务
+     * 返回结果的cancel(true)会中断仍在执行该任务的线程
+     *
+     * @param task 任务
+     * @return 任务结果
+     */
+    public <T> CompletableFuture<T> supplyAsync(Supplier<T> task) {
+        Supplier<T> propagated = propagate(task);
+        InterruptibleFuture<T> result = new InterruptibleFuture<>();
+        FutureTask<Void> runner = new FutureTask<>(() -> {
+            try {
+                result.complete(propagated.get());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        }, null);
+        result.runner = runner;
+        executor.execute(runner);
+        return result;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        Supplier<Void> task = propagate(() -> {
+            command.run();
+            return null;
+        });
+        executor.execute(task::get);
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * CompletableFuture.cancel不会中断执行中的线程，此处一并取消实际提交到线程池的任务
+     */
+    private static class InterruptibleFuture<T> extends CompletableFuture<T> {
+        private volatile Future<?> runner;
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            Future<?> current = runner;
+            if (current != null) {
+                current.cancel(mayInterruptIfRunning);
+            }
+            return cancelled;
+        }
+
+        @Override
+        public <U> CompletableFuture<U> newIncompleteFuture() {
+            return new CompletableFuture<>();
+        }
+    }
+
+    private static <T> Supplier<T> propagate(Supplier<T> task) {
+        Supplier<T> withUser = UserContext.wrap(task);
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return () -> {
+            RequestAttributes previous = RequestContextHolder.getRequestAttributes();
+            RequestContextHolder.setRequestAttributes(attributes);
+            try {
+                return withUser.get();
+            } finally {
+                RequestContextHolder.setRequestAttributes(previous);
+            }
+        };
+    }
+}
@@ -0,0 +1,23 @@
+package com.seecooker.common.core.config;
+
+import com.seecooker.common.core.concurrent.FanOutExecutor;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * 并行查询线程池自动配置，仅在servlet服务中生效
+ *
+ * @author xueruichen
+ * @date 2024.01.24
+ */
+@AutoConfiguration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@EnableConfigurationProperties(FanOutProperties.class)
+public class FanOutAutoConfiguration {
+    @Bean(destroyMethod = "shutdown")
+    public FanOutExecutor fanOutExecutor(FanOutProperties properties) {
+        return new FanOutExecutor(properties.getPoolSize(), properties.getQueueCapacity(), properties.getDeadline());
+    }
+}
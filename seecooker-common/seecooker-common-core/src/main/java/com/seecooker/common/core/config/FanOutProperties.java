@@ -0,0 +1,33 @@
+package com.seecooker.common.core.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 并行查询线程池配置
+ *
+ * @author xueruichen
+ * @date 2024.01.24
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "seecooker.fan-out")
+public class FanOutProperties {
+    /**
+     * 线程数
+     */
+    private int poolSize = 32;
+
+    /**
+     * 等待队列长度，队列已满时由请求线程直接执行
+     */
+    private int queueCapacity = 256;
+
+    /**
+     * 一组并行查询默认的截止时间
+     */
+    private Duration deadline = Duration.ofSeconds(2);
+}
@@ -0,0 +1,28 @@
+package com.seecooker.common.core.config;
+
+import com.seecooker.common.core.filter.IdentityFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.Ordered;
+
+/**
+ * 身份请求头过滤器自动配置，仅在servlet服务中生效
+ * 密钥需与网关的seecooker.identity.secret一致，未配置时全部退回sa-token解析
+ *
+ * @author xueruichen
+ * @date 2024.01.22
+ */
+@AutoConfiguration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class IdentityAutoConfiguration {
+    @Bean
+    public FilterRegistrationBean<IdentityFilter> identityFilter(@Value("${seecooker.identity.secret:}") String secret) {
+        FilterRegistrationBean<IdentityFilter> registration = new FilterRegistrationBean<>(new IdentityFilter(secret));
+        registration.addUrlPatterns("/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
@@ -0,0 +1,115 @@
+package com.seecooker.common.core.context;
+
+import cn.dev33.satoken.stp.StpUtil;
+import com.seecooker.common.core.exception.BizException;
+import com.seecooker.common.core.exception.ErrorType;
+
+import java.util.function.Supplier;
+
+/**
+ * 当前请求的登录用户上下文
+ * 优先使用网关签名的身份请求头，没有时退回sa-token解析，每个请求只解析一次
+ *
+ * @author xueruichen
+ * @date 2024.01.22
+ */
+public class UserContext {
+    private static final ThreadLocal<Identity> CONTEXT = new ThreadLocal<>();
+
+    private UserContext() {}
+
+    /**
+     * 是否已登录
+     *
+     * @return 是否已登录
+     */
+    public static boolean isLogin() {
+        return getLoginIdOrNull() != null;
+    }
+
+    /**
+     * 获取登录用户id，未登录时抛出异常
+     *
+     * @return 登录用户id
+     */
+    public static Long getLoginId() {
+        Long loginId = getLoginIdOrNull();
+        if (loginId == null) {
+            throw new BizException(ErrorType.USER_NOT_LOGIN, "用户未登陆");
+        }
+        return loginId;
+    }
+
+    /**
+     * 获取登录用户id，未登录时返回null
+     *
+     * @return 登录用户id
+     */
+    public static Long getLoginIdOrNull() {
+        Identity identity = CONTEXT.get();
+        if (identity == null) {
+            // 不在请求过滤器范围内（如异步线程），直接解析
+            return resolveFromToken();
+        }
+        if (!identity.resolved) {
+            identity.loginId = resolveFromToken();
+            identity.resolved = true;
+        }
+        return identity.loginId;
+    }
+
+    /**
+     * 开始一个请求的上下文
+     *
+     * @param loginId 已校验的登录用户id，为null时在首次使用时由sa-token解析
+     */
+    public static void begin(Long loginId) {
+        Identity identity = new Identity();
+        identity.loginId = loginId;
+        identity.resolved = loginId != null;
+        CONTEXT.set(identity);
+    }
+
+    /**
+     * 结束请求上下文
+     */
+    public static void clear() {
+        CONTEXT.remove();
+    }
+
+    /**
+     * 包装任务，使其在其他线程中执行时沿用当前线程的登录用户
+     * 登录用户在包装时解析，执行线程中不再访问sa-token
+     *
+     * @param task 任务
+     * @return 包装后的任务
+     */
+    public static <T> Supplier<T> wrap(Supplier<T> task) {
+        Identity captured = new Identity();
+        captured.loginId = getLoginIdOrNull();
+        captured.resolved = true;
+        return () -> {
+            Identity previous = CONTEXT.get();
+            CONTEXT.set(captured);
+            try {
+                return task.get();
+            } finally {
+                if (previous == null) {
+                    CONTEXT.remove();
+                } else {
+                    CONTEXT.set(previous);
+                }
+            }
+        };
+    }
+
+    private static Long resolveFromToken() {
+        Object loginId = StpUtil.getLoginIdDefaultNull();
+        return loginId == null ? null : Long.valueOf(loginId.toString());
+    }
+
+    private static class Identity {
+        private Long loginId;
+        private boolean resolved;
+    }
+}
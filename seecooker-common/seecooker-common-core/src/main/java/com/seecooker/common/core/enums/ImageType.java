@@ -1,20 +1,30 @@
 package com.seecooker.common.core.enums;
 
-import lombok.AllArgsConstructor;
 import lombok.Getter;
 
+import java.util.List;
+
 /**
  * 图片类型
  *
  * @author xueruichen
  * @date 2023.11.24
  */
-@AllArgsConstructor
 @Getter
 public enum ImageType {
-    AVATAR("avatar"),
-    POST_IMAGE("post-image"),
-    RECIPE_COVER_IMAGE("recipe-cover-image"),
-    RECIPE_STEP_IMAGE("recipe-step-image");
+    AVATAR("avatar", ImageVariant.THUMBNAIL),
+    POST_IMAGE("post-image", ImageVariant.THUMBNAIL, ImageVariant.LIST, ImageVariant.DETAIL),
+    RECIPE_COVER_IMAGE("recipe-cover-image", ImageVariant.THUMBNAIL, ImageVariant.LIST, ImageVariant.DETAIL),
+    RECIPE_STEP_IMAGE("recipe-step-image", ImageVariant.LIST, ImageVariant.DETAIL);
     private final String type;
+
+    /**
+     * 上传后需要异步生成的图片规格
+     */
+    private final List<ImageVariant> variants;
+
+    ImageType(String type, ImageVariant... variants) {
+        this.type = type;
+        this.variants = List.of(variants);
+    }
 }
@@ -0,0 +1,20 @@
+package com.seecooker.common.core.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 图片规格，按最长边限制尺寸
+ *
+ * @author xueruichen
+ * @date 2024.01.16
+ */
+@AllArgsConstructor
+@Getter
+public enum ImageVariant {
+    THUMBNAIL("thumbnail", 160),
+    LIST("list", 480),
+    DETAIL("detail", 1080);
+    private final String type;
+    private final int maxSize;
+}
@@ -0,0 +1,21 @@
+package com.seecooker.common.core.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 服务间消息交换机枚举类
+ *
+ * @author xueruichen
+ * @date 2024.01.20
+ */
+@AllArgsConstructor
+@Getter
+public enum MessageExchange {
+    /**
+     * 用户资料修改事件，fanout交换机，各服务可绑定自己的队列用于缓存失效
+     */
+    PROFILE_CHANGE("profileChange");
+
+    private final String exchange;
+}
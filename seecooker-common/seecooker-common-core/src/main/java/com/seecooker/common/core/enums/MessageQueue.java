@@ -0,0 +1,19 @@
+package com.seecooker.common.core.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 服务间消息队列枚举类
+ *
+ * @author xueruichen
+ * @date 2024.01.17
+ */
+@AllArgsConstructor
+@Getter
+public enum MessageQueue {
+    USER_EVENT("userEvent"),
+    PROFILE_CHANGE("profileChange.user");
+
+    private final String queue;
+}
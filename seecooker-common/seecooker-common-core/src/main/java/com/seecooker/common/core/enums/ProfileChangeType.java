@@ -0,0 +1,13 @@
+package com.seecooker.common.core.enums;
+
+/**
+ * 用户资料修改类型枚举类
+ *
+ * @author xueruichen
+ * @date 2024.01.20
+ */
+public enum ProfileChangeType {
+    SIGNATURE,
+    AVATAR,
+    USERNAME
+}
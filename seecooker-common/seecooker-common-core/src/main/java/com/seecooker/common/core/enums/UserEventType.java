@@ -0,0 +1,49 @@
+package com.seecooker.common.core.enums;
+
+/**
+ * 用户相关事件类型
+ *
+ * @author xueruichen
+ * @date 2024.01.17
+ */
+public enum UserEventType {
+    /**
+     * 用户发布帖子
+     */
+    POST_ADDED,
+
+    /**
+     * 用户删除帖子
+     */
+    POST_DELETED,
+
+    /**
+     * 用户发布菜谱
+     */
+    RECIPE_ADDED,
+
+    /**
+     * 用户的帖子被点赞
+     */
+    POST_LIKED,
+
+    /**
+     * 用户的菜谱被收藏
+     */
+    RECIPE_FAVORITED,
+
+    /**
+     * 用户的菜谱被取消收藏
+     */
+    RECIPE_UNFAVORITED,
+
+    /**
+     * 回填用户的帖子获赞总数，数量为事件发出时的总数
+     */
+    LIKES_SEEDED,
+
+    /**
+     * 回填用户的菜谱被收藏总数，数量为事件发出时的总数
+     */
+    FAVORITES_SEEDED
+}
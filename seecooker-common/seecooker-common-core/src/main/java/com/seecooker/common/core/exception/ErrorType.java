@@ -30,6 +30,8 @@ public enum ErrorType {
     SERVER_ERROR(100006, "Server error", 400), /* 服务器内部错误 */
 
     OPEN_FEIGN_API_ERROR(100007, "Open feign api error", 400), /* feign api调用错误 */
+
+    SERVER_BUSY(100008, "Server busy", 503), /* 服务繁忙，请稍后重试 */
     /**
      * 业务相关错误类型
      */
@@ -45,6 +47,8 @@ public enum ErrorType {
 
     FILE_SIGNED_ERROR(300002, "File signed error", 400), /* 文件签名错误 */
 
+    DIRECT_UPLOAD_UNSUPPORTED(300003, "Direct upload unsupported", 400), /* 当前存储不支持客户端直传 */
+
     POST_NOT_EXIST(400001, "Post not exist", 400), /* 帖子不存在 */
 
     RECIPE_STEP_MATCH_ERROR(500001, "Recipe step match error", 400), /*菜谱步骤图和步骤文字不匹配*/
@@ -0,0 +1,78 @@
+package com.seecooker.common.core.filter;
+
+import com.seecooker.common.core.context.IdentitySigner;
+import com.seecooker.common.core.context.UserContext;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 身份请求头过滤器
+ * 校验网关签名的身份请求头并写入UserContext，校验失败时忽略请求头
+ * 签名需与本次请求的方法和路径一致，有效期内同一随机数只接受一次
+ *
+ * @author xueruichen
+ * @date 2024.01.22
+ */
+@Slf4j
+public class IdentityFilter extends OncePerRequestFilter {
+    /**
+     * 最多记录的随机数个数，超出后淘汰最早的
+     */
+    private static final int MAX_NONCES = 100_000;
+
+    private final String secret;
+    private final Map<String, Long> seenNonces = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+            return size() > MAX_NONCES
+                    || eldest.getValue() < System.currentTimeMillis() - IdentitySigner.MAX_AGE_MILLIS;
+        }
+    };
+
+    public IdentityFilter(String secret) {
+        this.secret = secret;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        UserContext.begin(verifiedUserId(request));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            UserContext.clear();
+        }
+    }
+
+    private Long verifiedUserId(HttpServletRequest request) {
+        String userId = request.getHeader(IdentitySigner.USER_ID_HEADER);
+        if (userId == null || secret == null || secret.isEmpty()) {
+            return null;
+        }
+        String nonce = request.getHeader(IdentitySigner.NONCE_HEADER);
+        if (!IdentitySigner.verify(secret, userId, request.getHeader(IdentitySigner.TIMESTAMP_HEADER), nonce,
+                request.getMethod(), request.getRequestURI(), request.getHeader(IdentitySigner.SIGNATURE_HEADER))) {
+            log.warn("Invalid identity header from {}", request.getRemoteAddr());
+            return null;
+        }
+        if (!firstUse(nonce)) {
+            log.warn("Replayed identity header from {}", request.getRemoteAddr());
+            return null;
+        }
+        return Long.valueOf(userId);
+    }
+
+    private boolean firstUse(String nonce) {
+        synchronized (seenNonces) {
+            return seenNonces.putIfAbsent(nonce, System.currentTimeMillis()) == null;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.seecooker.common.core.model.dto.user;
+
+import com.seecooker.common.core.enums.ProfileChangeType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * 用户资料修改事件
+ *
+ * @author xueruichen
+ * @date 2024.01.20
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ProfileChangeDTO {
+    /**
+     * 事件id，用于消费端幂等
+     */
+    private String eventId;
+
+    /**
+     * 用户id
+     */
+    private Long userId;
+
+    /**
+     * 修改类型
+     */
+    private ProfileChangeType type;
+
+    /**
+     * 修改后的值
+     */
+    private String value;
+
+    /**
+     * 修改时间戳（毫秒）
+     */
+    private Long timestamp;
+}
@@ -3,6 +3,7 @@ package com.seecooker.common.core.model.dto.user;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 import java.util.List;
@@ -16,6 +17,7 @@ import java.util.List;
 @Getter
 @Setter
 @AllArgsConstructor
+@NoArgsConstructor
 @Builder
 public class UserDTO {
     /**
@@ -38,11 +40,6 @@ public class UserDTO {
      */
     private String avatar;
 
-    /**
-     * 用户收藏的菜谱id列表
-     */
-    private List<Long> favoriteRecipes;
-
     /**
      * 用户发布的菜谱id列表
      */
@@ -0,0 +1,51 @@
+package com.seecooker.common.core.model.dto.user;
+
+import com.seecooker.common.core.enums.UserEventType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * 用户事件传输类，由其他服务经消息队列发往用户服务
+ *
+ * @author xueruichen
+ * @date 2024.01.17
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class UserEventDTO {
+    /**
+     * 事件id，格式为"服务名:发件箱id"
+     */
+    private String eventId;
+
+    /**
+     * 事件在来源服务中同一目标上的序号，按提交顺序递增；消费端据此丢弃同一目标上晚到的旧事件
+     */
+    private Long sequence;
+
+    /**
+     * 事件类型
+     */
+    private UserEventType type;
+
+    /**
+     * 用户id
+     */
+    private Long userId;
+
+    /**
+     * 事件关联的帖子或菜谱id
+     */
+    private Long targetId;
+
+    /**
+     * 事件附带的数量，如删除帖子时该帖子的获赞数，为空时视为无
+     */
+    private Integer amount;
+}
@@ -0,0 +1,40 @@
+package com.seecooker.common.core.model.dto.user;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * 用户资料数据传输类，仅包含展示所需字段，不含id列表
+ *
+ * @author xueruichen
+ * @date 2024.01.21
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class UserProfileDTO {
+    /**
+     * 用户id
+     */
+    private Long id;
+
+    /**
+     * 用户昵称
+     */
+    private String username;
+
+    /**
+     * 用户头像url
+     */
+    private String avatar;
+
+    /**
+     * 用户签名
+     */
+    private String signature;
+}
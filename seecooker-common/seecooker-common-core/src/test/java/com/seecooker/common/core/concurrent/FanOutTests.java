@@ -0,0 +1,76 @@
+package com.seecooker.common.core.concurrent;
+
+import com.seecooker.common.core.context.UserContext;
+import com.seecooker.common.core.exception.BizException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FanOutTests {
+    private final FanOutExecutor executor = new FanOutExecutor(2, 10, Duration.ofSeconds(1));
+
+    @BeforeEach
+    void setUp() {
+        UserContext.begin(1L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        UserContext.clear();
+        executor.shutdown();
+    }
+
+    @Test
+    void joinReturnsAllResults() {
+        FanOut fanOut = executor.fanOut();
+        CompletableFuture<Integer> a = fanOut.fork(() -> 1);
+        CompletableFuture<Integer> b = fanOut.fork(() -> 2);
+        fanOut.join();
+        assertEquals(3, a.join() + b.join());
+    }
+
+    @Test
+    void deadlineInterruptsRunningTask() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        FanOut fanOut = executor.fanOut(Duration.ofMillis(200));
+        fanOut.fork(() -> {
+            started.countDown();
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return null;
+        });
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+        assertThrows(BizException.class, fanOut::join);
+        assertTrue(interrupted.await(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void failureCancelsSiblings() throws InterruptedException {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        FanOut fanOut = executor.fanOut(Duration.ofSeconds(5));
+        fanOut.fork(() -> {
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return null;
+        });
+        fanOut.fork(() -> {
+            throw new IllegalArgumentException("boom");
+        });
+        assertThrows(IllegalArgumentException.class, fanOut::join);
+        assertTrue(interrupted.await(1, TimeUnit.SECONDS));
+    }
+}
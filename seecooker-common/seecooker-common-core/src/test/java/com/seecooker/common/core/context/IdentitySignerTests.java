@@ -0,0 +1,34 @@
+package com.seecooker.common.core.context;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdentitySignerTests {
+    private static final String SECRET = "test-secret";
+
+    @Test
+    void acceptsSignatureForSameRequest() {
+        long now = System.currentTimeMillis();
+        String signature = IdentitySigner.sign(SECRET, "42", now, "n1", "POST", "/v2/post");
+        assertTrue(IdentitySigner.verify(SECRET, "42", String.valueOf(now), "n1", "POST", "/v2/post", signature));
+    }
+
+    @Test
+    void rejectsSignatureForOtherMethodOrPath() {
+        long now = System.currentTimeMillis();
+        String signature = IdentitySigner.sign(SECRET, "42", now, "n1", "GET", "/v2/post/1");
+        String time = String.valueOf(now);
+        assertFalse(IdentitySigner.verify(SECRET, "42", time, "n1", "DELETE", "/v2/post/1", signature));
+        assertFalse(IdentitySigner.verify(SECRET, "42", time, "n1", "GET", "/v2/user", signature));
+        assertFalse(IdentitySigner.verify(SECRET, "42", time, "n2", "GET", "/v2/post/1", signature));
+        assertFalse(IdentitySigner.verify(SECRET, "43", time, "n1", "GET", "/v2/post/1", signature));
+    }
+
+    @Test
+    void rejectsExpiredSignature() {
+        long old = System.currentTimeMillis() - IdentitySigner.MAX_AGE_MILLIS - 1000;
+        String signature = IdentitySigner.sign(SECRET, "42", old, "n1", "GET", "/v2/post");
+        assertFalse(IdentitySigner.verify(SECRET, "42", String.valueOf(old), "n1", "GET", "/v2/post", signature));
+    }
+}
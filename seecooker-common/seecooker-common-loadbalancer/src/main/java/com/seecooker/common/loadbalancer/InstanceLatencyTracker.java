@@ -0,0 +1,172 @@
+package com.seecooker.common.loadbalancer;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 服务实例延迟统计
+ * 对每个实例维护peak-EWMA延迟与处理中请求数，得分=延迟×(处理中请求数+1)，得分越低越优先
+ * 实例下线后其统计与指标随服务实例列表的更新一并清除
+ *
+ * @author xueruichen
+ * @date 2024.01.24
+ */
+public class InstanceLatencyTracker {
+    /**
+     * 延迟下限，避免尚无统计的新实例得分恒为0而在并发突增时承接全部流量
+     */
+    private static final double MIN_LATENCY_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final long decayNanos;
+    private final long failurePenaltyNanos;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, InstanceStats> stats = new ConcurrentHashMap<>();
+    private final Map<String, List<ServiceInstance>> retained = new ConcurrentHashMap<>();
+
+    /**
+     * @param decayMillis 延迟衰减时间常数
+     * @param failurePenaltyMillis 请求失败时按不低于该值的延迟计入
+     * @param meterRegistry 指标注册表，为null时不输出指标
+     */
+    public InstanceLatencyTracker(long decayMillis, long failurePenaltyMillis, MeterRegistry meterRegistry) {
+        this.decayNanos = TimeUnit.MILLISECONDS.toNanos(decayMillis);
+        this.failurePenaltyNanos = TimeUnit.MILLISECONDS.toNanos(failurePenaltyMillis);
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * 获取实例得分
+     *
+     * @param instance 服务实例
+     * @return 得分
+     */
+    public double score(ServiceInstance instance) {
+        return statsOf(instance).score();
+    }
+
+    /**
+     * 请求发往实例时调用
+     *
+     * @param instance 服务实例
+     */
+    public void onStart(ServiceInstance instance) {
+        statsOf(instance).inflight.incrementAndGet();
+    }
+
+    /**
+     * 请求结束时调用
+     *
+     * @param instance 服务实例
+     * @param rttNanos 请求耗时，未知时传负数
+     * @param failed 是否失败
+     */
+    public void onComplete(ServiceInstance instance, long rttNanos, boolean failed) {
+        // 请求期间实例已下线，统计已被清除
+        InstanceStats instanceStats = stats.get(keyOf(instance));
+        if (instanceStats == null) {
+            return;
+        }
+        instanceStats.inflight.decrementAndGet();
+        if (failed) {
+            rttNanos = Math.max(rttNanos, failurePenaltyNanos);
+        }
+        if (rttNanos >= 0) {
+            instanceStats.observe(rttNanos);
+        }
+    }
+
+    /**
+     * 清除已不在服务实例列表中的实例的统计与指标
+     *
+     * @param serviceId 服务id
+     * @param instances 服务当前的实例列表
+     */
+    public void retain(String serviceId, List<ServiceInstance> instances) {
+        // 实例列表由上游缓存，未刷新时为同一对象，无需重复比对
+        if (retained.put(serviceId, instances) == instances) {
+            return;
+        }
+        String prefix = serviceId + "/";
+        Set<String> current = new HashSet<>();
+        instances.forEach(instance -> current.add(keyOf(instance)));
+        stats.keySet().removeIf(key -> {
+            if (!key.startsWith(prefix) || current.contains(key)) {
+                return false;
+            }
+            unregister(stats.get(key));
+            return true;
+        });
+    }
+
+    private InstanceStats statsOf(ServiceInstance instance) {
+        return stats.computeIfAbsent(keyOf(instance), k -> register(instance, new InstanceStats()));
+    }
+
+    private static String keyOf(ServiceInstance instance) {
+        return instance.getServiceId() + "/" + instance.getHost() + ":" + instance.getPort();
+    }
+
+    private InstanceStats register(ServiceInstance instance, InstanceStats instanceStats) {
+        if (meterRegistry != null) {
+            String serviceId = instance.getServiceId();
+            String address = instance.getHost() + ":" + instance.getPort();
+            instanceStats.meters.add(Gauge.builder("seecooker.loadbalancer.score", instanceStats, InstanceStats::score)
+                    .tag("service", serviceId).tag("instance", address)
+                    .register(meterRegistry));
+            instanceStats.meters.add(Gauge.builder("seecooker.loadbalancer.latency", instanceStats, s -> s.currentEwma() / 1_000_000)
+                    .tag("service", serviceId).tag("instance", address)
+                    .baseUnit("milliseconds")
+                    .register(meterRegistry));
+            instanceStats.meters.add(Gauge.builder("seecooker.loadbalancer.inflight", instanceStats, s -> s.inflight.get())
+                    .tag("service", serviceId).tag("instance", address)
+                    .register(meterRegistry));
+        }
+        return instanceStats;
+    }
+
+    private void unregister(InstanceStats instanceStats) {
+        if (instanceStats != null && meterRegistry != null) {
+            instanceStats.meters.forEach(meterRegistry::remove);
+        }
+    }
+
+    private class InstanceStats {
+        private final AtomicInteger inflight = new AtomicInteger();
+        private final List<Meter> meters = new ArrayList<>(3);
+        private double ewma;
+        private long updatedAt = System.nanoTime();
+
+        synchronized void observe(long rttNanos) {
+            long now = System.nanoTime();
+            if (rttNanos > ewma) {
+                // 延迟升高时立即跟随，慢实例能被尽快避开
+                ewma = rttNanos;
+            } else {
+                double weight = Math.exp(-(double) (now - updatedAt) / decayNanos);
+                ewma = ewma * weight + rttNanos * (1 - weight);
+            }
+            updatedAt = now;
+        }
+
+        synchronized double currentEwma() {
+            // 长时间无请求的实例延迟逐渐衰减，使其重新获得流量
+            double weight = Math.exp(-(double) (System.nanoTime() - updatedAt) / decayNanos);
+            return ewma * weight;
+        }
+
+        double score() {
+            return Math.max(currentEwma(), MIN_LATENCY_NANOS) * (inflight.get() + 1);
+        }
+    }
+}
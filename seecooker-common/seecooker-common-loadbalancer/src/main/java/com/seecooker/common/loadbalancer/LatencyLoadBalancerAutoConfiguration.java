@@ -0,0 +1,33 @@
+package com.seecooker.common.loadbalancer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * 延迟感知负载均衡自动配置
+ * 网关路由与Feign客户端默认使用peak-EWMA负载均衡，配置seecooker.loadbalancer.latency-aware=false可回退为轮询
+ *
+ * @author xueruichen
+ * @date 2024.01.24
+ */
+@AutoConfiguration
+@ConditionalOnProperty(name = "seecooker.loadbalancer.latency-aware", havingValue = "true", matchIfMissing = true)
+@LoadBalancerClients(defaultConfiguration = PeakEwmaLoadBalancerConfiguration.class)
+public class LatencyLoadBalancerAutoConfiguration {
+    @Bean
+    public InstanceLatencyTracker instanceLatencyTracker(@Value("${seecooker.loadbalancer.decay-millis:10000}") long decayMillis,
+                                                         @Value("${seecooker.loadbalancer.failure-penalty-millis:1000}") long failurePenaltyMillis,
+                                                         ObjectProvider<MeterRegistry> meterRegistry) {
+        return new InstanceLatencyTracker(decayMillis, failurePenaltyMillis, meterRegistry.getIfAvailable());
+    }
+
+    @Bean
+    public LatencyRecordingLifecycle latencyRecordingLifecycle(InstanceLatencyTracker tracker) {
+        return new LatencyRecordingLifecycle(tracker);
+    }
+}
@@ -0,0 +1,107 @@
+package com.seecooker.common.loadbalancer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.ServiceInstanceListSuppliers;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PeakEwmaLoadBalancerTests {
+    private final ServiceInstance fast = new DefaultServiceInstance("fast", "user", "10.0.0.1", 8080, false);
+    private final ServiceInstance slow = new DefaultServiceInstance("slow", "user", "10.0.0.2", 8080, false);
+
+    @Test
+    void peakLatencyIsFollowedImmediately() {
+        InstanceLatencyTracker tracker = new InstanceLatencyTracker(10_000, 1_000, null);
+        record(tracker, slow, 5);
+        double before = tracker.score(slow);
+        record(tracker, slow, 200);
+        assertTrue(tracker.score(slow) > before * 30);
+    }
+
+    @Test
+    void inflightRequestsRaiseScore() {
+        InstanceLatencyTracker tracker = new InstanceLatencyTracker(10_000, 1_000, null);
+        record(tracker, fast, 10);
+        double idle = tracker.score(fast);
+        tracker.onStart(fast);
+        tracker.onStart(fast);
+        assertTrue(tracker.score(fast) > idle * 2.5);
+    }
+
+    @Test
+    void failureCountsAsPenaltyLatency() {
+        InstanceLatencyTracker tracker = new InstanceLatencyTracker(10_000, 1_000, null);
+        tracker.onStart(slow);
+        tracker.onComplete(slow, TimeUnit.MILLISECONDS.toNanos(1), true);
+        assertTrue(tracker.score(slow) >= TimeUnit.MILLISECONDS.toNanos(900));
+    }
+
+    @Test
+    void choosesLowerScoredInstance() {
+        InstanceLatencyTracker tracker = new InstanceLatencyTracker(10_000, 1_000, null);
+        record(tracker, fast, 5);
+        record(tracker, slow, 300);
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("supplier", ServiceInstanceListSuppliers.from("user", fast, slow));
+        PeakEwmaLoadBalancer loadBalancer =
+                new PeakEwmaLoadBalancer(beanFactory.getBeanProvider(ServiceInstanceListSupplier.class), tracker);
+        for (int i = 0; i < 20; i++) {
+            ServiceInstance chosen = loadBalancer.choose(new DefaultRequest<>()).block().getServer();
+            assertEquals("fast", chosen.getInstanceId());
+        }
+    }
+
+    @Test
+    void evictsStatsOfRemovedInstances() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        InstanceLatencyTracker tracker = new InstanceLatencyTracker(10_000, 1_000, registry);
+        record(tracker, fast, 5);
+        record(tracker, slow, 300);
+        tracker.onStart(slow);
+        assertEquals(6, registry.getMeters().size());
+
+        tracker.retain("user", List.of(fast));
+        assertEquals(3, registry.getMeters().size());
+        assertNull(registry.find("seecooker.loadbalancer.score").tag("instance", "10.0.0.2:8080").gauge());
+        assertNotNull(registry.find("seecooker.loadbalancer.score").tag("instance", "10.0.0.1:8080").gauge());
+
+        // 下线前发出的请求结束时不再重建统计
+        tracker.onComplete(slow, TimeUnit.MILLISECONDS.toNanos(300), false);
+        assertEquals(3, registry.getMeters().size());
+        // 实例重新上线后从头统计
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(1), tracker.score(slow), 1);
+    }
+
+    @Test
+    void choosingRetainsOnlyListedInstances() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        InstanceLatencyTracker tracker = new InstanceLatencyTracker(10_000, 1_000, registry);
+        ServiceInstance other = new DefaultServiceInstance("other", "recipe", "10.0.0.3", 8080, false);
+        record(tracker, fast, 5);
+        record(tracker, slow, 300);
+        record(tracker, other, 5);
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("supplier", ServiceInstanceListSuppliers.from("user", fast));
+        PeakEwmaLoadBalancer loadBalancer =
+                new PeakEwmaLoadBalancer(beanFactory.getBeanProvider(ServiceInstanceListSupplier.class), tracker);
+
+        assertEquals("fast", loadBalancer.choose(new DefaultRequest<>()).block().getServer().getInstanceId());
+        assertNull(registry.find("seecooker.loadbalancer.score").tag("instance", "10.0.0.2:8080").gauge());
+        // 其他服务的实例不受影响
+        assertNotNull(registry.find("seecooker.loadbalancer.score").tag("service", "recipe").gauge());
+    }
+
+    private static void record(InstanceLatencyTracker tracker, ServiceInstance instance, long millis) {
+        tracker.onStart(instance);
+        tracker.onComplete(instance, TimeUnit.MILLISECONDS.toNanos(millis), false);
+    }
+}
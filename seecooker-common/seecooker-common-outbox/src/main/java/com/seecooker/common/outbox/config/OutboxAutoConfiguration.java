@@ -0,0 +1,50 @@
+package com.seecooker.common.outbox.config;
+
+import com.seecooker.common.core.enums.MessageQueue;
+import com.seecooker.common.outbox.dao.OutboxDao;
+import com.seecooker.common.outbox.sender.OutboxSender;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.data.jpa.JpaRepositoriesAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.Assert;
+
+/**
+ * 发件箱自动配置
+ * 将发件箱实体和dao所在的包加入自动配置包，由应用的JPA配置一并扫描；声明用户事件队列并创建投递者
+ *
+ * @author xueruichen
+ * @date 2024.01.24
+ */
+@AutoConfiguration(before = {HibernateJpaAutoConfiguration.class, JpaRepositoriesAutoConfiguration.class})
+@AutoConfigurationPackage(basePackages = "com.seecooker.common.outbox")
+@EnableConfigurationProperties(OutboxProperties.class)
+public class OutboxAutoConfiguration {
+    @Bean
+    public Queue userEventQueue() {
+        return new Queue(MessageQueue.USER_EVENT.getQueue());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public MessageConverter messageConverter() {
+        return new Jackson2JsonMessageConverter();
+    }
+
+    @Bean
+    public OutboxSender outboxSender(OutboxDao outboxDao, RabbitTemplate rabbitTemplate,
+                                     PlatformTransactionManager transactionManager, OutboxProperties properties) {
+        Assert.hasText(properties.getSource(), "seecooker.outbox.source must be set");
+        return new OutboxSender(outboxDao, rabbitTemplate, new TransactionTemplate(transactionManager),
+                properties.getSource(), properties.getConfirmTimeout(), properties.getClaimTimeout());
+    }
+}
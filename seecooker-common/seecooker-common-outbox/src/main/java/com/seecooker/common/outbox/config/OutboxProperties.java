@@ -0,0 +1,33 @@
+package com.seecooker.common.outbox.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 发件箱配置
+ *
+ * @author xueruichen
+ * @date 2024.01.24
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "seecooker.outbox")
+public class OutboxProperties {
+    /**
+     * 事件来源，作为事件id前缀，同一服务的各实例须一致
+     */
+    private String source;
+
+    /**
+     * 等待broker确认的超时时间
+     */
+    private Duration confirmTimeout = Duration.ofSeconds(5);
+
+    /**
+     * 事件认领的有效期，须大于确认超时时间
+     */
+    private Duration claimTimeout = Duration.ofSeconds(30);
+}
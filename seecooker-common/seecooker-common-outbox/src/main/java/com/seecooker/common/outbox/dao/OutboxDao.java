@@ -0,0 +1,79 @@
+package com.seecooker.common.outbox.dao;
+
+import com.seecooker.common.outbox.po.OutboxPO;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 发件箱dao层
+ *
+ * @author xueruichen
+ * @date 2024.01.17
+ */
+public interface OutboxDao extends JpaRepository<OutboxPO, Long> {
+    /**
+     * 分配目标上的下一个序号并写入事件，须在业务事务中调用
+     * 序号行在事务提交前保持锁定，同一目标上的并发写入按提交顺序取得递增的序号
+     *
+     * @param event 待写入事件
+     * @return 写入的事件
+     */
+    default OutboxPO append(OutboxPO event) {
+        event.setSequence(nextSequence(event.getTargetId()));
+        return save(event);
+    }
+
+    /**
+     * 递增并返回目标上的事件序号，目标首个事件的序号为1
+     *
+     * @param targetId 事件关联的帖子或菜谱id
+     * @return 递增后的序号
+     */
+    @Query(value = "INSERT INTO outbox_sequence (target_id, sequence) VALUES (:targetId, 1) " +
+            "ON CONFLICT (target_id) DO UPDATE SET sequence = outbox_sequence.sequence + 1 " +
+            "RETURNING sequence", nativeQuery = true)
+    long nextSequence(@Param("targetId") Long targetId);
+
+    /**
+     * 按写入顺序取出一批未被认领或认领已过期的事件并加锁，已被其他实例锁定的行直接跳过
+     *
+     * @param now 当前时间
+     * @param pageable 批量大小
+     * @return 待投递事件
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT o FROM OutboxPO o WHERE o.claimedUntil IS NULL OR o.claimedUntil < :now ORDER BY o.id")
+    List<OutboxPO> findClaimable(@Param("now") LocalDateTime now, Pageable pageable);
+
+    /**
+     * 释放事件的认领，使其可被立即重新投递
+     *
+     * @param ids 事件id
+     * @return 更新行数
+     */
+    @Modifying
+    @Query("UPDATE OutboxPO o SET o.claimedUntil = NULL WHERE o.id IN :ids")
+    int release(@Param("ids") List<Long> ids);
+
+    /**
+     * 标记一次性任务已执行，须与任务在同一事务中调用
+     *
+     * @param name 任务名
+     * @return 插入行数，任务已被执行或正由其他实例执行时为0
+     */
+    @Modifying
+    @Query(value = "INSERT INTO outbox_marker (name, create_time) VALUES (:name, now()) ON CONFLICT (name) DO NOTHING",
+            nativeQuery = true)
+    int markOnce(@Param("name") String name);
+}
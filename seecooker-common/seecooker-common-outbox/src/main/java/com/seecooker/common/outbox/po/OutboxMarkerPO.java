@@ -0,0 +1,39 @@
+package com.seecooker.common.outbox.po;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * 发件箱标记持久层实体类
+ * 记录已执行过的一次性任务，如统计数据回填，多实例、多次启动时只执行一次
+ *
+ * @author xueruichen
+ * @date 2024.01.24
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "outbox_marker")
+public class OutboxMarkerPO {
+    /**
+     * 任务名
+     */
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    /**
+     * 数据创建的时间戳
+     */
+    @CreationTimestamp
+    private LocalDateTime createTime;
+}
@@ -0,0 +1,74 @@
+package com.seecooker.common.outbox.po;
+
+import com.seecooker.common.core.enums.UserEventType;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * 发件箱持久层实体类
+ * 与业务数据在同一事务中写入，由OutboxSender异步投递到用户服务
+ *
+ * @author xueruichen
+ * @date 2024.01.17
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "outbox")
+public class OutboxPO {
+    /**
+     * 事件id
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * 事件类型
+     */
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(length = 32)
+    private UserEventType eventType;
+
+    /**
+     * 用户id
+     */
+    @NotNull
+    private Long userId;
+
+    /**
+     * 事件关联的帖子或菜谱id
+     */
+    @NotNull
+    private Long targetId;
+
+    /**
+     * 事件附带的数量，如删除帖子时该帖子的获赞数
+     */
+    private Integer amount;
+
+    /**
+     * 事件在目标上的序号，由OutboxDao.append在写入时分配
+     */
+    @NotNull
+    private Long sequence;
+
+    /**
+     * 投递者认领该事件的截止时间，为空或已过期时可被再次认领
+     */
+    private LocalDateTime claimedUntil;
+
+    /**
+     * 数据创建的时间戳
+     */
+    @CreationTimestamp
+    private LocalDateTime createTime;
+}
@@ -0,0 +1,35 @@
+package com.seecooker.common.outbox.po;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+/**
+ * 发件箱序号持久层实体类
+ * 每个事件目标一行，写入发件箱时在业务事务中递增并锁定该行，同一目标上的事件序号与提交顺序一致
+ *
+ * @author xueruichen
+ * @date 2024.01.24
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "outbox_sequence")
+public class OutboxSequencePO {
+    /**
+     * 事件关联的帖子或菜谱id
+     */
+    @Id
+    private Long targetId;
+
+    /**
+     * 该目标上最近一个事件的序号
+     */
+    @NotNull
+    private Long sequence;
+}
@@ -0,0 +1,13 @@
+package com.seecooker.common.outbox.po;
+
+/**
+ * 按用户汇总的数量投影，用于回填用户统计数据
+ *
+ * @author xueruichen
+ * @date 2024.01.24
+ */
+public interface UserTotalView {
+    Long getUserId();
+
+    Integer getTotal();
+}
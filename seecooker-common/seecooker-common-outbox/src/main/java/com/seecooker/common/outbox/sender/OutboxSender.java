@@ -0,0 +1,117 @@
+package com.seecooker.common.outbox.sender;
+
+import com.seecooker.common.core.enums.MessageQueue;
+import com.seecooker.common.core.model.dto.user.UserEventDTO;
+import com.seecooker.common.outbox.dao.OutboxDao;
+import com.seecooker.common.outbox.po.OutboxPO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 发件箱投递者
+ * 定时认领一批已提交的发件箱事件并提交认领，在事务外发往用户服务，broker确认后再以短事务删除
+ *
+ * @author xueruichen
+ * @date 2024.01.17
+ */
+@Slf4j
+public class OutboxSender {
+    private static final int BATCH_SIZE = 100;
+
+    private final OutboxDao outboxDao;
+    private final RabbitTemplate rabbitTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final String source;
+    private final Duration confirmTimeout;
+    private final Duration claimTimeout;
+
+    /**
+     * @param outboxDao 发件箱dao
+     * @param rabbitTemplate 开启了correlated publisher confirm的RabbitTemplate
+     * @param transactionTemplate 认领和删除事件使用的事务模板
+     * @param source 事件来源，作为事件id前缀
+     * @param confirmTimeout 等待broker确认的超时时间
+     * @param claimTimeout 认领的有效期，须大于确认超时时间，投递者宕机时事件在过期后被重新认领
+     */
+    public OutboxSender(OutboxDao outboxDao, RabbitTemplate rabbitTemplate, TransactionTemplate transactionTemplate,
+                        String source, Duration confirmTimeout, Duration claimTimeout) {
+        if (!rabbitTemplate.getConnectionFactory().isPublisherConfirms()) {
+            throw new IllegalStateException("Outbox relay requires spring.rabbitmq.publisher-confirm-type=correlated");
+        }
+        if (claimTimeout.compareTo(confirmTimeout) <= 0) {
+            throw new IllegalStateException("seecooker.outbox.claim-timeout must be longer than confirm-timeout");
+        }
+        this.outboxDao = outboxDao;
+        this.rabbitTemplate = rabbitTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.source = source;
+        this.confirmTimeout = confirmTimeout;
+        this.claimTimeout = claimTimeout;
+    }
+
+    @Scheduled(fixedDelay = 500)
+    public void relay() {
+        // 认领后立即提交，等待broker确认期间不持有行锁和数据库连接
+        List<OutboxPO> outbox = transactionTemplate.execute(status -> claim());
+        if (outbox == null || outbox.isEmpty()) {
+            return;
+        }
+        List<Long> ids = outbox.stream().map(OutboxPO::getId).toList();
+        List<UserEventDTO> events = outbox.stream()
+                .map(event -> UserEventDTO.builder()
+                        .eventId(source + ":" + event.getId())
+                        .sequence(event.getSequence())
+                        .type(event.getEventType())
+                        .userId(event.getUserId())
+                        .targetId(event.getTargetId())
+                        .amount(event.getAmount())
+                        .build())
+                .toList();
+        CorrelationData correlation = new CorrelationData(source + ":" + ids.get(0));
+        try {
+            rabbitTemplate.convertAndSend(MessageQueue.USER_EVENT.getQueue(), events, correlation);
+            awaitConfirm(correlation);
+        } catch (AmqpException e) {
+            // 未确认的事件释放认领，下次重新投递；释放失败时等待认领过期
+            transactionTemplate.executeWithoutResult(status -> outboxDao.release(ids));
+            throw e;
+        }
+        // 确认后才删除；删除失败时事件在认领过期后被重复投递，由消费端按事件id去重
+        transactionTemplate.executeWithoutResult(status -> outboxDao.deleteAllByIdInBatch(ids));
+        log.debug("Relayed {} user events", events.size());
+    }
+
+    private List<OutboxPO> claim() {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxPO> outbox = outboxDao.findClaimable(now, PageRequest.of(0, BATCH_SIZE));
+        LocalDateTime claimedUntil = now.plus(claimTimeout);
+        outbox.forEach(event -> event.setClaimedUntil(claimedUntil));
+        return outbox;
+    }
+    private void awaitConfirm(CorrelationData correlation) {
+        CorrelationData.Confirm confirm;
+        try {
+            confirm = correlation.getFuture().get(confirmTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            throw new AmqpException("User events " + correlation.getId() + " were not confirmed", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AmqpException("Interrupted while waiting for confirm of " + correlation.getId(), e);
+        }
+        if (!confirm.isAck()) {
+            throw new AmqpException("User events " + correlation.getId() + " were rejected: " + confirm.getReason());
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.seecooker.common.redis.auth;
+
+import cn.dev33.satoken.stp.StpLogic;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.data.redis.RedisAutoConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * 无状态token自动配置
+ * 配置seecooker.auth.stateless=true后启用，网关与各服务需同时开启并使用相同的sa-token.jwt-secret-key
+ *
+ * @author xueruichen
+ * @date 2024.01.22
+ */
+@AutoConfiguration(after = RedisAutoConfiguration.class)
+@ConditionalOnProperty(name = "seecooker.auth.stateless", havingValue = "true")
+public class StatelessAuthAutoConfiguration {
+    @Bean
+    public TokenRevocationList tokenRevocationList(StringRedisTemplate redisTemplate,
+                                                   @Value("${seecooker.auth.revocation-refresh-millis:5000}") long refreshMillis) {
+        return new TokenRevocationList(redisTemplate, refreshMillis);
+    }
+
+    @Bean
+    public StpLogic statelessStpLogic(TokenRevocationList revocationList,
+                                      @Value("${seecooker.auth.token-timeout:3600}") long tokenTimeout) {
+        return new StatelessStpLogic(revocationList, tokenTimeout);
+    }
+}
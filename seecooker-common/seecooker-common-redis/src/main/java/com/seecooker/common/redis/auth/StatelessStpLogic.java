@@ -0,0 +1,56 @@
+package com.seecooker.common.redis.auth;
+
+import cn.dev33.satoken.jwt.SaJwtUtil;
+import cn.dev33.satoken.jwt.StpLogicJwtForStateless;
+import cn.dev33.satoken.stp.SaLoginModel;
+import cn.dev33.satoken.stp.StpUtil;
+import cn.hutool.json.JSONObject;
+
+/**
+ * 无状态token鉴权逻辑
+ * token为签名的jwt，校验签名、过期时间与内存中的注销列表，不读取redis会话
+ *
+ * @author xueruichen
+ * @date 2024.01.22
+ */
+public class StatelessStpLogic extends StpLogicJwtForStateless {
+    private final TokenRevocationList revocationList;
+    private final long tokenTimeout;
+
+    public StatelessStpLogic(TokenRevocationList revocationList, long tokenTimeout) {
+        super(StpUtil.TYPE);
+        this.revocationList = revocationList;
+        this.tokenTimeout = tokenTimeout;
+    }
+
+    @Override
+    public String createLoginSession(Object id, SaLoginModel loginModel) {
+        // 未显式指定时使用较短的有效期，缩短注销列表需要保留的时间
+        if (loginModel.getTimeout() == null) {
+            loginModel.setTimeout(tokenTimeout);
+        }
+        return super.createLoginSession(id, loginModel);
+    }
+
+    @Override
+    public String getLoginIdNotHandle(String tokenValue) {
+        String loginId = super.getLoginIdNotHandle(tokenValue);
+        if (loginId == null) {
+            return null;
+        }
+        JSONObject payloads = SaJwtUtil.getPayloadsNotCheck(tokenValue, loginType, jwtSecretKey());
+        return revocationList.isRevoked(payloads.getStr(SaJwtUtil.RN_STR)) ? null : loginId;
+    }
+
+    @Override
+    public void logout() {
+        String tokenValue = getTokenValue();
+        if (tokenValue != null && super.getLoginIdNotHandle(tokenValue) != null) {
+            JSONObject payloads = SaJwtUtil.getPayloadsNotCheck(tokenValue, loginType, jwtSecretKey());
+            Long expireAt = payloads.getLong(SaJwtUtil.EFF);
+            revocationList.revoke(payloads.getStr(SaJwtUtil.RN_STR),
+                    expireAt == null || expireAt == SaJwtUtil.NEVER_EXPIRE ? Long.MAX_VALUE : expireAt);
+        }
+        super.logout();
+    }
+}
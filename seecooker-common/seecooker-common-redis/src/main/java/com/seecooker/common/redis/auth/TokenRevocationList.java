@@ -0,0 +1,93 @@
+package com.seecooker.common.redis.auth;
+
+import com.seecooker.common.redis.enums.RedisKey;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 已注销token列表
+ * redis中以有序集合保存token随机串，分值为token过期时间，过期后即可移除；
+ * 各实例定时拉取到内存中，校验时不访问redis
+ *
+ * @author xueruichen
+ * @date 2024.01.22
+ */
+@Slf4j
+public class TokenRevocationList implements DisposableBean {
+    private final StringRedisTemplate redisTemplate;
+    private final ScheduledExecutorService scheduler;
+    /**
+     * 本实例注销、尚未在拉取结果中出现的token及其过期时间，拉取与注销并发时避免被旧结果覆盖
+     */
+    private final Map<String, Long> pending = new ConcurrentHashMap<>();
+    private volatile Set<String> revoked = Collections.emptySet();
+
+    public TokenRevocationList(StringRedisTemplate redisTemplate, long refreshMillis) {
+        this.redisTemplate = redisTemplate;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "token-revocation-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::refresh, 0, refreshMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 注销token
+     *
+     * @param tokenId token随机串
+     * @param expireAt token过期时间（毫秒）
+     */
+    public void revoke(String tokenId, long expireAt) {
+        pending.put(tokenId, expireAt);
+        redisTemplate.opsForZSet().add(RedisKey.REVOKED_TOKEN.getKey(), tokenId, expireAt);
+        synchronized (this) {
+            Set<String> copy = new HashSet<>(revoked);
+            copy.add(tokenId);
+            revoked = copy;
+        }
+    }
+
+    /**
+     * 判断token是否已注销
+     *
+     * @param tokenId token随机串
+     * @return 是否已注销
+     */
+    public boolean isRevoked(String tokenId) {
+        return revoked.contains(tokenId);
+    }
+
+    private void refresh() {
+        try {
+            long now = System.currentTimeMillis();
+            redisTemplate.opsForZSet().removeRangeByScore(RedisKey.REVOKED_TOKEN.getKey(), 0, now);
+            Set<String> members = redisTemplate.opsForZSet().rangeByScore(RedisKey.REVOKED_TOKEN.getKey(), now, Double.MAX_VALUE);
+            Set<String> latest = members == null ? new HashSet<>() : new HashSet<>(members);
+            // 已出现在拉取结果中或已过期的本地注销不再单独保留
+            pending.entrySet().removeIf(entry -> latest.contains(entry.getKey()) || entry.getValue() <= now);
+            synchronized (this) {
+                latest.addAll(pending.keySet());
+                revoked = latest;
+            }
+        } catch (Exception e) {
+            // 拉取失败时沿用上一次的列表
+            log.warn("Failed to refresh revoked tokens: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+    }
+}
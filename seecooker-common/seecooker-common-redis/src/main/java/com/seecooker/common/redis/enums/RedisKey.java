@@ -12,7 +12,14 @@ import lombok.Getter;
 @AllArgsConstructor
 @Getter
 public enum RedisKey {
-    INGREDIENT("INGREDIENT");
+    INGREDIENT("INGREDIENT"),
+    HOT_POST("HOT_POST"),
+    HOT_POST_DECAY("HOT_POST_DECAY"),
+    USER("USER:"),
+    USER_PROFILE("USER_PROFILE:"),
+    REVOKED_TOKEN("REVOKED_TOKEN"),
+    UPLOAD_TICKET("UPLOAD_TICKET:"),
+    UPLOAD_TICKET_DEADLINE("UPLOAD_TICKET_DEADLINE");
 
     private final String key;
 }
@@ -0,0 +1,100 @@
+package com.seecooker.common.redis.auth;
+
+import cn.dev33.satoken.SaManager;
+import cn.dev33.satoken.config.SaTokenConfig;
+import cn.dev33.satoken.jwt.SaJwtUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class StatelessStpLogicTests {
+    private final AtomicReference<Set<String>> remote = new AtomicReference<>(Set.of());
+    private ZSetOperations<String, String> zSet;
+    private TokenRevocationList revocationList;
+    private StatelessStpLogic stpLogic;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        SaManager.setConfig(new SaTokenConfig().setJwtSecretKey("test-secret-key-test-secret-key"));
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        zSet = mock(ZSetOperations.class);
+        when(redisTemplate.opsForZSet()).thenReturn(zSet);
+        when(zSet.rangeByScore(anyString(), anyDouble(), anyDouble())).thenAnswer(invocation -> remote.get());
+        revocationList = new TokenRevocationList(redisTemplate, 20);
+        stpLogic = new StatelessStpLogic(revocationList, 3600);
+    }
+
+    @AfterEach
+    void tearDown() {
+        revocationList.destroy();
+    }
+
+    @Test
+    void acceptsValidToken() {
+        String token = stpLogic.createTokenValue(1L, "default-device", 3600, Map.of());
+
+        assertEquals("1", stpLogic.getLoginIdNotHandle(token));
+    }
+
+    @Test
+    void rejectsRevokedTokenAfterRefresh() {
+        String token = stpLogic.createTokenValue(1L, "default-device", 3600, Map.of());
+        String tokenId = tokenId(token);
+        revocationList.revoke(tokenId, System.currentTimeMillis() + 3600_000);
+        assertNull(stpLogic.getLoginIdNotHandle(token));
+
+        // 写入redis前开始的拉取不会覆盖本地注销
+        awaitRefresh();
+        assertNull(stpLogic.getLoginIdNotHandle(token));
+
+        // 拉取到该token后仍然拒绝
+        remote.set(Set.of(tokenId));
+        awaitRefresh();
+
+        assertNull(stpLogic.getLoginIdNotHandle(token));
+    }
+
+    @Test
+    void rejectsTokenRevokedOnAnotherInstance() {
+        String token = stpLogic.createTokenValue(1L, "default-device", 3600, Map.of());
+        remote.set(Set.of(tokenId(token)));
+        awaitRefresh();
+
+        assertNull(stpLogic.getLoginIdNotHandle(token));
+    }
+
+    @Test
+    void rejectsExpiredToken() {
+        String token = stpLogic.createTokenValue(1L, "default-device", -10, Map.of());
+
+        assertNull(stpLogic.getLoginIdNotHandle(token));
+    }
+
+    @Test
+    void rejectsTokenSignedWithAnotherKey() {
+        String token = SaJwtUtil.createToken(stpLogic.getLoginType(), 1L, "default-device", 3600, Map.of(), "another-secret-key-another-key");
+
+        assertNull(stpLogic.getLoginIdNotHandle(token));
+    }
+
+    private void awaitRefresh() {
+        clearInvocations(zSet);
+        // 第二次拉取开始时，第一次完整拉取的结果已生效
+        verify(zSet, timeout(1000).atLeast(2)).rangeByScore(anyString(), anyDouble(), anyDouble());
+    }
+
+    private String tokenId(String token) {
+        return SaJwtUtil.getPayloadsNotCheck(token, stpLogic.getLoginType(), stpLogic.jwtSecretKey()).getStr(SaJwtUtil.RN_STR);
+    }
+}
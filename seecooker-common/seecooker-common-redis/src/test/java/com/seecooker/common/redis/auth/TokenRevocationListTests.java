@@ -0,0 +1,81 @@
+package com.seecooker.common.redis.auth;
+
+import com.seecooker.common.redis.enums.RedisKey;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class TokenRevocationListTests {
+    private static final String KEY = RedisKey.REVOKED_TOKEN.getKey();
+
+    private ZSetOperations<String, String> zSet;
+    private StringRedisTemplate redisTemplate;
+    private TokenRevocationList revocationList;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisTemplate = mock(StringRedisTemplate.class);
+        zSet = mock(ZSetOperations.class);
+        when(redisTemplate.opsForZSet()).thenReturn(zSet);
+    }
+
+    @AfterEach
+    void tearDown() {
+        revocationList.destroy();
+    }
+
+    @Test
+    void revokesLocallyBeforeNextRefresh() {
+        revocationList = new TokenRevocationList(redisTemplate, 60_000);
+
+        revocationList.revoke("token", System.currentTimeMillis() + 60_000);
+
+        assertTrue(revocationList.isRevoked("token"));
+        verify(zSet).add(eq(KEY), eq("token"), anyDouble());
+    }
+
+    @Test
+    void pullsTokensRevokedByOtherInstances() {
+        when(zSet.rangeByScore(eq(KEY), anyDouble(), anyDouble())).thenReturn(Set.of("other"));
+
+        revocationList = new TokenRevocationList(redisTemplate, 20);
+
+        verify(zSet, timeout(1000).atLeast(2)).rangeByScore(eq(KEY), anyDouble(), anyDouble());
+        assertTrue(revocationList.isRevoked("other"));
+    }
+
+    @Test
+    void dropsExpiredEntriesOnRefresh() {
+        when(zSet.rangeByScore(eq(KEY), anyDouble(), anyDouble())).thenReturn(Set.of());
+        revocationList = new TokenRevocationList(redisTemplate, 20);
+        verify(zSet, timeout(1000).atLeastOnce()).rangeByScore(eq(KEY), anyDouble(), anyDouble());
+
+        revocationList.revoke("token", System.currentTimeMillis() - 1);
+        clearInvocations(zSet);
+        verify(zSet, timeout(1000).atLeast(2)).rangeByScore(eq(KEY), anyDouble(), anyDouble());
+
+        verify(zSet, atLeastOnce()).removeRangeByScore(eq(KEY), eq(0.0), anyDouble());
+        assertFalse(revocationList.isRevoked("token"));
+    }
+
+    @Test
+    void keepsLastListWhenRefreshFails() {
+        when(zSet.rangeByScore(eq(KEY), anyDouble(), anyDouble()))
+                .thenReturn(Set.of("token"))
+                .thenThrow(new IllegalStateException("redis down"));
+
+        revocationList = new TokenRevocationList(redisTemplate, 20);
+
+        verify(zSet, timeout(1000).atLeast(2)).rangeByScore(eq(KEY), anyDouble(), anyDouble());
+        assertTrue(revocationList.isRevoked("token"));
+    }
+}
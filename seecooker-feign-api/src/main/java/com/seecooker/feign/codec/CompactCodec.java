@@ -0,0 +1,37 @@
+package com.seecooker.feign.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * 服务间调用的Smile二进制编码
+ * 与JSON使用相同的Jackson配置，另外将id列表编码为差值+变长整数
+ *
+ * @author xueruichen
+ * @date 2024.01.24
+ */
+public class CompactCodec {
+    public static final MediaType MEDIA_TYPE = new MediaType("application", "x-jackson-smile");
+
+    /**
+     * 客户端请求头，优先接收Smile，服务端不支持时退回JSON
+     */
+    public static final String ACCEPT = MEDIA_TYPE + ", " + MediaType.APPLICATION_JSON_VALUE + ";q=0.9";
+
+    private final ObjectMapper objectMapper;
+
+    public CompactCodec(Jackson2ObjectMapperBuilder builder) {
+        SmileFactory factory = SmileFactory.builder()
+                .disable(SmileGenerator.Feature.ENCODE_BINARY_AS_7BIT)
+                .build();
+        this.objectMapper = builder.factory(factory).build();
+        this.objectMapper.registerModule(new IdListModule());
+    }
+
+    public ObjectMapper getObjectMapper() {
+        return objectMapper;
+    }
+}
@@ -0,0 +1,51 @@
+package com.seecooker.feign.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import feign.FeignException;
+import feign.Response;
+import feign.codec.DecodeException;
+import feign.codec.Decoder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+import java.util.Collection;
+
+/**
+ * 按响应的Content-Type解码Feign响应
+ * Smile响应直接解码，其余交给原有的JSON解码器
+ *
+ * @author xueruichen
+ * @date 2024.01.24
+ */
+public class CompactDecoder implements Decoder {
+    private final ObjectMapper objectMapper;
+    private final Decoder delegate;
+
+    public CompactDecoder(CompactCodec codec, Decoder delegate) {
+        this.objectMapper = codec.getObjectMapper();
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Object decode(Response response, Type type) throws IOException, FeignException {
+        if (response.body() == null || !isSmile(response)) {
+            return delegate.decode(response, type);
+        }
+        try (InputStream body = response.body().asInputStream()) {
+            return objectMapper.readValue(body, objectMapper.constructType(type));
+        } catch (IOException e) {
+            throw new DecodeException(response.status(), "Failed to decode smile response", response.request(), e);
+        }
+    }
+
+    private static boolean isSmile(Response response) {
+        Collection<String> contentTypes = response.headers().get(HttpHeaders.CONTENT_TYPE);
+        if (contentTypes == null || contentTypes.isEmpty()) {
+            return false;
+        }
+        return CompactCodec.MEDIA_TYPE.isCompatibleWith(MediaType.parseMediaType(contentTypes.iterator().next()));
+    }
+}
@@ -0,0 +1,36 @@
+package com.seecooker.feign.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import feign.RequestTemplate;
+import feign.codec.EncodeException;
+import feign.codec.Encoder;
+import org.springframework.http.HttpHeaders;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * 使用Smile编码Feign请求体
+ * 仅应在服务端均已支持Smile时使用，否则交给JSON编码器
+ *
+ * @author xueruichen
+ * @date 2024.01.24
+ */
+public class CompactEncoder implements Encoder {
+    private final ObjectMapper objectMapper;
+
+    public CompactEncoder(CompactCodec codec) {
+        this.objectMapper = codec.getObjectMapper();
+    }
+
+    @Override
+    public void encode(Object object, Type bodyType, RequestTemplate template) throws EncodeException {
+        try {
+            template.body(objectMapper.writerFor(objectMapper.constructType(bodyType)).writeValueAsBytes(object), null);
+        } catch (IOException e) {
+            throw new EncodeException("Failed to encode smile request body", e);
+        }
+        template.removeHeader(HttpHeaders.CONTENT_TYPE);
+        template.header(HttpHeaders.CONTENT_TYPE, CompactCodec.MEDIA_TYPE.toString());
+    }
+}
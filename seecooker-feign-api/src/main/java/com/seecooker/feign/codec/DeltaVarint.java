@@ -0,0 +1,67 @@
+package com.seecooker.feign.codec;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * id列表的差值+变长整数编码
+ * 依次记录与前一个id的差值，差值经zigzag转换后按7位一组写入，有序或相近的id通常只占1~2个字节
+ *
+ * @author xueruichen
+ * @date 2024.01.24
+ */
+public class DeltaVarint {
+    private DeltaVarint() {}
+
+    /**
+     * 编码id列表，列表中不能有null
+     *
+     * @param ids id列表
+     * @return 编码结果
+     */
+    public static byte[] encode(List<Long> ids) {
+        byte[] buffer = new byte[ids.size() * 10];
+        int position = 0;
+        long previous = 0;
+        for (Long id : ids) {
+            long delta = id - previous;
+            previous = id;
+            long value = (delta << 1) ^ (delta >> 63);
+            while ((value & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+        return Arrays.copyOf(buffer, position);
+    }
+
+    /**
+     * 解码id列表
+     *
+     * @param bytes 编码结果
+     * @return id列表
+     */
+    public static List<Long> decode(byte[] bytes) {
+        List<Long> ids = new ArrayList<>();
+        long previous = 0;
+        int position = 0;
+        while (position < bytes.length) {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                if (position == bytes.length || shift > 63) {
+                    throw new IllegalArgumentException("Malformed id list");
+                }
+                b = bytes[position++];
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            previous += (value >>> 1) ^ -(value & 1);
+            ids.add(previous);
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,42 @@
+package com.seecooker.feign.codec;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.lang.reflect.Type;
+
+/**
+ * 服务端Smile消息转换器，仅对feign/**接口生效
+ * 响应只有在调用方Accept中声明Smile时才会使用，其余情况仍返回JSON
+ *
+ * @author xueruichen
+ * @date 2024.01.24
+ */
+public class FeignSmileHttpMessageConverter extends MappingJackson2SmileHttpMessageConverter {
+    private static final String FEIGN_PATH = "/feign/";
+
+    public FeignSmileHttpMessageConverter(CompactCodec codec) {
+        super(codec.getObjectMapper());
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return isFeignRequest() && super.canRead(type, contextClass, mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return isFeignRequest() && super.canWrite(clazz, mediaType);
+    }
+
+    private static boolean isFeignRequest() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes servletAttributes)) {
+            return false;
+        }
+        return servletAttributes.getRequest().getServletPath().startsWith(FEIGN_PATH);
+    }
+}
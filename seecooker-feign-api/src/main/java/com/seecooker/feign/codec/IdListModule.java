@@ -0,0 +1,107 @@
+package com.seecooker.feign.codec;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.Deserializers;
+import com.fasterxml.jackson.databind.jsontype.TypeDeserializer;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.Serializers;
+import com.fasterxml.jackson.databind.type.CollectionType;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 将List&lt;Long&gt;按差值+变长整数编码为二进制值，仅注册在Smile编码器上
+ * 列表中含有null时仍按数组写出，读取时两种格式均可识别
+ *
+ * @author xueruichen
+ * @date 2024.01.24
+ */
+public class IdListModule extends SimpleModule {
+    public IdListModule() {
+        super("IdListModule");
+    }
+
+    @Override
+    public void setupModule(SetupContext context) {
+        super.setupModule(context);
+        context.addSerializers(new Serializers.Base() {
+            @Override
+            public JsonSerializer<?> findCollectionSerializer(SerializationConfig config, CollectionType type, BeanDescription beanDesc,
+                                                              TypeSerializer elementTypeSerializer, JsonSerializer<Object> elementValueSerializer) {
+                return isIdList(type) ? new IdListSerializer() : null;
+            }
+        });
+        context.addDeserializers(new Deserializers.Base() {
+            @Override
+            public JsonDeserializer<?> findCollectionDeserializer(CollectionType type, DeserializationConfig config, BeanDescription beanDesc,
+                                                                  TypeDeserializer elementTypeDeserializer, JsonDeserializer<?> elementDeserializer) {
+                return isIdList(type) ? new IdListDeserializer() : null;
+            }
+        });
+    }
+
+    private static boolean isIdList(JavaType type) {
+        // 只处理可以用ArrayList承接的声明类型，如List、Collection
+        return type.getContentType().hasRawClass(Long.class) && type.getRawClass().isAssignableFrom(ArrayList.class);
+    }
+
+    private static class IdListSerializer extends JsonSerializer<List<Long>> {
+        @Override
+        public void serialize(List<Long> ids, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+            if (hasNull(ids)) {
+                gen.writeStartArray(ids, ids.size());
+                for (Long id : ids) {
+                    if (id == null) {
+                        gen.writeNull();
+                    } else {
+                        gen.writeNumber(id);
+                    }
+                }
+                gen.writeEndArray();
+                return;
+            }
+            gen.writeBinary(DeltaVarint.encode(ids));
+        }
+
+        private static boolean hasNull(List<Long> ids) {
+            // List.of等不可变列表的contains(null)会抛出NullPointerException
+            for (Long id : ids) {
+                if (id == null) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static class IdListDeserializer extends JsonDeserializer<List<Long>> {
+        @Override
+        public List<Long> deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            if (p.currentToken() == JsonToken.VALUE_EMBEDDED_OBJECT) {
+                return DeltaVarint.decode(p.getBinaryValue());
+            }
+            if (!p.isExpectedStartArrayToken()) {
+                return (List<Long>) ctxt.handleUnexpectedToken(List.class, p);
+            }
+            List<Long> ids = new ArrayList<>();
+            JsonToken token;
+            while ((token = p.nextToken()) != JsonToken.END_ARRAY) {
+                ids.add(token == JsonToken.VALUE_NULL ? null : p.getLongValue());
+            }
+            return ids;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.seecooker.feign.config;
+
+import com.seecooker.feign.codec.CompactCodec;
+import com.seecooker.feign.codec.FeignSmileHttpMessageConverter;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * 服务间调用Smile编码自动配置
+ * 客户端一侧由各客户端的配置引用CompactCodec；servlet服务同时注册服务端消息转换器
+ *
+ * @author xueruichen
+ * @date 2024.01.24
+ */
+@AutoConfiguration(after = JacksonAutoConfiguration.class)
+public class CompactCodecAutoConfiguration {
+    @Bean
+    public CompactCodec compactCodec(Jackson2ObjectMapperBuilder builder) {
+        return new CompactCodec(builder);
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    @ConditionalOnClass(WebMvcConfigurer.class)
+    static class ServerConfiguration implements WebMvcConfigurer {
+        private final CompactCodec codec;
+
+        ServerConfiguration(CompactCodec codec) {
+            this.codec = codec;
+        }
+
+        @Override
+        public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+            // 排在JSON之后，未声明接收Smile的请求不受影响
+            converters.add(new FeignSmileHttpMessageConverter(codec));
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.seecooker.feign.config;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Feign默认配置
+ * 使用连接池化的Apache HttpClient 5，以最低优先级加入环境，各服务可在配置中心覆盖
+ *
+ * @author xueruichen
+ * @date 2024.01.24
+ */
+public class FeignDefaultsEnvironmentPostProcessor implements EnvironmentPostProcessor {
+    private static final String PROPERTY_SOURCE_NAME = "seecookerFeignDefaults";
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        Map<String, Object> defaults = new HashMap<>();
+        defaults.put("spring.cloud.openfeign.httpclient.hc5.enabled", true);
+        defaults.put("spring.cloud.openfeign.httpclient.max-connections", 200);
+        defaults.put("spring.cloud.openfeign.httpclient.max-connections-per-route", 50);
+        // 空闲连接保留15分钟，避免频繁握手
+        defaults.put("spring.cloud.openfeign.httpclient.time-to-live", 900);
+        defaults.put("spring.cloud.openfeign.httpclient.connection-timeout", 500);
+        // 连接池耗尽时快速失败，而不是排队等待
+        defaults.put("spring.cloud.openfeign.httpclient.hc5.connection-request-timeout", 500);
+        defaults.put("spring.cloud.openfeign.httpclient.hc5.connection-request-timeout-unit", "milliseconds");
+        defaults.put("spring.cloud.openfeign.httpclient.hc5.pool-reuse-policy", "lifo");
+        environment.getPropertySources().addLast(new MapPropertySource(PROPERTY_SOURCE_NAME, defaults));
+    }
+}
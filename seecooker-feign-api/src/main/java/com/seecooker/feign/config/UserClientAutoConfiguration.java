@@ -0,0 +1,39 @@
+package com.seecooker.feign.config;
+
+import com.seecooker.common.core.concurrent.FanOutExecutor;
+import com.seecooker.common.core.config.FanOutAutoConfiguration;
+import com.seecooker.feign.user.AsyncUserClient;
+import com.seecooker.feign.user.LastKnownUserCache;
+import com.seecooker.feign.user.UserClient;
+import com.seecooker.feign.user.UserLoader;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * UserClient自动配置
+ *
+ * @author xueruichen
+ * @date 2024.01.24
+ */
+@AutoConfiguration(after = FanOutAutoConfiguration.class)
+@EnableConfigurationProperties(UserClientProperties.class)
+public class UserClientAutoConfiguration {
+    @Bean
+    public LastKnownUserCache lastKnownUserCache(UserClientProperties properties) {
+        return new LastKnownUserCache(properties.getLastKnownCacheSize());
+    }
+
+    @Bean
+    public UserLoader userLoader(ObjectProvider<UserClient> userClient) {
+        return new UserLoader(userClient);
+    }
+
+    @Bean
+    @ConditionalOnBean(FanOutExecutor.class)
+    public AsyncUserClient asyncUserClient(ObjectProvider<UserClient> userClient, FanOutExecutor executor) {
+        return new AsyncUserClient(userClient, executor);
+    }
+}
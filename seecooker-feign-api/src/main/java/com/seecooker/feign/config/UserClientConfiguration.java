@@ -0,0 +1,82 @@
+package com.seecooker.feign.config;
+
+import com.seecooker.feign.codec.CompactCodec;
+import com.seecooker.feign.codec.CompactDecoder;
+import com.seecooker.feign.codec.CompactEncoder;
+import com.seecooker.feign.resilience.ResilienceCapability;
+import com.seecooker.feign.user.LastKnownUserCache;
+import com.seecooker.feign.user.LastKnownUserCapability;
+import com.seecooker.feign.user.UserClientFallbackFactory;
+import feign.FeignException;
+import feign.RequestInterceptor;
+import feign.codec.Decoder;
+import feign.codec.Encoder;
+import feign.optionals.OptionalDecoder;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.cloud.openfeign.support.HttpMessageConverterCustomizer;
+import org.springframework.cloud.openfeign.support.ResponseEntityDecoder;
+import org.springframework.cloud.openfeign.support.SpringDecoder;
+import org.springframework.cloud.openfeign.support.SpringEncoder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpHeaders;
+
+import java.time.Duration;
+
+/**
+ * UserClient专用配置，仅在该客户端的子上下文中生效，不可被组件扫描
+ *
+ * @author xueruichen
+ * @date 2024.01.24
+ */
+public class UserClientConfiguration {
+    @Bean
+    public ResilienceCapability userClientResilience(UserClientProperties properties, LastKnownUserCache cache) {
+        BulkheadConfig bulkheadConfig = BulkheadConfig.custom()
+                .maxConcurrentCalls(properties.getMaxConcurrentCalls())
+                .maxWaitDuration(Duration.ZERO)
+                .build();
+        CircuitBreakerConfig circuitBreakerConfig = CircuitBreakerConfig.custom()
+                .failureRateThreshold(properties.getFailureRateThreshold())
+                .slowCallRateThreshold(properties.getFailureRateThreshold())
+                .slowCallDurationThreshold(properties.getSlowCallThreshold())
+                .slidingWindowSize(properties.getSlidingWindowSize())
+                .minimumNumberOfCalls(properties.getMinimumNumberOfCalls())
+                .waitDurationInOpenState(properties.getWaitInOpenState())
+                // 4xx为调用方问题，不代表用户服务异常
+                .ignoreExceptions(FeignException.FeignClientException.class)
+                .build();
+        return new ResilienceCapability("seecooker-user-service", properties.getConnectTimeout(), properties.getReadTimeout(),
+                properties.getMethodTimeouts(), bulkheadConfig, circuitBreakerConfig, new UserClientFallbackFactory(cache));
+    }
+
+    @Bean
+    public LastKnownUserCapability lastKnownUserCapability(LastKnownUserCache cache) {
+        return new LastKnownUserCapability(cache);
+    }
+
+    /**
+     * Smile响应直接解码，其余沿用默认的JSON解码链；作为最内层解码器，其他扩展仍能看到解码结果
+     */
+    @Bean
+    public Decoder userClientDecoder(CompactCodec codec, ObjectFactory<HttpMessageConverters> messageConverters,
+                                     ObjectProvider<HttpMessageConverterCustomizer> customizers) {
+        return new OptionalDecoder(new ResponseEntityDecoder(
+                new CompactDecoder(codec, new SpringDecoder(messageConverters, customizers))));
+    }
+
+    @Bean
+    public Encoder userClientEncoder(CompactCodec codec, UserClientProperties properties,
+                                     ObjectFactory<HttpMessageConverters> messageConverters) {
+        return properties.isBinaryRequests() ? new CompactEncoder(codec) : new SpringEncoder(messageConverters);
+    }
+
+    @Bean
+    public RequestInterceptor userClientAccept() {
+        // 优先接收Smile，用户服务不支持时按JSON返回
+        return template -> template.header(HttpHeaders.ACCEPT, CompactCodec.ACCEPT);
+    }
+}
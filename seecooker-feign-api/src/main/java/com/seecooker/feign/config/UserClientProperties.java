@@ -0,0 +1,82 @@
+package com.seecooker.feign.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * UserClient调用配置
+ *
+ * @author xueruichen
+ * @date 2024.01.24
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "seecooker.feign.user")
+public class UserClientProperties {
+    /**
+     * 建立连接超时时间
+     */
+    private Duration connectTimeout = Duration.ofMillis(500);
+
+    /**
+     * 默认读超时时间，未单独配置的方法使用
+     */
+    private Duration readTimeout = Duration.ofSeconds(2);
+
+    /**
+     * 按方法名配置的读超时时间
+     */
+    private Map<String, Duration> methodTimeouts = new HashMap<>(Map.of(
+            "getUserById", Duration.ofMillis(800),
+            "getUserProfileById", Duration.ofMillis(800),
+            "getUserProfilesByIds", Duration.ofSeconds(1),
+            "filterFavoriteRecipes", Duration.ofSeconds(1),
+            "getFavoriteRecipeIds", Duration.ofSeconds(1)
+    ));
+
+    /**
+     * 同时进行中的最大调用数，超出时立即失败
+     */
+    private int maxConcurrentCalls = 64;
+
+    /**
+     * 熔断器打开的失败率阈值（百分比）
+     */
+    private float failureRateThreshold = 50;
+
+    /**
+     * 慢调用阈值，慢调用比例超过失败率阈值时同样打开熔断器
+     */
+    private Duration slowCallThreshold = Duration.ofSeconds(1);
+
+    /**
+     * 统计失败率的滑动窗口调用数
+     */
+    private int slidingWindowSize = 50;
+
+    /**
+     * 开始计算失败率前的最少调用数
+     */
+    private int minimumNumberOfCalls = 20;
+
+    /**
+     * 熔断器打开后等待多久进入半开状态
+     */
+    private Duration waitInOpenState = Duration.ofSeconds(10);
+
+    /**
+     * 请求体是否使用Smile编码；默认关闭，全部用户服务实例支持Smile请求体后再开启，否则旧实例会返回415
+     * 响应编码由Accept协商，不受该开关影响
+     */
+    private boolean binaryRequests = false;
+
+    /**
+     * 降级时可用的最近用户数据条数
+     */
+    private int lastKnownCacheSize = 10000;
+}
@@ -0,0 +1,130 @@
+package com.seecooker.feign.resilience;
+
+import feign.Capability;
+import feign.Client;
+import feign.Feign;
+import feign.FeignException;
+import feign.InvocationHandlerFactory;
+import feign.Request;
+import feign.RetryableException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.openfeign.FallbackFactory;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Feign客户端容错扩展
+ * 按方法设置读超时；整个客户端共用一个信号量隔离舱，每个方法一个熔断器，均在调用线程上执行；
+ * 仅在网络异常、超时、5xx、熔断或隔离舱已满即服务不可用时转交降级实现，4xx等调用方错误原样抛出
+ *
+ * @author xueruichen
+ * @date 2024.01.24
+ */
+@Slf4j
+public class ResilienceCapability implements Capability {
+    private final Duration connectTimeout;
+    private final Duration readTimeout;
+    private final Map<String, Duration> methodTimeouts;
+    private final Bulkhead bulkhead;
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final FallbackFactory<?> fallbackFactory;
+
+    /**
+     * @param name 客户端名称
+     * @param connectTimeout 建立连接超时时间
+     * @param readTimeout 默认读超时时间
+     * @param methodTimeouts 按方法名配置的读超时时间
+     * @param bulkheadConfig 隔离舱配置
+     * @param circuitBreakerConfig 熔断器配置
+     * @param fallbackFactory 降级实现工厂，为null时直接抛出异常
+     */
+    public ResilienceCapability(String name, Duration connectTimeout, Duration readTimeout, Map<String, Duration> methodTimeouts,
+                                BulkheadConfig bulkheadConfig, CircuitBreakerConfig circuitBreakerConfig,
+                                FallbackFactory<?> fallbackFactory) {
+        this.connectTimeout = connectTimeout;
+        this.readTimeout = readTimeout;
+        this.methodTimeouts = methodTimeouts;
+        this.bulkhead = Bulkhead.of(name, bulkheadConfig);
+        this.circuitBreakerRegistry = CircuitBreakerRegistry.of(circuitBreakerConfig);
+        this.fallbackFactory = fallbackFactory;
+    }
+
+    @Override
+    public Client enrich(Client client) {
+        return (request, options) -> {
+            Duration timeout = readTimeout;
+            if (request.requestTemplate() != null && request.requestTemplate().methodMetadata() != null) {
+                timeout = methodTimeouts.getOrDefault(request.requestTemplate().methodMetadata().method().getName(), readTimeout);
+            }
+            Request.Options methodOptions = new Request.Options(connectTimeout.toMillis(), TimeUnit.MILLISECONDS,
+                    timeout.toMillis(), TimeUnit.MILLISECONDS, options.isFollowRedirects());
+            return client.execute(request, methodOptions);
+        };
+    }
+
+    @Override
+    public InvocationHandlerFactory enrich(InvocationHandlerFactory invocationHandlerFactory) {
+        return (target, dispatch) -> {
+            InvocationHandler handler = invocationHandlerFactory.create(target, dispatch);
+            return (proxy, method, args) -> {
+                // equals、hashCode等非远程方法直接调用
+                if (!dispatch.containsKey(method)) {
+                    return handler.invoke(proxy, method, args);
+                }
+                CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(Feign.configKey(target.type(), method));
+                try {
+                    if (!bulkhead.tryAcquirePermission()) {
+                        throw BulkheadFullException.createBulkheadFullException(bulkhead);
+                    }
+                    try {
+                        return circuitBreaker.executeCheckedSupplier(() -> handler.invoke(proxy, method, args));
+                    } finally {
+                        bulkhead.onComplete();
+                    }
+                } catch (Throwable e) {
+                    if (fallbackFactory == null || !isUnavailable(e)) {
+                        throw e;
+                    }
+                    log.warn("Call {} failed, using fallback: {}", circuitBreaker.getName(), e.toString());
+                    return invokeFallback(method, args, e);
+                }
+            };
+        };
+    }
+
+    /**
+     * 异常是否表示下游服务不可用
+     *
+     * @param e 调用异常
+     * @return 是否不可用
+     */
+    static boolean isUnavailable(Throwable e) {
+        if (e instanceof CallNotPermittedException || e instanceof BulkheadFullException
+                || e instanceof RetryableException || e instanceof IOException || e instanceof TimeoutException) {
+            return true;
+        }
+        return e instanceof FeignException feignException && feignException.status() >= 500;
+    }
+
+    private Object invokeFallback(Method method, Object[] args, Throwable cause) throws Throwable {
+        try {
+            return method.invoke(fallbackFactory.create(cause), args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
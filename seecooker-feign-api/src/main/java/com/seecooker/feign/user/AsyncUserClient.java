@@ -0,0 +1,47 @@
+package com.seecooker.feign.user;
+
+import com.seecooker.common.core.concurrent.FanOutExecutor;
+import com.seecooker.common.core.model.Result;
+import com.seecooker.common.core.model.dto.user.UserDTO;
+import com.seecooker.common.core.model.dto.user.UserProfileDTO;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * UserClient查询方法的异步版本
+ * 在并行查询线程池中调用UserClient，超时、熔断与降级仍由UserClient负责
+ *
+ * @author xueruichen
+ * @date 2024.01.24
+ */
+public class AsyncUserClient {
+    private final ObjectProvider<UserClient> userClientProvider;
+    private final FanOutExecutor executor;
+
+    public AsyncUserClient(ObjectProvider<UserClient> userClientProvider, FanOutExecutor executor) {
+        this.userClientProvider = userClientProvider;
+        this.executor = executor;
+    }
+
+    public CompletableFuture<Result<UserDTO>> getUserById(Long userId) {
+        return executor.supplyAsync(() -> userClientProvider.getObject().getUserById(userId));
+    }
+
+    public CompletableFuture<Result<UserProfileDTO>> getUserProfileById(Long userId) {
+        return executor.supplyAsync(() -> userClientProvider.getObject().getUserProfileById(userId));
+    }
+
+    public CompletableFuture<Result<List<UserProfileDTO>>> getUserProfilesByIds(List<Long> userIds) {
+        return executor.supplyAsync(() -> userClientProvider.getObject().getUserProfilesByIds(userIds));
+    }
+
+    public CompletableFuture<Result<List<Long>>> getFavoriteRecipeIds(Long userId, Integer pageNo, Integer pageSize) {
+        return executor.supplyAsync(() -> userClientProvider.getObject().getFavoriteRecipeIds(userId, pageNo, pageSize));
+    }
+
+    public CompletableFuture<Result<List<Long>>> filterFavoriteRecipes(Long userId, List<Long> recipeIds) {
+        return executor.supplyAsync(() -> userClientProvider.getObject().filterFavoriteRecipes(userId, recipeIds));
+    }
+}
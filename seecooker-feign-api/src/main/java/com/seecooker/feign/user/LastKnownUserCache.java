@@ -0,0 +1,76 @@
+package com.seecooker.feign.user;
+
+import com.seecooker.common.core.model.dto.user.UserDTO;
+import com.seecooker.common.core.model.dto.user.UserProfileDTO;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 最近一次成功获取的用户数据
+ * 仅在用户服务不可用时用于降级，按LRU淘汰
+ *
+ * @author xueruichen
+ * @date 2024.01.24
+ */
+public class LastKnownUserCache {
+    private final Map<Long, UserDTO> users;
+    private final Map<Long, UserProfileDTO> profiles;
+
+    public LastKnownUserCache(int maxSize) {
+        this.users = lruMap(maxSize);
+        this.profiles = lruMap(maxSize);
+    }
+
+    public void putUser(UserDTO user) {
+        synchronized (users) {
+            users.put(user.getId(), user);
+        }
+    }
+
+    public void putProfile(UserProfileDTO profile) {
+        synchronized (profiles) {
+            profiles.put(profile.getId(), profile);
+        }
+    }
+
+    public UserDTO getUser(Long userId) {
+        synchronized (users) {
+            return users.get(userId);
+        }
+    }
+
+    /**
+     * 获取用户资料，没有资料时由完整用户数据转换
+     *
+     * @param userId 用户id
+     * @return 用户资料，均不存在时为null
+     */
+    public UserProfileDTO getProfile(Long userId) {
+        synchronized (profiles) {
+            UserProfileDTO profile = profiles.get(userId);
+            if (profile != null) {
+                return profile;
+            }
+        }
+        UserDTO user = getUser(userId);
+        if (user == null) {
+            return null;
+        }
+        return UserProfileDTO.builder()
+                .id(user.getId())
+                .username(user.getUsername())
+                .avatar(user.getAvatar())
+                .signature(user.getSignature())
+                .build();
+    }
+
+    private static <V> Map<Long, V> lruMap(int maxSize) {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, V> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+}
@@ -0,0 +1,42 @@
+package com.seecooker.feign.user;
+
+import com.seecooker.common.core.model.Result;
+import com.seecooker.common.core.model.dto.user.UserDTO;
+import com.seecooker.common.core.model.dto.user.UserProfileDTO;
+import feign.Capability;
+import feign.codec.Decoder;
+
+import java.util.List;
+
+/**
+ * 记录UserClient成功返回的用户数据，供降级时使用
+ *
+ * @author xueruichen
+ * @date 2024.01.24
+ */
+public class LastKnownUserCapability implements Capability {
+    private final LastKnownUserCache cache;
+
+    public LastKnownUserCapability(LastKnownUserCache cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    public Decoder enrich(Decoder decoder) {
+        return (response, type) -> {
+            Object result = decoder.decode(response, type);
+            if (result instanceof Result<?> r && !r.fail()) {
+                if (r.getData() instanceof UserDTO user) {
+                    cache.putUser(user);
+                } else if (r.getData() instanceof UserProfileDTO profile) {
+                    cache.putProfile(profile);
+                } else if (r.getData() instanceof List<?> list) {
+                    list.stream()
+                            .filter(UserProfileDTO.class::isInstance)
+                            .forEach(profile -> cache.putProfile((UserProfileDTO) profile));
+                }
+            }
+            return result;
+        };
+    }
+}
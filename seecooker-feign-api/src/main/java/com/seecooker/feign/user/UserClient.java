@@ -2,25 +2,41 @@ package com.seecooker.feign.user;
 
 import com.seecooker.common.core.model.Result;
 import com.seecooker.common.core.model.dto.user.UserDTO;
+import com.seecooker.common.core.model.dto.user.UserProfileDTO;
+import com.seecooker.feign.config.UserClientConfiguration;
 import jakarta.validation.constraints.NotNull;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 
 import java.util.List;
 
-@FeignClient(name = "seecooker-user-service")
+@FeignClient(name = "seecooker-user-service", configuration = UserClientConfiguration.class)
 public interface UserClient {
     @GetMapping("feign/user")
     Result<UserDTO> getUserById(@RequestParam @NotNull Long userId);
 
-    @PutMapping("feign/user/update/postRecipes")
-    Result<Void> updatePostRecipes(@RequestParam Long userId, @RequestParam List<Long> recipes);
+    /**
+     * 获取用户资料，不含id列表，仅需展示用户名、头像时使用
+     */
+    @GetMapping("feign/user/profile")
+    Result<UserProfileDTO> getUserProfileById(@RequestParam @NotNull Long userId);
+
+    /**
+     * 批量获取用户资料，不存在的用户不返回，返回顺序不保证与参数一致
+     */
+    @PostMapping("feign/user/profiles")
+    Result<List<UserProfileDTO>> getUserProfilesByIds(@RequestBody List<Long> userIds);
 
     @PutMapping("feign/user/update/favorite")
     Result<Boolean> updateFavoriteRecipe(@RequestParam Long userId, @RequestParam Long recipeId);
 
-    @PutMapping("feign/user/update/posts")
-    Result<Void> updateUserPosts(@RequestParam Long userId, @RequestParam List<Long> posts);
-}
\ No newline at end of file
+    @GetMapping("feign/user/favorites")
+    Result<List<Long>> getFavoriteRecipeIds(@RequestParam Long userId, @RequestParam Integer pageNo, @RequestParam Integer pageSize);
+
+    @PostMapping("feign/user/favorites/filter")
+    Result<List<Long>> filterFavoriteRecipes(@RequestParam Long userId, @RequestBody List<Long> recipeIds);
+}
@@ -0,0 +1,90 @@
+package com.seecooker.feign.user;
+
+import com.seecooker.common.core.exception.BizException;
+import com.seecooker.common.core.exception.ErrorType;
+import com.seecooker.common.core.model.Result;
+import com.seecooker.common.core.model.dto.user.UserDTO;
+import com.seecooker.common.core.model.dto.user.UserProfileDTO;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import org.springframework.cloud.openfeign.FallbackFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * UserClient降级实现
+ * 查询用户时返回最近一次获取到的数据，保证浏览不受影响；其余调用仍然失败
+ *
+ * @author xueruichen
+ * @date 2024.01.24
+ */
+public class UserClientFallbackFactory implements FallbackFactory<UserClient> {
+    private final LastKnownUserCache cache;
+
+    public UserClientFallbackFactory(LastKnownUserCache cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    public UserClient create(Throwable cause) {
+        return new UserClient() {
+            @Override
+            public Result<UserDTO> getUserById(Long userId) {
+                UserDTO user = cache.getUser(userId);
+                if (user == null) {
+                    throw unavailable(cause);
+                }
+                return Result.success(user);
+            }
+
+            @Override
+            public Result<UserProfileDTO> getUserProfileById(Long userId) {
+                UserProfileDTO profile = cache.getProfile(userId);
+                if (profile == null) {
+                    throw unavailable(cause);
+                }
+                return Result.success(profile);
+            }
+
+            @Override
+            public Result<List<UserProfileDTO>> getUserProfilesByIds(List<Long> userIds) {
+                List<UserProfileDTO> profiles = new ArrayList<>(userIds.size());
+                for (Long userId : userIds) {
+                    UserProfileDTO profile = cache.getProfile(userId);
+                    if (profile == null) {
+                        throw unavailable(cause);
+                    }
+                    profiles.add(profile);
+                }
+                return Result.success(profiles);
+            }
+
+            @Override
+            public Result<Boolean> updateFavoriteRecipe(Long userId, Long recipeId) {
+                throw unavailable(cause);
+            }
+
+            @Override
+            public Result<List<Long>> getFavoriteRecipeIds(Long userId, Integer pageNo, Integer pageSize) {
+                throw unavailable(cause);
+            }
+
+            @Override
+            public Result<List<Long>> filterFavoriteRecipes(Long userId, List<Long> recipeIds) {
+                throw unavailable(cause);
+            }
+        };
+    }
+
+    private static RuntimeException unavailable(Throwable cause) {
+        // 熔断或隔离舱已满时按服务繁忙处理，其余异常原样抛出
+        if (cause instanceof CallNotPermittedException || cause instanceof BulkheadFullException) {
+            return new BizException(ErrorType.SERVER_BUSY, "用户服务繁忙");
+        }
+        if (cause instanceof RuntimeException e) {
+            return e;
+        }
+        return new IllegalStateException(cause);
+    }
+}
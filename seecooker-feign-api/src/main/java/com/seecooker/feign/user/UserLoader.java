@@ -0,0 +1,150 @@
+package com.seecooker.feign.user;
+
+import com.seecooker.common.core.exception.BizException;
+import com.seecooker.common.core.exception.ErrorType;
+import com.seecooker.common.core.model.Result;
+import com.seecooker.common.core.model.dto.user.UserDTO;
+import com.seecooker.common.core.model.dto.user.UserProfileDTO;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 请求级用户数据加载器
+ * 同一请求内对同一用户只查询一次；先通过prime登记将要用到的用户，首次取用时合并为一次批量查询
+ * 不在web请求中时不做缓存，每次均直接查询
+ *
+ * @author xueruichen
+ * @date 2024.01.24
+ */
+public class UserLoader {
+    private static final String STATE_ATTRIBUTE = UserLoader.class.getName() + ".STATE";
+
+    private final ObjectProvider<UserClient> userClientProvider;
+
+    public UserLoader(ObjectProvider<UserClient> userClientProvider) {
+        this.userClientProvider = userClientProvider;
+    }
+
+    /**
+     * 登记将要获取资料的用户，在下一次获取资料时一并查询
+     *
+     * @param userIds 用户id
+     */
+    public void prime(Collection<Long> userIds) {
+        State state = state();
+        synchronized (state) {
+            for (Long userId : userIds) {
+                if (userId != null && !state.profiles.containsKey(userId) && !state.users.containsKey(userId)) {
+                    state.pending.add(userId);
+                }
+            }
+        }
+    }
+
+    /**
+     * 获取用户资料
+     *
+     * @param userId 用户id
+     * @return 用户资料
+     */
+    public UserProfileDTO getProfile(Long userId) {
+        State state = state();
+        synchronized (state) {
+            UserProfileDTO profile = state.profile(userId);
+            if (profile != null) {
+                return profile;
+            }
+            state.pending.add(userId);
+            dispatch(state);
+            profile = state.profile(userId);
+            if (profile == null) {
+                throw new BizException(ErrorType.OPEN_FEIGN_API_ERROR);
+            }
+            return profile;
+        }
+    }
+
+    /**
+     * 获取完整用户数据
+     *
+     * @param userId 用户id
+     * @return 用户数据
+     */
+    public UserDTO getUser(Long userId) {
+        State state = state();
+        synchronized (state) {
+            UserDTO user = state.users.get(userId);
+            if (user == null) {
+                user = unwrap(userClientProvider.getObject().getUserById(userId));
+                state.users.put(userId, user);
+            }
+            return user;
+        }
+    }
+
+    private void dispatch(State state) {
+        List<Long> userIds = new ArrayList<>(state.pending);
+        state.pending.clear();
+        UserClient userClient = userClientProvider.getObject();
+        if (userIds.size() == 1) {
+            UserProfileDTO profile = unwrap(userClient.getUserProfileById(userIds.get(0)));
+            state.profiles.put(profile.getId(), profile);
+            return;
+        }
+        for (UserProfileDTO profile : unwrap(userClient.getUserProfilesByIds(userIds))) {
+            state.profiles.put(profile.getId(), profile);
+        }
+    }
+
+    private static <T> T unwrap(Result<T> result) {
+        if (result.fail()) {
+            throw new BizException(ErrorType.OPEN_FEIGN_API_ERROR);
+        }
+        return result.getData();
+    }
+
+    private static State state() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return new State();
+        }
+        State state = (State) attributes.getAttribute(STATE_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (state == null) {
+            state = new State();
+            attributes.setAttribute(STATE_ATTRIBUTE, state, RequestAttributes.SCOPE_REQUEST);
+        }
+        return state;
+    }
+
+    private static class State {
+        private final Map<Long, UserDTO> users = new HashMap<>();
+        private final Map<Long, UserProfileDTO> profiles = new HashMap<>();
+        private final Set<Long> pending = new LinkedHashSet<>();
+
+        private UserProfileDTO profile(Long userId) {
+            UserProfileDTO profile = profiles.get(userId);
+            if (profile != null) {
+                return profile;
+            }
+            UserDTO user = users.get(userId);
+            if (user == null) {
+                return null;
+            }
+            return UserProfileDTO.builder()
+                    .id(user.getId())
+                    .username(user.getUsername())
+                    .avatar(user.getAvatar())
+                    .signature(user.getSignature())
+                    .build();
+        }
+    }
+}
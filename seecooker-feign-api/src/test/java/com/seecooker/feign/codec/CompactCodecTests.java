@@ -0,0 +1,48 @@
+package com.seecooker.feign.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactCodecTests {
+    private final ObjectMapper smile = new CompactCodec(new Jackson2ObjectMapperBuilder()).getObjectMapper();
+
+    public static class Payload {
+        public String name;
+        public List<Long> ids;
+    }
+
+    @Test
+    void idListRoundTrip() throws Exception {
+        Payload payload = new Payload();
+        payload.name = "菜谱";
+        payload.ids = List.of(5L, 3L, -1L, 100L);
+        Payload decoded = smile.readValue(smile.writeValueAsBytes(payload), Payload.class);
+        assertEquals("菜谱", decoded.name);
+        assertEquals(payload.ids, decoded.ids);
+    }
+
+    @Test
+    void emptyAndNullContainingListsRoundTrip() throws Exception {
+        Payload payload = new Payload();
+        payload.ids = new ArrayList<>();
+        assertEquals(List.of(), smile.readValue(smile.writeValueAsBytes(payload), Payload.class).ids);
+
+        payload.ids = Arrays.asList(1L, null, 3L);
+        assertEquals(payload.ids, smile.readValue(smile.writeValueAsBytes(payload), Payload.class).ids);
+    }
+
+    @Test
+    void topLevelIdListRoundTrip() throws Exception {
+        List<Long> ids = List.of(9L, 8L, 7L);
+        byte[] bytes = smile.writerFor(smile.getTypeFactory().constructCollectionType(List.class, Long.class)).writeValueAsBytes(ids);
+        List<Long> decoded = smile.readValue(bytes, smile.getTypeFactory().constructCollectionType(List.class, Long.class));
+        assertEquals(ids, decoded);
+    }
+}
@@ -0,0 +1,38 @@
+package com.seecooker.feign.codec;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeltaVarintTests {
+
+    @Test
+    void emptyList() {
+        assertEquals(0, DeltaVarint.encode(List.of()).length);
+        assertEquals(List.of(), DeltaVarint.decode(new byte[0]));
+    }
+
+    @Test
+    void sortedIdsAreCompact() {
+        List<Long> ids = List.of(1_000_000L, 1_000_001L, 1_000_003L, 1_000_010L);
+        byte[] bytes = DeltaVarint.encode(ids);
+        assertTrue(bytes.length <= 3 + ids.size());
+        assertEquals(ids, DeltaVarint.decode(bytes));
+    }
+
+    @Test
+    void unsortedAndNegativeIds() {
+        List<Long> ids = List.of(42L, 7L, -3L, 0L, 9_000_000_000L, -9_000_000_000L, Long.MAX_VALUE, Long.MIN_VALUE, 1L);
+        assertEquals(ids, DeltaVarint.decode(DeltaVarint.encode(ids)));
+    }
+
+    @Test
+    void truncatedInputIsRejected() {
+        byte[] bytes = DeltaVarint.encode(List.of(Long.MAX_VALUE));
+        byte[] truncated = Arrays.copyOf(bytes, bytes.length - 1);
+        assertThrows(IllegalArgumentException.class, () -> DeltaVarint.decode(truncated));
+    }
+}
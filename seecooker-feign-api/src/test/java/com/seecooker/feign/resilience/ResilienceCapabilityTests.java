@@ -0,0 +1,56 @@
+package com.seecooker.feign.resilience;
+
+import feign.Client;
+import feign.Feign;
+import feign.FeignException;
+import feign.RequestLine;
+import feign.Response;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResilienceCapabilityTests {
+
+    interface EchoClient {
+        @RequestLine("GET /echo")
+        String echo();
+    }
+
+    @Test
+    void clientErrorIsNotHiddenByFallback() {
+        EchoClient client = build((request, options) -> response(request, 404));
+        assertThrows(FeignException.NotFound.class, client::echo);
+    }
+
+    @Test
+    void serverErrorUsesFallback() {
+        EchoClient client = build((request, options) -> response(request, 503));
+        assertEquals("fallback", client.echo());
+    }
+
+    @Test
+    void ioErrorUsesFallback() {
+        EchoClient client = build((request, options) -> {
+            throw new IOException("connection refused");
+        });
+        assertEquals("fallback", client.echo());
+    }
+
+    private static EchoClient build(Client client) {
+        ResilienceCapability capability = new ResilienceCapability("echo", Duration.ofSeconds(1), Duration.ofSeconds(1), Map.of(),
+                BulkheadConfig.ofDefaults(), CircuitBreakerConfig.ofDefaults(), cause -> (EchoClient) () -> "fallback");
+        return Feign.builder().client(client).addCapability(capability).target(EchoClient.class, "http://echo");
+    }
+
+    private static Response response(feign.Request request, int status) {
+        return Response.builder().request(request).status(status).reason("status " + status)
+                .headers(Map.of()).body("error", StandardCharsets.UTF_8).build();
+    }
+}
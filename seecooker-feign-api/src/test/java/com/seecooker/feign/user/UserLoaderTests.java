@@ -0,0 +1,77 @@
+package com.seecooker.feign.user;
+
+import com.seecooker.common.core.model.Result;
+import com.seecooker.common.core.model.dto.user.UserProfileDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class UserLoaderTests {
+    private UserClient userClient;
+    private UserLoader loader;
+
+    @BeforeEach
+    void setUp() {
+        userClient = mock(UserClient.class);
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("userClient", userClient);
+        loader = new UserLoader(beanFactory.getBeanProvider(UserClient.class));
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void primedUsersAreLoadedInOneBatch() {
+        when(userClient.getUserProfilesByIds(any())).thenReturn(Result.success(List.of(profile(1L), profile(2L), profile(3L))));
+        loader.prime(List.of(1L, 2L, 3L, 2L));
+
+        assertEquals("user1", loader.getProfile(1L).getUsername());
+        assertEquals("user2", loader.getProfile(2L).getUsername());
+        assertEquals("user3", loader.getProfile(3L).getUsername());
+
+        verify(userClient, times(1)).getUserProfilesByIds(List.of(1L, 2L, 3L));
+        verify(userClient, never()).getUserProfileById(anyLong());
+    }
+
+    @Test
+    void loadedProfileIsCachedWithinRequest() {
+        when(userClient.getUserProfileById(1L)).thenReturn(Result.success(profile(1L)));
+
+        loader.getProfile(1L);
+        loader.prime(List.of(1L));
+        loader.getProfile(1L);
+
+        verify(userClient, times(1)).getUserProfileById(1L);
+        verify(userClient, never()).getUserProfilesByIds(any());
+    }
+
+    @Test
+    void nothingIsCachedOutsideRequest() {
+        RequestContextHolder.resetRequestAttributes();
+        when(userClient.getUserProfileById(1L)).thenReturn(Result.success(profile(1L)));
+
+        loader.getProfile(1L);
+        loader.getProfile(1L);
+
+        verify(userClient, times(2)).getUserProfileById(1L);
+    }
+
+    private static UserProfileDTO profile(Long id) {
+        return UserProfileDTO.builder().id(id).username("user" + id).build();
+    }
+}
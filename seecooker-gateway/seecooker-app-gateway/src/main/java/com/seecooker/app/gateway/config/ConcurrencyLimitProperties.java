@@ -0,0 +1,58 @@
+package com.seecooker.app.gateway.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 网关自适应并发限制配置
+ *
+ * @author xueruichen
+ * @date 2024.01.23
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "seecooker.gateway.limit")
+public class ConcurrencyLimitProperties {
+    /**
+     * 是否启用并发限制
+     */
+    private boolean enabled = true;
+
+    /**
+     * 每个路由的初始并发上限
+     */
+    private int initialLimit = 20;
+
+    /**
+     * 并发上限的下界
+     */
+    private int minLimit = 4;
+
+    /**
+     * 并发上限的上界
+     */
+    private int maxLimit = 500;
+
+    /**
+     * 每次调整时新上限所占权重
+     */
+    private double smoothing = 0.2;
+
+    /**
+     * 短期延迟相对长期基线的容忍倍数，未超出时不收缩上限
+     */
+    private double rttTolerance = 1.5;
+
+    /**
+     * 请求失败或超时时上限的收缩比例
+     */
+    private double backoffRatio = 0.9;
+
+    /**
+     * 未登录的只读请求最多可占用的并发比例，超出后优先为登录用户的请求让路
+     */
+    private double anonymousShare = 0.7;
+}
@@ -0,0 +1,49 @@
+package com.seecooker.app.gateway.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 网关延迟统计配置
+ *
+ * @author xueruichen
+ * @date 2024.01.24
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "seecooker.gateway.latency")
+public class LatencyMetricsProperties {
+    /**
+     * 统计窗口长度，端点展示最近一个完整窗口与启动以来的分位数
+     */
+    private Duration window = Duration.ofMinutes(1);
+
+    /**
+     * 慢请求阈值
+     */
+    private Duration slowThreshold = Duration.ofSeconds(1);
+
+    /**
+     * 慢请求的采样比例
+     */
+    private double sampleRate = 1.0;
+
+    /**
+     * 保留的慢请求样本数
+     */
+    private int sampleCapacity = 100;
+
+    /**
+     * 慢请求样本中需隐去取值的请求头与查询参数（不区分大小写）
+     */
+    private List<String> redactedHeaders = new ArrayList<>(List.of(
+            "authorization", "cookie", "satoken", "token", "x-seecooker-identity-sign"
+    ));
+}
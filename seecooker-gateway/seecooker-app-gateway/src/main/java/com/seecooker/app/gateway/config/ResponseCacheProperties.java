@@ -0,0 +1,81 @@
+package com.seecooker.app.gateway.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 网关响应缓存配置
+ *
+ * @author xueruichen
+ * @date 2024.01.23
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "seecooker.gateway.cache")
+public class ResponseCacheProperties {
+    /**
+     * 是否启用响应缓存
+     */
+    private boolean enabled = true;
+
+    /**
+     * 最大缓存条目数
+     */
+    private int maxEntries = 2000;
+
+    /**
+     * 缓存响应体总字节数上限，超出时优先淘汰最早过期的条目
+     */
+    private long maxTotalBytes = 64L * 1024 * 1024;
+
+    /**
+     * 单条响应体最大字节数，超出则不缓存
+     */
+    private int maxBodyBytes = 256 * 1024;
+
+    /**
+     * 合并请求等待首个回源请求的最长时间
+     */
+    private Duration coalesceTimeout = Duration.ofSeconds(3);
+
+    /**
+     * 可缓存的路由，配置后整体覆盖默认值
+     */
+    private List<Route> routes = new ArrayList<>(List.of(
+            new Route("/recipe/list/page/*", Duration.ofSeconds(30), Duration.ofMinutes(5)),
+            new Route("/recipe/detail/*", Duration.ofSeconds(60), Duration.ofMinutes(10)),
+            new Route("/recipe/recommend", Duration.ofSeconds(30), Duration.ofMinutes(5)),
+            new Route("/recipe/ingredients", Duration.ofMinutes(10), Duration.ofHours(1)),
+            new Route("/community/posts/page/*", Duration.ofSeconds(15), Duration.ofMinutes(2))
+    ));
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Route {
+        /**
+         * 路径匹配模式
+         */
+        private String path;
+
+        /**
+         * 缓存有效期
+         */
+        private Duration ttl;
+
+        /**
+         * 过期后仍可返回旧值并后台刷新的时长
+         */
+        private Duration stale;
+    }
+}
@@ -1,11 +1,13 @@
 package com.seecooker.app.gateway.config;
 
+import cn.dev33.satoken.context.SaHolder;
 import cn.dev33.satoken.reactor.filter.SaReactorFilter;
 import cn.dev33.satoken.router.SaHttpMethod;
 import cn.dev33.satoken.router.SaRouter;
 import cn.dev33.satoken.stp.StpUtil;
 import com.seecooker.common.core.model.Result;
 import com.seecooker.common.core.exception.ErrorType;
+import com.seecooker.app.gateway.filter.IdentityHeaderFilter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -22,45 +24,64 @@ public class SaTokenConfigure {
                 .setAuth(obj -> {
                     // feign-api只能在服务间调用
                     SaRouter.match("/feign/**").stop();
+                    // 每个请求只解析一次token，结果交给IdentityHeaderFilter转发给下游服务
+                    Object loginId = StpUtil.getLoginIdDefaultNull();
+                    if (loginId != null) {
+                        SaHolder.getStorage().set(IdentityHeaderFilter.LOGIN_ID_ATTRIBUTE, loginId);
+                    }
                     // 用户服务鉴权
                     SaRouter.match(SaHttpMethod.DELETE)
                             .match("/user/session")
-                            .check(r -> StpUtil.checkLogin());
+                            .check(r -> checkLogin(loginId));
                     SaRouter.match(SaHttpMethod.GET)
                             .match("/user")
-                            .check(r -> StpUtil.checkLogin());
+                            .check(r -> checkLogin(loginId));
                     SaRouter.match(SaHttpMethod.PUT)
                             .match("/user/modify/**")
-                            .check(r -> StpUtil.checkLogin());
+                            .check(r -> checkLogin(loginId));
+                    // 头像直传凭证归属登录用户，直传客户端注册后再设置头像
+                    SaRouter.match(SaHttpMethod.POST)
+                            .match("/user/upload/avatar")
+                            .check(r -> checkLogin(loginId));
                     // 菜谱服务鉴权
                     SaRouter.match(SaHttpMethod.POST)
                             .match("/recipe")
-                            .check(r -> StpUtil.checkLogin());
+                            .check(r -> checkLogin(loginId));
                     SaRouter.match(SaHttpMethod.PUT)
                             .match("/recipe/favorite/**")
-                            .check(r -> StpUtil.checkLogin());
+                            .check(r -> checkLogin(loginId));
                     SaRouter.match(SaHttpMethod.POST)
                             .match("/recipe/score")
-                            .check(r -> StpUtil.checkLogin());
+                            .check(r -> checkLogin(loginId));
+                    SaRouter.match(SaHttpMethod.POST)
+                            .match("/recipe/upload")
+                            .check(r -> checkLogin(loginId));
                     SaRouter.match(SaHttpMethod.GET)
                             .match("/recipe/favorites/**")
-                            .check(r -> StpUtil.checkLogin());
+                            .check(r -> checkLogin(loginId));
                     // 社区服务鉴权
                     SaRouter.match(SaHttpMethod.POST)
                             .match("/community/**")
-                            .check(r -> StpUtil.checkLogin());
+                            .check(r -> checkLogin(loginId));
                     SaRouter.match(SaHttpMethod.PUT)
                             .match("/community/like/**")
-                            .check(r -> StpUtil.checkLogin());
+                            .check(r -> checkLogin(loginId));
                     SaRouter.match(SaHttpMethod.DELETE)
                             .match("/community/post/**")
-                            .check(r -> StpUtil.checkLogin());
+                            .check(r -> checkLogin(loginId));
                     SaRouter.match(SaHttpMethod.GET)
                             .match("/community/user/posts/**")
-                            .check(r -> StpUtil.checkLogin());
+                            .check(r -> checkLogin(loginId));
                 })
                 // 异常处理方法：每次setAuth函数出现异常时进入
                 .setError(e -> Result.error(ErrorType.ILLEGAL_ARGUMENTS))
                 ;
     }
+
+    private static void checkLogin(Object loginId) {
+        // 未登录时由sa-token抛出未登录异常
+        if (loginId == null) {
+            StpUtil.checkLogin();
+        }
+    }
 }
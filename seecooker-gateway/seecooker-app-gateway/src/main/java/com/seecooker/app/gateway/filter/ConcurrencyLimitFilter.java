@@ -0,0 +1,88 @@
+package com.seecooker.app.gateway.filter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.seecooker.app.gateway.config.ConcurrencyLimitProperties;
+import com.seecooker.app.gateway.limit.AdaptiveConcurrencyLimiter;
+import com.seecooker.common.core.exception.ErrorType;
+import com.seecooker.common.core.model.Result;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 并发限制过滤器
+ * 按路由自适应限制转发中的请求数，超出时直接返回503；未登录的只读请求优先被拒绝
+ * 排在响应缓存之后，缓存命中的请求不占用名额
+ *
+ * @author xueruichen
+ * @date 2024.01.23
+ */
+@Slf4j
+@Component
+public class ConcurrencyLimitFilter implements GlobalFilter, Ordered {
+    private final ConcurrencyLimitProperties properties;
+    private final Map<String, AdaptiveConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+    private final byte[] busyBody;
+
+    public ConcurrencyLimitFilter(ConcurrencyLimitProperties properties, ObjectMapper objectMapper) throws JsonProcessingException {
+        this.properties = properties;
+        this.busyBody = objectMapper.writeValueAsBytes(Result.error(ErrorType.SERVER_BUSY));
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (!properties.isEnabled() || route == null) {
+            return chain.filter(exchange);
+        }
+        AdaptiveConcurrencyLimiter limiter = limiters.computeIfAbsent(route.getId(), id -> new AdaptiveConcurrencyLimiter(properties));
+        boolean lowPriority = exchange.getRequest().getMethod() == HttpMethod.GET
+                && exchange.getAttribute(IdentityHeaderFilter.LOGIN_ID_ATTRIBUTE) == null;
+        if (!limiter.tryAcquire(lowPriority)) {
+            log.debug("Shed request to route {}, limit {}", route.getId(), limiter.getLimit());
+            return reject(exchange);
+        }
+
+        long start = System.nanoTime();
+        return chain.filter(exchange)
+                .doFinally(signal -> {
+                    HttpStatusCode status = exchange.getResponse().getStatusCode();
+                    if (signal == SignalType.CANCEL) {
+                        limiter.onIgnore();
+                    } else if (signal == SignalType.ON_ERROR || status == null || status.is5xxServerError()) {
+                        limiter.onDropped();
+                    } else {
+                        limiter.onSuccess(System.nanoTime() - start);
+                    }
+                });
+    }
+
+    @Override
+    public int getOrder() {
+        return 0;
+    }
+
+    private Mono<Void> reject(ServerWebExchange exchange) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.valueOf(ErrorType.SERVER_BUSY.getHttpCode()));
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        response.getHeaders().setContentLength(busyBody.length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(busyBody)));
+    }
+}
@@ -0,0 +1,71 @@
+package com.seecooker.app.gateway.filter;
+
+import com.seecooker.common.core.context.IdentitySigner;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.RouteToRequestUrlFilter;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.UUID;
+
+/**
+ * 身份请求头过滤器
+ * 移除客户端伪造的身份请求头，并为已登录请求附加签名后的用户id，下游服务无需再次解析token
+ * 签名覆盖请求方法与转发到下游的路径，因此需在路由过滤器改写路径、确定下游地址之后执行
+ *
+ * @author xueruichen
+ * @date 2024.01.22
+ */
+@Component
+public class IdentityHeaderFilter implements GlobalFilter, Ordered {
+    /**
+     * 鉴权时解析出的登录用户id在exchange中的属性名
+     */
+    public static final String LOGIN_ID_ATTRIBUTE = "seecooker.loginId";
+
+    private final String secret;
+
+    public IdentityHeaderFilter(@Value("${seecooker.identity.secret:}") String secret) {
+        this.secret = secret;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Object loginId = exchange.getAttribute(LOGIN_ID_ATTRIBUTE);
+        ServerHttpRequest request = exchange.getRequest().mutate().headers(headers -> {
+            headers.remove(IdentitySigner.USER_ID_HEADER);
+            headers.remove(IdentitySigner.TIMESTAMP_HEADER);
+            headers.remove(IdentitySigner.NONCE_HEADER);
+            headers.remove(IdentitySigner.SIGNATURE_HEADER);
+            if (loginId != null && !secret.isEmpty()) {
+                String userId = loginId.toString();
+                long timestamp = System.currentTimeMillis();
+                String nonce = UUID.randomUUID().toString();
+                headers.set(IdentitySigner.USER_ID_HEADER, userId);
+                headers.set(IdentitySigner.TIMESTAMP_HEADER, String.valueOf(timestamp));
+                headers.set(IdentitySigner.NONCE_HEADER, nonce);
+                headers.set(IdentitySigner.SIGNATURE_HEADER, IdentitySigner.sign(secret, userId, timestamp, nonce,
+                        exchange.getRequest().getMethod().name(), downstreamPath(exchange)));
+            }
+        }).build();
+        return chain.filter(exchange.mutate().request(request).build());
+    }
+
+    private static String downstreamPath(ServerWebExchange exchange) {
+        URI url = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR);
+        return url != null ? url.getRawPath() : exchange.getRequest().getURI().getRawPath();
+    }
+
+    @Override
+    public int getOrder() {
+        // 路由过滤器改写路径后、负载均衡转发前
+        return RouteToRequestUrlFilter.ROUTE_TO_URL_FILTER_ORDER + 1;
+    }
+}
@@ -0,0 +1,123 @@
+package com.seecooker.app.gateway.filter;
+
+import com.seecooker.app.gateway.config.LatencyMetricsProperties;
+import com.seecooker.app.gateway.metrics.RouteLatencyRecorder;
+import com.seecooker.app.gateway.metrics.SlowRequestSample;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 延迟记录过滤器
+ * 记录每个请求的总耗时，超出阈值的请求按比例采样保存详情
+ * 位于最外层，缓存命中与限流拒绝的请求同样计入，下游实例记为none
+ *
+ * @author xueruichen
+ * @date 2024.01.24
+ */
+@Component
+public class LatencyRecordingFilter implements GlobalFilter, Ordered {
+    private static final String NO_INSTANCE = "none";
+    private static final String REDACTED = "***";
+
+    private final LatencyMetricsProperties properties;
+    private final RouteLatencyRecorder recorder;
+
+    public LatencyRecordingFilter(LatencyMetricsProperties properties, RouteLatencyRecorder recorder) {
+        this.properties = properties;
+        this.recorder = recorder;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        long startMillis = System.currentTimeMillis();
+        long start = System.nanoTime();
+        AtomicLong committedAt = new AtomicLong();
+        exchange.getResponse().beforeCommit(() -> {
+            committedAt.set(System.nanoTime());
+            return Mono.empty();
+        });
+        return chain.filter(exchange)
+                .doFinally(signal -> record(exchange, signal, startMillis, start, committedAt.get()));
+    }
+
+    @Override
+    public int getOrder() {
+        // 最先执行，覆盖全部网关过滤器耗时
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    private void record(ServerWebExchange exchange, SignalType signal, long startMillis, long start, long committedAt) {
+        long duration = System.nanoTime() - start;
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        String routeId = route == null ? NO_INSTANCE : route.getId();
+        HttpStatusCode statusCode = exchange.getResponse().getStatusCode();
+        int status = signal == SignalType.ON_COMPLETE && statusCode != null ? statusCode.value() : 0;
+        URI upstream = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR);
+        String instance = upstream == null || upstream.getHost() == null
+                ? NO_INSTANCE : upstream.getHost() + ":" + upstream.getPort();
+        recorder.record(routeId, status, instance, duration);
+
+        if (duration < properties.getSlowThreshold().toNanos()
+                || ThreadLocalRandom.current().nextDouble() >= properties.getSampleRate()) {
+            return;
+        }
+        ServerHttpRequest request = exchange.getRequest();
+        long firstByteMillis = committedAt == 0 ? -1 : TimeUnit.NANOSECONDS.toMillis(committedAt - start);
+        recorder.addSample(new SlowRequestSample(startMillis, routeId, request.getMethod().name(),
+                request.getPath().value(), query(request.getURI().getRawQuery()), status, instance,
+                exchange.getAttribute(IdentityHeaderFilter.LOGIN_ID_ATTRIBUTE),
+                firstByteMillis, TimeUnit.NANOSECONDS.toMillis(duration), headers(request)));
+    }
+
+    private String query(String rawQuery) {
+        if (rawQuery == null) {
+            return null;
+        }
+        // 令牌等敏感字段同样可能以查询参数传递，按请求头同名规则隐去取值
+        StringJoiner query = new StringJoiner("&");
+        for (String param : rawQuery.split("&")) {
+            int separator = param.indexOf('=');
+            if (separator < 0) {
+                query.add(param);
+                continue;
+            }
+            String name = param.substring(0, separator);
+            try {
+                name = URLDecoder.decode(name, StandardCharsets.UTF_8);
+            } catch (IllegalArgumentException e) {
+                // 非法转义按原样比较
+            }
+            query.add(isRedacted(name) ? param.substring(0, separator + 1) + REDACTED : param);
+        }
+        return query.toString();
+    }
+
+    private Map<String, String> headers(ServerHttpRequest request) {
+        Map<String, String> headers = new LinkedHashMap<>();
+        request.getHeaders().forEach((name, values) -> headers.put(name, isRedacted(name) ? REDACTED : String.join(",", values)));
+        return headers;
+    }
+
+    private boolean isRedacted(String name) {
+        return properties.getRedactedHeaders().stream().anyMatch(name::equalsIgnoreCase);
+    }
+}
@@ -0,0 +1,252 @@
+package com.seecooker.app.gateway.filter;
+
+import com.seecooker.app.gateway.config.ResponseCacheProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 响应缓存过滤器
+ * 缓存未登录用户的GET请求响应，过期后在stale时长内返回旧值并后台刷新，同一key的并发未命中请求只回源一次
+ *
+ * @author xueruichen
+ * @date 2024.01.23
+ */
+@Slf4j
+@Component
+public class ResponseCacheFilter implements GlobalFilter, Ordered {
+    /**
+     * 缓存命中情况响应头
+     */
+    public static final String CACHE_STATUS_HEADER = "X-Seecooker-Cache";
+
+    private static final String REFRESH_HEADER = "X-Seecooker-Cache-Refresh";
+
+    /**
+     * Result按字段声明顺序序列化，成功响应以此开头；业务异常同样返回200，需据此排除
+     */
+    private static final byte[] SUCCESS_PREFIX = "{\"code\":0,".getBytes(StandardCharsets.UTF_8);
+
+    private final ResponseCacheProperties properties;
+    private final WebClient webClient;
+    private final String baseUrl;
+    /**
+     * 后台刷新请求携带的令牌，进程内随机生成，客户端无法伪造以绕过缓存
+     */
+    private final String refreshToken = UUID.randomUUID().toString();
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final Map<String, CachedResponse> cache = new ConcurrentHashMap<>();
+    private final Map<String, Sinks.One<CachedResponse>> inflight = new ConcurrentHashMap<>();
+    private final AtomicLong totalBytes = new AtomicLong();
+
+    public ResponseCacheFilter(ResponseCacheProperties properties, WebClient.Builder webClientBuilder,
+                               @Value("${server.port:9000}") int port) {
+        this.properties = properties;
+        this.webClient = webClientBuilder.build();
+        this.baseUrl = "http://127.0.0.1:" + port;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (!properties.isEnabled()
+                || request.getMethod() != HttpMethod.GET
+                || exchange.getAttribute(IdentityHeaderFilter.LOGIN_ID_ATTRIBUTE) != null) {
+            return chain.filter(exchange);
+        }
+        ResponseCacheProperties.Route route = matchRoute(request.getPath().value());
+        if (route == null) {
+            return chain.filter(exchange);
+        }
+        String key = cacheKey(exchange);
+        if (refreshToken.equals(request.getHeaders().getFirst(REFRESH_HEADER))) {
+            // 后台刷新请求直接回源
+            return fetch(exchange, chain, key, route);
+        }
+
+        long now = System.currentTimeMillis();
+        CachedResponse cached = cache.get(key);
+        if (cached != null) {
+            if (now < cached.expireAt()) {
+                return write(exchange, cached, "HIT");
+            }
+            if (now < cached.staleUntil()) {
+                refresh(key, request);
+                return write(exchange, cached, "STALE");
+            }
+            evict(key, cached);
+        }
+
+        Sinks.One<CachedResponse> sink = Sinks.one();
+        Sinks.One<CachedResponse> leader = inflight.putIfAbsent(key, sink);
+        if (leader != null) {
+            // 已有请求在回源，等待其结果；超时或结果不可缓存时自行回源
+            return leader.asMono()
+                    .timeout(properties.getCoalesceTimeout())
+                    .map(Optional::of)
+                    .onErrorResume(e -> Mono.just(Optional.empty()))
+                    .defaultIfEmpty(Optional.empty())
+                    .flatMap(result -> result.isPresent() ? write(exchange, result.get(), "HIT") : chain.filter(exchange));
+        }
+        return fetch(exchange, chain, key, route)
+                .doFinally(signal -> complete(key, sink));
+    }
+
+    @Override
+    public int getOrder() {
+        // 需在NettyWriteResponseFilter之前，才能截获响应体
+        return NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+    }
+
+    private Mono<Void> fetch(ServerWebExchange exchange, GatewayFilterChain chain, String key, ResponseCacheProperties.Route route) {
+        ServerHttpResponseDecorator response = new ServerHttpResponseDecorator(exchange.getResponse()) {
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                return DataBufferUtils.join(body).flatMap(buffer -> {
+                    byte[] bytes = new byte[buffer.readableByteCount()];
+                    buffer.read(bytes);
+                    DataBufferUtils.release(buffer);
+                    store(key, route, getStatusCode(), getHeaders().getContentType(), bytes);
+                    getHeaders().set(CACHE_STATUS_HEADER, "MISS");
+                    return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+                });
+            }
+        };
+        return chain.filter(exchange.mutate().response(response).build());
+    }
+
+    private void refresh(String key, ServerHttpRequest request) {
+        Sinks.One<CachedResponse> sink = Sinks.one();
+        if (inflight.putIfAbsent(key, sink) != null) {
+            return;
+        }
+        String rawQuery = request.getURI().getRawQuery();
+        URI uri = URI.create(baseUrl + request.getURI().getRawPath() + (rawQuery == null ? "" : "?" + rawQuery));
+        webClient.get()
+                .uri(uri)
+                .header(REFRESH_HEADER, refreshToken)
+                .retrieve()
+                .toBodilessEntity()
+                .timeout(properties.getCoalesceTimeout())
+                .doFinally(signal -> complete(key, sink))
+                .subscribe(entity -> {}, e -> log.warn("Failed to refresh cached response {}: {}", key, e.getMessage()));
+    }
+
+    private void complete(String key, Sinks.One<CachedResponse> sink) {
+        inflight.remove(key, sink);
+        CachedResponse cached = cache.get(key);
+        if (cached != null && System.currentTimeMillis() < cached.expireAt()) {
+            sink.tryEmitValue(cached);
+        } else {
+            sink.tryEmitEmpty();
+        }
+    }
+
+    private void store(String key, ResponseCacheProperties.Route route, HttpStatusCode status, MediaType contentType, byte[] body) {
+        if (status == null || status.value() != HttpStatus.OK.value() || body.length > properties.getMaxBodyBytes() || !isSuccess(body)) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (cache.size() >= properties.getMaxEntries()
+                || totalBytes.get() + body.length > properties.getMaxTotalBytes()) {
+            cache.forEach((cachedKey, cached) -> {
+                if (now >= cached.staleUntil()) {
+                    evict(cachedKey, cached);
+                }
+            });
+            // 仍超出上限时按过期时间从早到晚淘汰，直到能容纳新条目
+            if (cache.size() >= properties.getMaxEntries()
+                    || totalBytes.get() + body.length > properties.getMaxTotalBytes()) {
+                cache.entrySet().stream()
+                        .sorted(Comparator.comparingLong(entry -> entry.getValue().staleUntil()))
+                        .takeWhile(entry -> cache.size() >= properties.getMaxEntries()
+                                || totalBytes.get() + body.length > properties.getMaxTotalBytes())
+                        .forEach(entry -> evict(entry.getKey(), entry.getValue()));
+            }
+        }
+        long expireAt = now + route.getTtl().toMillis();
+        CachedResponse previous = cache.put(key, new CachedResponse(body, contentType, expireAt, expireAt + route.getStale().toMillis()));
+        totalBytes.addAndGet(body.length - (previous == null ? 0 : previous.body().length));
+    }
+
+    private void evict(String key, CachedResponse cached) {
+        if (cache.remove(key, cached)) {
+            totalBytes.addAndGet(-cached.body().length);
+        }
+    }
+
+    private static boolean isSuccess(byte[] body) {
+        return body.length >= SUCCESS_PREFIX.length
+                && Arrays.equals(body, 0, SUCCESS_PREFIX.length, SUCCESS_PREFIX, 0, SUCCESS_PREFIX.length);
+    }
+
+    private static Mono<Void> write(ServerWebExchange exchange, CachedResponse cached, String cacheStatus) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.OK);
+        response.getHeaders().setContentType(cached.contentType());
+        response.getHeaders().setContentLength(cached.body().length);
+        response.getHeaders().set(CACHE_STATUS_HEADER, cacheStatus);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.body())));
+    }
+
+    private ResponseCacheProperties.Route matchRoute(String path) {
+        for (ResponseCacheProperties.Route route : properties.getRoutes()) {
+            if (pathMatcher.match(route.getPath(), path)) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    private static String cacheKey(ServerWebExchange exchange) {
+        ServerHttpRequest request = exchange.getRequest();
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        StringBuilder key = new StringBuilder(route == null ? "" : route.getId())
+                .append(':')
+                .append(request.getPath().value());
+        // 参数顺序不同的同一请求共用缓存
+        char separator = '?';
+        for (Map.Entry<String, List<String>> param : new TreeMap<>(request.getQueryParams()).entrySet()) {
+            for (String value : param.getValue()) {
+                key.append(separator).append(param.getKey()).append('=').append(value);
+                separator = '&';
+            }
+        }
+        return key.toString();
+    }
+
+    private record CachedResponse(byte[] body, MediaType contentType, long expireAt, long staleUntil) {}
+}
@@ -0,0 +1,105 @@
+package com.seecooker.app.gateway.limit;
+
+import com.seecooker.app.gateway.config.ConcurrencyLimitProperties;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 单个路由的自适应并发限制器
+ * 以长期平均延迟为基线、短期平均延迟为当前负载，按二者比值（梯度）调整并发上限；请求失败时按比例收缩
+ *
+ * @author xueruichen
+ * @date 2024.01.23
+ */
+public class AdaptiveConcurrencyLimiter {
+    private static final double SHORT_WINDOW = 10;
+    private static final double LONG_WINDOW = 600;
+
+    private final ConcurrencyLimitProperties properties;
+    private final AtomicInteger inflight = new AtomicInteger();
+    private volatile double limit;
+    private double shortRtt;
+    private double longRtt;
+
+    public AdaptiveConcurrencyLimiter(ConcurrencyLimitProperties properties) {
+        this.properties = properties;
+        this.limit = properties.getInitialLimit();
+    }
+
+    /**
+     * 尝试占用一个并发名额
+     *
+     * @param lowPriority 是否为低优先级请求，低优先级请求只能占用部分名额
+     * @return 是否占用成功
+     */
+    public boolean tryAcquire(boolean lowPriority) {
+        int allowed = (int) limit;
+        if (lowPriority) {
+            allowed = Math.max(1, (int) (allowed * properties.getAnonymousShare()));
+        }
+        while (true) {
+            int current = inflight.get();
+            if (current >= allowed) {
+                return false;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 请求成功，释放名额并根据延迟调整上限
+     *
+     * @param rttNanos 请求耗时
+     */
+    public void onSuccess(long rttNanos) {
+        int current = inflight.getAndDecrement();
+        update(rttNanos, current);
+    }
+
+    /**
+     * 请求失败或超时，释放名额并收缩上限
+     */
+    public synchronized void onDropped() {
+        inflight.decrementAndGet();
+        limit = Math.max(properties.getMinLimit(), limit * properties.getBackoffRatio());
+    }
+
+    /**
+     * 请求被取消等无法反映负载的情况，仅释放名额
+     */
+    public void onIgnore() {
+        inflight.decrementAndGet();
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInflight() {
+        return inflight.get();
+    }
+
+    private synchronized void update(long rttNanos, int inflightAtCompletion) {
+        if (longRtt == 0) {
+            shortRtt = rttNanos;
+            longRtt = rttNanos;
+            return;
+        }
+        shortRtt += (rttNanos - shortRtt) / SHORT_WINDOW;
+        longRtt += (rttNanos - longRtt) / LONG_WINDOW;
+        // 负载回落后基线偏高，使其快速向当前延迟靠拢，避免上限长期虚高
+        if (longRtt / shortRtt > 2) {
+            longRtt *= 0.95;
+        }
+        // 并发远未用满时延迟不反映容量，不放大上限
+        if (inflightAtCompletion < limit / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, properties.getRttTolerance() * longRtt / shortRtt));
+        double newLimit = limit * gradient + Math.sqrt(limit);
+        newLimit = limit * (1 - properties.getSmoothing()) + newLimit * properties.getSmoothing();
+        limit = Math.max(properties.getMinLimit(), Math.min(properties.getMaxLimit(), newLimit));
+    }
+}
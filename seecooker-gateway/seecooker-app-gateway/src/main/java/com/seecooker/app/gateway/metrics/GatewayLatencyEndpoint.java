@@ -0,0 +1,33 @@
+package com.seecooker.app.gateway.metrics;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 网关延迟统计端点
+ * 通过 /actuator/gatewaylatency 查看各路由延迟分位数与最近的慢请求
+ *
+ * @author xueruichen
+ * @date 2024.01.24
+ */
+@Component
+@Endpoint(id = "gatewaylatency")
+public class GatewayLatencyEndpoint {
+    private final RouteLatencyRecorder recorder;
+
+    public GatewayLatencyEndpoint(RouteLatencyRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    @ReadOperation
+    public Map<String, Object> latency() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("routes", recorder.routes());
+        result.put("slowRequests", recorder.slowRequests());
+        return result;
+    }
+}
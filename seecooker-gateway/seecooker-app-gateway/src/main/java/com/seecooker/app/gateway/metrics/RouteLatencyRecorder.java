@@ -0,0 +1,164 @@
+package com.seecooker.app.gateway.metrics;
+
+import com.seecooker.app.gateway.config.LatencyMetricsProperties;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 路由延迟记录
+ * 按路由、状态码、下游实例分别以HdrHistogram记录延迟（微秒），并保留最近的慢请求样本
+ *
+ * @author xueruichen
+ * @date 2024.01.24
+ */
+@Component
+public class RouteLatencyRecorder implements DisposableBean {
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final LatencyMetricsProperties properties;
+    private final Map<SeriesKey, Series> series = new ConcurrentHashMap<>();
+    private final Deque<SlowRequestSample> samples = new ArrayDeque<>();
+    private final ScheduledExecutorService scheduler;
+
+    public RouteLatencyRecorder(LatencyMetricsProperties properties) {
+        this.properties = properties;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "gateway-latency-roll");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long windowMillis = properties.getWindow().toMillis();
+        scheduler.scheduleAtFixedRate(this::roll, windowMillis, windowMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 记录一次请求耗时
+     *
+     * @param route 路由id
+     * @param status 响应状态码
+     * @param instance 下游实例
+     * @param durationNanos 耗时
+     */
+    public void record(String route, int status, String instance, long durationNanos) {
+        series.computeIfAbsent(new SeriesKey(route, status, instance), key -> new Series())
+                .recorder.recordValue(TimeUnit.NANOSECONDS.toMicros(durationNanos));
+    }
+
+    /**
+     * 保存慢请求样本，超出容量时丢弃最早的样本
+     *
+     * @param sample 慢请求样本
+     */
+    public void addSample(SlowRequestSample sample) {
+        synchronized (samples) {
+            if (samples.size() >= properties.getSampleCapacity()) {
+                samples.pollFirst();
+            }
+            samples.addLast(sample);
+        }
+    }
+
+    /**
+     * 获取各路由的延迟分位数，按最近窗口p99降序
+     *
+     * @return 统计结果
+     */
+    public List<RouteLatency> routes() {
+        List<RouteLatency> result = new ArrayList<>(series.size());
+        series.forEach((key, value) -> result.add(new RouteLatency(key.route(), key.status(), key.instance(),
+                summary(value.window()), summary(value.total()))));
+        result.sort(Comparator.comparingDouble((RouteLatency latency) -> latency.window().p99Millis()).reversed());
+        return result;
+    }
+
+    /**
+     * 获取慢请求样本，最近的在前
+     *
+     * @return 慢请求样本
+     */
+    public List<SlowRequestSample> slowRequests() {
+        synchronized (samples) {
+            List<SlowRequestSample> result = new ArrayList<>(samples);
+            Collections.reverse(result);
+            return result;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+    }
+
+    private void roll() {
+        series.values().forEach(Series::roll);
+    }
+
+    private static LatencySummary summary(Histogram histogram) {
+        return new LatencySummary(histogram.getTotalCount(),
+                millis(histogram.getValueAtPercentile(50)),
+                millis(histogram.getValueAtPercentile(90)),
+                millis(histogram.getValueAtPercentile(99)),
+                millis(histogram.getValueAtPercentile(99.9)),
+                millis(histogram.getMaxValue()));
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    /**
+     * 单个路由、状态码、下游实例的延迟统计
+     *
+     * @param route 路由id
+     * @param status 响应状态码
+     * @param instance 下游实例
+     * @param window 最近一个完整窗口
+     * @param total 启动以来
+     */
+    public record RouteLatency(String route, int status, String instance, LatencySummary window, LatencySummary total) {}
+
+    /**
+     * 延迟分位数（毫秒）
+     */
+    public record LatencySummary(long count, double p50Millis, double p90Millis, double p99Millis,
+                                 double p999Millis, double maxMillis) {}
+
+    private record SeriesKey(String route, int status, String instance) {}
+
+    private static class Series {
+        private final Recorder recorder = new Recorder(SIGNIFICANT_DIGITS);
+        private final Histogram total = new Histogram(SIGNIFICANT_DIGITS);
+        private Histogram window = recorder.getIntervalHistogram();
+        private Histogram spare;
+
+        synchronized void roll() {
+            // 回收上一窗口的直方图，避免每个窗口重新分配
+            Histogram interval = recorder.getIntervalHistogram(spare);
+            total.add(interval);
+            spare = window;
+            window = interval;
+        }
+
+        synchronized Histogram window() {
+            return window.copy();
+        }
+
+        synchronized Histogram total() {
+            return total.copy();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.seecooker.app.gateway.metrics;
+
+import java.util.Map;
+
+/**
+ * 慢请求样本
+ *
+ * @param time 请求开始时间（毫秒时间戳）
+ * @param route 路由id
+ * @param method 请求方法
+ * @param path 请求路径
+ * @param query 查询参数，敏感字段已隐去
+ * @param status 响应状态码，异常结束时为0
+ * @param instance 转发到的下游实例
+ * @param loginId 登录用户id，未登录时为null
+ * @param firstByteMillis 响应头提交耗时
+ * @param totalMillis 总耗时
+ * @param headers 请求头，敏感字段已隐去
+ * @author xueruichen
+ * @date 2024.01.24
+ */
+public record SlowRequestSample(long time, String route, String method, String path, String query, int status,
+                                String instance, Object loginId, long firstByteMillis, long totalMillis,
+                                Map<String, String> headers) {
+}
@@ -0,0 +1,116 @@
+package com.seecooker.app.gateway.filter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.seecooker.app.gateway.config.ConcurrencyLimitProperties;
+import com.seecooker.common.core.exception.ErrorType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrencyLimitFilterTests {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Sinks.Empty<Void> upstream = Sinks.empty();
+    private final List<Disposable> pending = new ArrayList<>();
+    private final GatewayFilterChain chain = exchange -> {
+        exchange.getResponse().setStatusCode(HttpStatus.OK);
+        return upstream.asMono();
+    };
+    private ConcurrencyLimitProperties properties;
+    private ConcurrencyLimitFilter filter;
+
+    @BeforeEach
+    void setUp() throws JsonProcessingException {
+        properties = new ConcurrencyLimitProperties();
+        properties.setInitialLimit(2);
+        properties.setMinLimit(1);
+        properties.setAnonymousShare(0.5);
+        filter = new ConcurrencyLimitFilter(properties, objectMapper);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pending.forEach(Disposable::dispose);
+    }
+
+    @Test
+    void rejectsWithServerBusyWhenLimitReached() throws Exception {
+        hold(exchange(1L));
+        hold(exchange(2L));
+
+        MockServerWebExchange rejected = exchange(3L);
+        filter.filter(rejected, chain).block();
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, rejected.getResponse().getStatusCode());
+        String body = rejected.getResponse().getBodyAsString().block();
+        assertEquals(ErrorType.SERVER_BUSY.getCode(), objectMapper.readTree(body).get("code").asInt());
+    }
+
+    @Test
+    void shedsAnonymousReadsBeforeLoggedInRequests() {
+        hold(exchange(null));
+
+        MockServerWebExchange anonymous = exchange(null);
+        filter.filter(anonymous, chain).block();
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, anonymous.getResponse().getStatusCode());
+
+        MockServerWebExchange loggedIn = exchange(1L);
+        hold(loggedIn);
+        assertEquals(HttpStatus.OK, loggedIn.getResponse().getStatusCode());
+    }
+
+    @Test
+    void releasesSlotWhenRequestCompletes() {
+        MockServerWebExchange first = exchange(1L);
+        MockServerWebExchange second = exchange(2L);
+        hold(first);
+        hold(second);
+        upstream.tryEmitEmpty();
+
+        MockServerWebExchange next = exchange(3L);
+        filter.filter(next, chain).block();
+        assertEquals(HttpStatus.OK, next.getResponse().getStatusCode());
+    }
+
+    @Test
+    void passesThroughWhenDisabled() {
+        properties.setEnabled(false);
+        hold(exchange(1L));
+        hold(exchange(2L));
+
+        MockServerWebExchange next = exchange(3L);
+        hold(next);
+        assertEquals(HttpStatus.OK, next.getResponse().getStatusCode());
+    }
+
+    private void hold(MockServerWebExchange exchange) {
+        pending.add(filter.filter(exchange, chain).subscribe());
+    }
+
+    private static MockServerWebExchange exchange(Long loginId) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/recipe/detail/1"));
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, Route.async()
+                .id("recipe-service")
+                .uri("lb://recipe-service")
+                .predicate(e -> true)
+                .build());
+        if (loginId != null) {
+            exchange.getAttributes().put(IdentityHeaderFilter.LOGIN_ID_ATTRIBUTE, loginId);
+        }
+        return exchange;
+    }
+}
@@ -0,0 +1,94 @@
+package com.seecooker.app.gateway.filter;
+
+import com.seecooker.app.gateway.config.LatencyMetricsProperties;
+import com.seecooker.app.gateway.metrics.RouteLatencyRecorder;
+import com.seecooker.app.gateway.metrics.SlowRequestSample;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyRecordingFilterTests {
+    private LatencyMetricsProperties properties;
+    private RouteLatencyRecorder recorder;
+    private LatencyRecordingFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        properties = new LatencyMetricsProperties();
+        properties.setSlowThreshold(Duration.ZERO);
+        recorder = new RouteLatencyRecorder(properties);
+        filter = new LatencyRecordingFilter(properties, recorder);
+    }
+
+    @AfterEach
+    void tearDown() {
+        recorder.destroy();
+    }
+
+    @Test
+    void redactsSensitiveHeadersAndQueryParameters() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest
+                .get("/recipe/detail/1?satoken=secret&page=2&Token=secret&flag")
+                .header("satoken", "secret")
+                .header("Accept", "application/json"));
+
+        filter.filter(exchange, ok()).block();
+
+        List<SlowRequestSample> samples = recorder.slowRequests();
+        assertEquals(1, samples.size());
+        SlowRequestSample sample = samples.get(0);
+        assertEquals("/recipe/detail/1", sample.path());
+        assertEquals("satoken=***&page=2&Token=***&flag", sample.query());
+        assertEquals("***", sample.headers().get("satoken"));
+        assertEquals("application/json", sample.headers().get("Accept"));
+        assertEquals(200, sample.status());
+        assertEquals("none", sample.instance());
+    }
+
+    @Test
+    void recordsEveryRequestButSamplesOnlySlowOnes() {
+        properties.setSlowThreshold(Duration.ofMinutes(1));
+
+        filter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/recipe/detail/1")), ok()).block();
+
+        assertEquals(1, recorder.routes().size());
+        assertEquals(200, recorder.routes().get(0).status());
+        assertTrue(recorder.slowRequests().isEmpty());
+    }
+
+    @Test
+    void skipsSlowRequestsOutsideSampleRate() {
+        properties.setSampleRate(0);
+
+        filter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/recipe/detail/1")), ok()).block();
+
+        assertTrue(recorder.slowRequests().isEmpty());
+    }
+
+    @Test
+    void recordsFailedRequestsWithZeroStatus() {
+        filter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/recipe/detail/1")),
+                exchange -> Mono.error(new IllegalStateException("boom")))
+                .onErrorResume(e -> Mono.empty())
+                .block();
+
+        assertEquals(0, recorder.slowRequests().get(0).status());
+    }
+
+    private static GatewayFilterChain ok() {
+        return exchange -> {
+            exchange.getResponse().setStatusCode(HttpStatus.OK);
+            return exchange.getResponse().setComplete();
+        };
+    }
+}
@@ -0,0 +1,140 @@
+package com.seecooker.app.gateway.filter;
+
+import com.seecooker.app.gateway.config.ResponseCacheProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResponseCacheFilterTests {
+    private final AtomicInteger calls = new AtomicInteger();
+    private final AtomicReference<String> body = new AtomicReference<>("{\"code\":0,\"data\":1}");
+    private final AtomicReference<ResponseCacheFilter> filter = new AtomicReference<>();
+    private ResponseCacheProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ResponseCacheProperties();
+        properties.setRoutes(List.of(
+                new ResponseCacheProperties.Route("/recipe/**", Duration.ofMinutes(1), Duration.ofMinutes(1)),
+                new ResponseCacheProperties.Route("/stale/**", Duration.ofMillis(50), Duration.ofMinutes(1))));
+        // 后台刷新请求回到过滤器本身，模拟经网关回源
+        WebClient.Builder webClient = WebClient.builder().exchangeFunction(request -> {
+            MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get(request.url().getRawPath())
+                    .header("X-Seecooker-Cache-Refresh", request.headers().getFirst("X-Seecooker-Cache-Refresh")));
+            return filter.get().filter(exchange, upstream(Duration.ZERO))
+                    .then(Mono.fromSupplier(() -> ClientResponse.create(HttpStatus.OK).build()));
+        });
+        filter.set(new ResponseCacheFilter(properties, webClient, 9000));
+    }
+
+    @Test
+    void servesHitsWithoutCallingUpstream() {
+        MockServerWebExchange first = get("/recipe/detail/1");
+        MockServerWebExchange second = get("/recipe/detail/1");
+
+        assertEquals("MISS", status(first));
+        assertEquals("HIT", status(second));
+        assertEquals(body.get(), second.getResponse().getBodyAsString().block());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void cachesOnlySuccessfulResults() {
+        body.set("{\"code\":100001,\"msg\":\"error\"}");
+
+        assertEquals("MISS", status(get("/recipe/detail/1")));
+        assertEquals("MISS", status(get("/recipe/detail/1")));
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void servesStaleResponseAndRefreshesInBackground() throws InterruptedException {
+        String original = body.get();
+        get("/stale/1");
+        body.set("{\"code\":0,\"data\":2}");
+        Thread.sleep(100);
+        // 刷新后的条目不再过期，便于断言
+        properties.getRoutes().get(1).setTtl(Duration.ofMinutes(1));
+
+        MockServerWebExchange stale = get("/stale/1");
+        assertEquals("STALE", status(stale));
+        assertEquals(original, stale.getResponse().getBodyAsString().block());
+
+        long deadline = System.currentTimeMillis() + 2000;
+        while (calls.get() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(50);
+        MockServerWebExchange refreshed = get("/stale/1");
+        assertEquals("HIT", status(refreshed));
+        assertEquals(body.get(), refreshed.getResponse().getBodyAsString().block());
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void coalescesConcurrentMisses() {
+        MockServerWebExchange first = exchange("/recipe/detail/1");
+        MockServerWebExchange second = exchange("/recipe/detail/1");
+
+        Mono.when(filter.get().filter(first, upstream(Duration.ofMillis(200))),
+                filter.get().filter(second, upstream(Duration.ofMillis(200)))).block();
+
+        assertEquals(1, calls.get());
+        assertEquals("MISS", status(first));
+        assertEquals("HIT", status(second));
+        assertEquals(body.get(), second.getResponse().getBodyAsString().block());
+    }
+
+    @Test
+    void evictsEarliestExpiringEntriesBeyondByteLimit() throws InterruptedException {
+        properties.setMaxTotalBytes(body.get().length() * 2L);
+        get("/recipe/detail/1");
+        Thread.sleep(5);
+        get("/recipe/detail/2");
+        Thread.sleep(5);
+        get("/recipe/detail/3");
+
+        assertEquals("MISS", status(get("/recipe/detail/1")));
+        assertEquals("HIT", status(get("/recipe/detail/3")));
+    }
+
+    private MockServerWebExchange get(String path) {
+        MockServerWebExchange exchange = exchange(path);
+        filter.get().filter(exchange, upstream(Duration.ZERO)).block();
+        return exchange;
+    }
+
+    private static MockServerWebExchange exchange(String path) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get(path));
+    }
+
+    private static String status(MockServerWebExchange exchange) {
+        return exchange.getResponse().getHeaders().getFirst(ResponseCacheFilter.CACHE_STATUS_HEADER);
+    }
+
+    private GatewayFilterChain upstream(Duration delay) {
+        return exchange -> {
+            calls.incrementAndGet();
+            byte[] bytes = body.get().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponse().setStatusCode(HttpStatus.OK);
+            exchange.getResponse().getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            return Mono.delay(delay)
+                    .then(exchange.getResponse().writeWith(Mono.just(exchange.getResponse().bufferFactory().wrap(bytes))));
+        };
+    }
+}
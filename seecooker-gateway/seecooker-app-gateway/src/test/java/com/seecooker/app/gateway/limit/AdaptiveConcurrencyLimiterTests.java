@@ -0,0 +1,92 @@
+package com.seecooker.app.gateway.limit;
+
+import com.seecooker.app.gateway.config.ConcurrencyLimitProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTests {
+    private static final long FAST = Duration.ofMillis(1).toNanos();
+    private static final long SLOW = Duration.ofMillis(50).toNanos();
+
+    private ConcurrencyLimitProperties properties;
+    private AdaptiveConcurrencyLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ConcurrencyLimitProperties();
+        limiter = new AdaptiveConcurrencyLimiter(properties);
+    }
+
+    @Test
+    void limitsAnonymousTrafficToConfiguredShare() {
+        int anonymous = 0;
+        while (limiter.tryAcquire(true)) {
+            anonymous++;
+        }
+        assertEquals((int) (properties.getInitialLimit() * properties.getAnonymousShare()), anonymous);
+
+        int loggedIn = 0;
+        while (limiter.tryAcquire(false)) {
+            loggedIn++;
+        }
+        assertEquals(properties.getInitialLimit() - anonymous, loggedIn);
+        assertEquals(properties.getInitialLimit(), limiter.getInflight());
+    }
+
+    @Test
+    void growsLimitWhenLatencyIsStable() {
+        acquireAll();
+        for (int i = 0; i < properties.getInitialLimit(); i++) {
+            limiter.onSuccess(FAST);
+        }
+
+        assertTrue(limiter.getLimit() > properties.getInitialLimit());
+        assertEquals(0, limiter.getInflight());
+    }
+
+    @Test
+    void shrinksLimitWhenLatencyRises() {
+        acquireAll();
+        limiter.onSuccess(FAST);
+        for (int i = 0; i < 5; i++) {
+            limiter.onSuccess(SLOW);
+        }
+
+        assertTrue(limiter.getLimit() < properties.getInitialLimit());
+    }
+
+    @Test
+    void keepsLimitWhenUnderutilized() {
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.tryAcquire(false));
+            limiter.onSuccess(FAST);
+        }
+
+        assertEquals(properties.getInitialLimit(), limiter.getLimit());
+    }
+
+    @Test
+    void backsOffOnDropsDownToMinimum() {
+        assertTrue(limiter.tryAcquire(false));
+        limiter.onDropped();
+        assertEquals((int) (properties.getInitialLimit() * properties.getBackoffRatio()), limiter.getLimit());
+
+        for (int i = 0; i < 100; i++) {
+            limiter.tryAcquire(false);
+            limiter.onDropped();
+        }
+        assertEquals(properties.getMinLimit(), limiter.getLimit());
+        assertEquals(0, limiter.getInflight());
+    }
+
+    private void acquireAll() {
+        for (int i = 0; i < properties.getInitialLimit(); i++) {
+            assertTrue(limiter.tryAcquire(false));
+        }
+        assertFalse(limiter.tryAcquire(false));
+    }
+}
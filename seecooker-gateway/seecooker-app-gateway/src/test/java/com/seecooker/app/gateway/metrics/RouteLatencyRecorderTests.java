@@ -0,0 +1,87 @@
+package com.seecooker.app.gateway.metrics;
+
+import com.seecooker.app.gateway.config.LatencyMetricsProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouteLatencyRecorderTests {
+    private RouteLatencyRecorder recorder;
+
+    @AfterEach
+    void tearDown() {
+        recorder.destroy();
+    }
+
+    @Test
+    void rollsWindowIntoTotals() throws InterruptedException {
+        recorder = recorder(Duration.ofMillis(500), 10);
+        for (int i = 0; i < 3; i++) {
+            recorder.record("recipe", 200, "10.0.0.1:8080", TimeUnit.MILLISECONDS.toNanos(5));
+        }
+        // 滚动前最近窗口为空
+        assertEquals(0, recorder.routes().get(0).window().count());
+
+        RouteLatencyRecorder.RouteLatency latency = awaitWindow(3);
+        assertEquals("recipe", latency.route());
+        assertEquals(200, latency.status());
+        assertEquals("10.0.0.1:8080", latency.instance());
+        assertEquals(3, latency.total().count());
+        assertEquals(5.0, latency.window().p50Millis(), 0.05);
+        assertEquals(5.0, latency.total().maxMillis(), 0.05);
+    }
+
+    @Test
+    void separatesSeriesAndSortsByWindowP99() throws InterruptedException {
+        recorder = recorder(Duration.ofMillis(500), 10);
+        recorder.record("recipe", 200, "10.0.0.1:8080", TimeUnit.MILLISECONDS.toNanos(5));
+        recorder.record("recipe", 500, "10.0.0.1:8080", TimeUnit.MILLISECONDS.toNanos(50));
+        recorder.record("community", 200, "10.0.0.2:8080", TimeUnit.MILLISECONDS.toNanos(20));
+
+        awaitWindow(1);
+        List<RouteLatencyRecorder.RouteLatency> routes = recorder.routes();
+        assertEquals(3, routes.size());
+        assertEquals(500, routes.get(0).status());
+        assertEquals("community", routes.get(1).route());
+        assertEquals(200, routes.get(2).status());
+    }
+
+    @Test
+    void keepsNewestSamplesWithinCapacity() {
+        recorder = recorder(Duration.ofMinutes(1), 2);
+        for (int i = 1; i <= 3; i++) {
+            recorder.addSample(new SlowRequestSample(i, "recipe", "GET", "/recipe/detail/" + i, null, 200,
+                    "10.0.0.1:8080", null, 1, 1000, Map.of()));
+        }
+
+        List<SlowRequestSample> samples = recorder.slowRequests();
+        assertEquals(2, samples.size());
+        assertEquals(3, samples.get(0).time());
+        assertEquals(2, samples.get(1).time());
+    }
+
+    private RouteLatencyRecorder.RouteLatency awaitWindow(long count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 2000;
+        while (System.currentTimeMillis() < deadline) {
+            RouteLatencyRecorder.RouteLatency latency = recorder.routes().get(0);
+            if (latency.window().count() >= count) {
+                return latency;
+            }
+            Thread.sleep(20);
+        }
+        return fail("window was not rolled");
+    }
+
+    private static RouteLatencyRecorder recorder(Duration window, int sampleCapacity) {
+        LatencyMetricsProperties properties = new LatencyMetricsProperties();
+        properties.setWindow(window);
+        properties.setSampleCapacity(sampleCapacity);
+        return new RouteLatencyRecorder(properties);
+    }
+}
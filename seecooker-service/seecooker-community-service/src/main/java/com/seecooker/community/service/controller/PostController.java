@@ -1,13 +1,18 @@
 package com.seecooker.community.service.controller;
 
+import com.aliyuncs.exceptions.ClientException;
 import com.seecooker.common.core.model.Result;
 import com.seecooker.community.service.pojo.vo.CommentVO;
+import com.seecooker.community.service.pojo.vo.DirectPublishPostVO;
 import com.seecooker.community.service.pojo.vo.PostCommentVO;
 import com.seecooker.community.service.pojo.vo.PostDetailVO;
 import com.seecooker.community.service.pojo.vo.PostListVO;
+import com.seecooker.community.service.pojo.vo.PostSearchVO;
 import com.seecooker.community.service.service.PostService;
+import com.seecooker.util.oss.UploadTicket;
 import jakarta.validation.constraints.NotNull;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
@@ -43,6 +48,29 @@ public class PostController {
         return Result.success();
     }
 
+    /**
+     * 使用直传的图片发布帖子
+     *
+     * @param post 帖子标题、内容及图片key
+     * @return 响应结果
+     */
+    @PostMapping(value = "community/post", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public Result<Void> publishPost(@RequestBody @Validated DirectPublishPostVO post) throws ClientException {
+        postService.addPost(post);
+        return Result.success();
+    }
+
+    /**
+     * 申请帖子图片直传凭证
+     *
+     * @param contentTypes 每张图片的Content-Type
+     * @return 直传凭证
+     */
+    @PostMapping("community/upload")
+    public Result<List<UploadTicket>> presignUploads(@RequestParam List<String> contentTypes) throws ClientException {
+        return Result.success(postService.presignUploads(contentTypes));
+    }
+
     /**
      * 获取帖子
      *
@@ -66,6 +94,31 @@ public class PostController {
         return Result.success(posts);
     }
 
+    /**
+     * 分页获取热门帖子
+     *
+     * @param pageNo 页码
+     * @return 按热度降序的帖子列表
+     */
+    @GetMapping("community/posts/hot/page/{pageNo}")
+    public Result<List<PostListVO>> getHotPostsByPage(@PathVariable @NotNull Integer pageNo) {
+        List<PostListVO> posts = postService.getHotPostsByPage(pageNo);
+        return Result.success(posts);
+    }
+
+    /**
+     * 全文检索帖子
+     *
+     * @param query 检索关键词
+     * @param pageNo 页码
+     * @return 按相关度排序的检索结果
+     */
+    @GetMapping("community/posts/search")
+    public Result<List<PostSearchVO>> searchPosts(@RequestParam @NotNull String query, @RequestParam(defaultValue = "0") Integer pageNo) {
+        List<PostSearchVO> posts = postService.searchPosts(query, pageNo);
+        return Result.success(posts);
+    }
+
     /**
      * 获取帖子详情
      *
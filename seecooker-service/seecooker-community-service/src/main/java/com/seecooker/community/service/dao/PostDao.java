@@ -1,10 +1,17 @@
 package com.seecooker.community.service.dao;
 
 
+import com.seecooker.common.outbox.po.UserTotalView;
 import com.seecooker.community.service.pojo.po.PostPO;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 /**
  * 帖子业务dao层
  *
@@ -13,4 +20,39 @@ import org.springframework.stereotype.Repository;
  */
 @Repository
 public interface PostDao extends JpaRepository<PostPO, Long> {
+    /**
+     * 根据分词结果全文检索帖子，按相关度排序
+     *
+     * @param terms 以空格分隔的检索词
+     * @param pageable 分页参数
+     * @return 帖子列表
+     */
+    @Query(value = "SELECT * FROM post p " +
+            "WHERE to_tsvector('simple', p.search_terms) @@ plainto_tsquery('simple', :terms) " +
+            "ORDER BY ts_rank(to_tsvector('simple', p.search_terms), plainto_tsquery('simple', :terms)) DESC, p.create_time DESC",
+            nativeQuery = true)
+    List<PostPO> searchByTerms(@Param("terms") String terms, Pageable pageable);
+
+    /**
+     * 按id顺序取出一批分词字段缺失或分词规则版本较低的帖子
+     *
+     * @param lastId 上一批最后一个帖子的id
+     * @param version 当前分词规则版本
+     * @param pageable 批量大小
+     * @return 帖子列表
+     */
+    @Query("SELECT p FROM PostPO p WHERE p.id > :lastId " +
+            "AND (p.searchVersion IS NULL OR p.searchVersion < :version) ORDER BY p.id")
+    List<PostPO> findStaleSearchTerms(@Param("lastId") long lastId, @Param("version") int version, Pageable pageable);
+
+    /**
+     * 按作者汇总帖子获赞数
+     *
+     * @return 各作者的获赞总数
+     */
+    @Query(value = "SELECT poster_id AS \"userId\", CAST(sum(coalesce(cardinality(like_user_id_list), 0)) AS integer) AS \"total\" " +
+            "FROM post GROUP BY poster_id", nativeQuery = true)
+    List<UserTotalView> sumLikesByPoster();
+
+    List<PostPO> findByCreateTimeAfter(LocalDateTime time);
 }
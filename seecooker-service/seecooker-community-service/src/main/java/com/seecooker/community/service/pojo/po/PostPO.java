@@ -65,6 +65,17 @@ public class PostPO {
      */
     private List<Long> commentIdList;
 
+    /**
+     * 标题与内容的分词结果（中文单字与二元切分），用于全文检索
+     */
+    @Column(columnDefinition = "text")
+    private String searchTerms;
+
+    /**
+     * 生成分词字段时的分词规则版本
+     */
+    private Integer searchVersion;
+
     /**
      * 数据创建的时间戳
      */
@@ -0,0 +1,34 @@
+package com.seecooker.community.service.pojo.vo;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * 使用直传图片发布帖子VO
+ *
+ * @author xueruichen
+ * @date 2024.01.24
+ */
+@Getter
+@Setter
+public class DirectPublishPostVO {
+    /**
+     * 标题
+     */
+    @NotNull
+    private String title;
+
+    /**
+     * 内容
+     */
+    @NotNull
+    private String content;
+
+    /**
+     * 直传凭证中的图片key
+     */
+    private List<String> imageKeys;
+}
@@ -0,0 +1,66 @@
+package com.seecooker.community.service.pojo.vo;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * 帖子检索结果VO类
+ *
+ * @author xueruichen
+ * @date 2024.01.15
+ */
+@Getter
+@Setter
+@Builder
+public class PostSearchVO {
+    /**
+     * 帖子id
+     */
+    private Long postId;
+
+    /**
+     * 封面图url（默认选取图片第一张）
+     */
+    private String cover;
+
+    /**
+     * 标题，命中部分以&lt;em&gt;标签高亮
+     */
+    private String title;
+
+    /**
+     * 内容摘要，命中部分以&lt;em&gt;标签高亮
+     */
+    private String snippet;
+
+    /**
+     * 发布者id
+     */
+    private Long posterId;
+
+    /**
+     * 发布者头像
+     */
+    private String posterAvatar;
+
+    /**
+     * 发布者用户名
+     */
+    private String posterName;
+
+    /**
+     * 发布时间
+     */
+    private String publishTime;
+
+    /**
+     * 点赞数
+     */
+    private Integer likeNum;
+
+    /**
+     * 评论数
+     */
+    private Integer commentNum;
+}
@@ -0,0 +1,60 @@
+package com.seecooker.community.service.search;
+
+import com.seecooker.community.service.dao.PostDao;
+import com.seecooker.community.service.pojo.po.PostPO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 帖子全文检索索引初始化
+ * 启动时创建GIN索引，并为分词字段缺失或分词规则版本较低的帖子重建分词字段
+ *
+ * @author xueruichen
+ * @date 2024.01.15
+ */
+@Slf4j
+@Component
+public class PostSearchIndexInitializer implements ApplicationRunner {
+    private static final int BATCH_SIZE = 500;
+    private static final String CREATE_INDEX_SQL =
+            "CREATE INDEX IF NOT EXISTS post_search_terms_idx ON post USING GIN (to_tsvector('simple', search_terms))";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PostDao postDao;
+
+    public PostSearchIndexInitializer(JdbcTemplate jdbcTemplate, PostDao postDao) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.postDao = postDao;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        jdbcTemplate.execute(CREATE_INDEX_SQL);
+
+        // 只处理分词字段缺失或版本较低的帖子，按id分批读取，重复执行或多实例同时执行结果一致
+        long lastId = 0;
+        int count = 0;
+        List<PostPO> posts;
+        do {
+            posts = postDao.findStaleSearchTerms(lastId, PostSearchTokenizer.VERSION, PageRequest.of(0, BATCH_SIZE));
+            for (PostPO post : posts) {
+                post.setSearchTerms(PostSearchTokenizer.searchTerms(post.getTitle(), post.getContent()));
+                post.setSearchVersion(PostSearchTokenizer.VERSION);
+            }
+            postDao.saveAll(posts);
+            count += posts.size();
+            if (!posts.isEmpty()) {
+                lastId = posts.get(posts.size() - 1).getId();
+            }
+        } while (posts.size() == BATCH_SIZE);
+        if (count > 0) {
+            log.info("Built search terms for {} posts", count);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.seecooker.community.service.search;
+
+import java.util.*;
+
+/**
+ * 帖子全文检索分词工具类
+ * 中文索引时按单字和相邻两字切分，检索时按相邻两字切分，单字检索词单独成词；英文与数字按整词切分
+ *
+ * @author xueruichen
+ * @date 2024.01.15
+ */
+public class PostSearchTokenizer {
+    /**
+     * 分词规则版本，规则变化时递增，启动时重建版本较低的帖子的分词字段
+     */
+    public static final int VERSION = 2;
+    private static final String HIGHLIGHT_START = "<em>";
+    private static final String HIGHLIGHT_END = "</em>";
+    private static final int SNIPPET_LENGTH = 80;
+
+    private PostSearchTokenizer() {}
+
+    /**
+     * 对待索引的文本进行分词，中文额外保留单字，保证单字检索也能命中
+     *
+     * @param texts 文本
+     * @return 去重后的分词结果
+     */
+    public static List<String> tokenize(String... texts) {
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String text : texts) {
+            if (text != null) {
+                tokenize(text.toLowerCase(Locale.ROOT), tokens, true);
+            }
+        }
+        return new ArrayList<>(tokens);
+    }
+
+    /**
+     * 对检索词进行分词，连续中文只取二元词，单字中文单独成词
+     *
+     * @param query 检索词
+     * @return 去重后的分词结果
+     */
+    public static List<String> queryTokens(String query) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (query != null) {
+            tokenize(query.toLowerCase(Locale.ROOT), tokens, false);
+        }
+        return new ArrayList<>(tokens);
+    }
+
+    /**
+     * 生成存入数据库的分词字段
+     *
+     * @param title 标题
+     * @param content 内容
+     * @return 以空格分隔的分词结果
+     */
+    public static String searchTerms(String title, String content) {
+        return String.join(" ", tokenize(title, content));
+    }
+
+    /**
+     * 高亮文本中命中检索词的部分
+     *
+     * @param text 原文本
+     * @param tokens 检索词
+     * @return 高亮后的文本
+     */
+    public static String highlight(String text, List<String> tokens) {
+        if (text == null) {
+            return null;
+        }
+        return highlight(text, matchMask(text, tokens), 0, text.length());
+    }
+
+    /**
+     * 截取文本中第一个命中检索词附近的片段并高亮
+     *
+     * @param text 原文本
+     * @param tokens 检索词
+     * @return 高亮后的片段
+     */
+    public static String snippet(String text, List<String> tokens) {
+        if (text == null) {
+            return null;
+        }
+        boolean[] mask = matchMask(text, tokens);
+        int first = 0;
+        while (first < mask.length && !mask[first]) {
+            first++;
+        }
+        if (first == mask.length) {
+            first = 0;
+        }
+        int start = Math.max(0, first - SNIPPET_LENGTH / 4);
+        int end = Math.min(text.length(), start + SNIPPET_LENGTH);
+        String snippet = highlight(text, mask, start, end);
+        return (start > 0 ? "..." : "") + snippet + (end < text.length() ? "..." : "");
+    }
+
+    private static void tokenize(String text, Set<String> tokens, boolean unigrams) {
+        int i = 0;
+        while (i < text.length()) {
+            int c = text.codePointAt(i);
+            if (isCjk(c)) {
+                // 连续中文按相邻两字切分，单字单独成词；索引时每个字也单独成词
+                int runStart = i;
+                while (i < text.length() && isCjk(text.codePointAt(i))) {
+                    i += Character.charCount(text.codePointAt(i));
+                }
+                String run = text.substring(runStart, i);
+                int[] codePoints = run.codePoints().toArray();
+                if (unigrams || codePoints.length == 1) {
+                    for (int codePoint : codePoints) {
+                        tokens.add(Character.toString(codePoint));
+                    }
+                }
+                for (int j = 0; j + 1 < codePoints.length; ++j) {
+                    tokens.add(new String(codePoints, j, 2));
+                }
+            } else if (Character.isLetterOrDigit(c)) {
+                int wordStart = i;
+                while (i < text.length() && Character.isLetterOrDigit(text.codePointAt(i)) && !isCjk(text.codePointAt(i))) {
+                    i += Character.charCount(text.codePointAt(i));
+                }
+                tokens.add(text.substring(wordStart, i));
+            } else {
+                i += Character.charCount(c);
+            }
+        }
+    }
+
+    private static boolean isCjk(int codePoint) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+
+    private static boolean[] matchMask(String text, List<String> tokens) {
+        // 标记文本中被任一检索词覆盖的字符，重叠的二元词会合并为一段高亮
+        String lower = text.toLowerCase(Locale.ROOT);
+        boolean[] mask = new boolean[text.length()];
+        for (String token : tokens) {
+            int from = lower.indexOf(token);
+            while (from >= 0) {
+                Arrays.fill(mask, from, Math.min(mask.length, from + token.length()), true);
+                from = lower.indexOf(token, from + 1);
+            }
+        }
+        return mask;
+    }
+
+    private static String highlight(String text, boolean[] mask, int start, int end) {
+        StringBuilder builder = new StringBuilder();
+        boolean inMatch = false;
+        for (int i = start; i < end; ++i) {
+            if (mask[i] != inMatch) {
+                builder.append(inMatch ? HIGHLIGHT_END : HIGHLIGHT_START);
+                inMatch = mask[i];
+            }
+            char c = text.charAt(i);
+            switch (c) {
+                case '<' -> builder.append("&lt;");
+                case '>' -> builder.append("&gt;");
+                case '&' -> builder.append("&amp;");
+                default -> builder.append(c);
+            }
+        }
+        if (inMatch) {
+            builder.append(HIGHLIGHT_END);
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,36 @@
+package com.seecooker.community.service.service;
+
+import com.seecooker.community.service.pojo.po.PostPO;
+
+import java.util.List;
+
+/**
+ * 热门帖子排行服务层接口类
+ *
+ * @author xueruichen
+ * @date 2024.01.18
+ */
+public interface HotPostService {
+    /**
+     * 根据帖子当前的点赞、评论数和发布时间更新热度
+     *
+     * @param post 帖子
+     */
+    void updateScore(PostPO post);
+
+    /**
+     * 将帖子移出热门排行
+     *
+     * @param postId 帖子id
+     */
+    void removePost(Long postId);
+
+    /**
+     * 分页获取热门帖子id，按热度降序
+     *
+     * @param pageNo 页码
+     * @param pageSize 每页数量
+     * @return 帖子id列表
+     */
+    List<Long> getHotPostIds(int pageNo, int pageSize);
+}
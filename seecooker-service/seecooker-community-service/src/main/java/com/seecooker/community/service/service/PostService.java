@@ -1,9 +1,13 @@
 package com.seecooker.community.service.service;
 
+import com.aliyuncs.exceptions.ClientException;
 import com.seecooker.community.service.pojo.vo.CommentVO;
+import com.seecooker.community.service.pojo.vo.DirectPublishPostVO;
 import com.seecooker.community.service.pojo.vo.PostCommentVO;
 import com.seecooker.community.service.pojo.vo.PostDetailVO;
 import com.seecooker.community.service.pojo.vo.PostListVO;
+import com.seecooker.community.service.pojo.vo.PostSearchVO;
+import com.seecooker.util.oss.UploadTicket;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
@@ -24,6 +28,21 @@ public interface PostService {
      */
     void addPost(String title, String content, MultipartFile[] images) throws Exception;
 
+    /**
+     * 使用直传的图片增加帖子
+     *
+     * @param post 帖子标题、内容及图片key
+     */
+    void addPost(DirectPublishPostVO post) throws ClientException;
+
+    /**
+     * 申请帖子图片直传凭证
+     *
+     * @param contentTypes 每张图片的Content-Type
+     * @return 直传凭证
+     */
+    List<UploadTicket> presignUploads(List<String> contentTypes) throws ClientException;
+
     /**
      * 获取帖子
      *
@@ -85,4 +104,21 @@ public interface PostService {
      * @return 结果
      */
     List<PostListVO> getPostsByPage(Integer pageNo);
+
+    /**
+     * 分页获取热门帖子
+     *
+     * @param pageNo 页码
+     * @return 按热度降序的帖子列表
+     */
+    List<PostListVO> getHotPostsByPage(Integer pageNo);
+
+    /**
+     * 根据关键词全文检索帖子
+     *
+     * @param query 关键词
+     * @param pageNo 页码
+     * @return 按相关度排序的检索结果
+     */
+    List<PostSearchVO> searchPosts(String query, Integer pageNo);
 }
@@ -0,0 +1,147 @@
+package com.seecooker.community.service.service.impl;
+
+import com.seecooker.common.redis.enums.RedisKey;
+import com.seecooker.community.service.dao.PostDao;
+import com.seecooker.community.service.pojo.po.PostPO;
+import com.seecooker.community.service.service.HotPostService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * 热门帖子排行服务层实现类
+ * 热度 = (1 + 点赞数 * 点赞权重 + 评论数 * 评论权重) / (发布小时数 + 2) ^ 衰减系数，
+ * 存于redis有序集合中，点赞评论的事务提交后增量更新，并定时分批重新衰减
+ *
+ * @author xueruichen
+ * @date 2024.01.18
+ */
+@Slf4j
+@Service
+public class HotPostServiceImpl implements HotPostService {
+    private static final double LIKE_WEIGHT = 1.0;
+    private static final double COMMENT_WEIGHT = 2.0;
+    private static final double GRAVITY = 1.5;
+    private static final Duration HOT_WINDOW = Duration.ofDays(7);
+    private static final int DECAY_BATCH_SIZE = 200;
+    private static final long DECAY_INTERVAL = 10 * 60 * 1000L;
+    /**
+     * 衰减标记的有效期，略短于衰减间隔；有效期内其他实例或重启后的实例不再重复衰减
+     */
+    private static final Duration DECAY_GUARD = Duration.ofMillis(DECAY_INTERVAL).minusMinutes(1);
+
+    private final StringRedisTemplate redisTemplate;
+    private final PostDao postDao;
+
+    public HotPostServiceImpl(StringRedisTemplate redisTemplate, PostDao postDao) {
+        this.redisTemplate = redisTemplate;
+        this.postDao = postDao;
+    }
+
+    @Override
+    public void updateScore(PostPO post) {
+        LocalDateTime now = LocalDateTime.now();
+        if (isExpired(post, now)) {
+            removePost(post.getId());
+            return;
+        }
+        String member = String.valueOf(post.getId());
+        double score = score(post, now);
+        afterCommit(() -> redisTemplate.opsForZSet().add(RedisKey.HOT_POST.getKey(), member, score));
+    }
+
+    @Override
+    public void removePost(Long postId) {
+        afterCommit(() -> redisTemplate.opsForZSet().remove(RedisKey.HOT_POST.getKey(), String.valueOf(postId)));
+    }
+
+    @Override
+    public List<Long> getHotPostIds(int pageNo, int pageSize) {
+        long start = (long) pageNo * pageSize;
+        Set<String> ids = redisTemplate.opsForZSet().reverseRange(RedisKey.HOT_POST.getKey(), start, start + pageSize - 1);
+        if (ids == null) {
+            return Collections.emptyList();
+        }
+        return ids.stream().map(Long::valueOf).toList();
+    }
+
+    /**
+     * 定时重新计算热度，使未获得新互动的帖子随时间下沉
+     */
+    @Scheduled(initialDelay = 0, fixedDelay = DECAY_INTERVAL)
+    public void decayScores() {
+        // 多实例或频繁重启时只由一个实例在每个间隔内衰减一次
+        Boolean acquired = redisTemplate.opsForValue()
+                .setIfAbsent(RedisKey.HOT_POST_DECAY.getKey(), String.valueOf(System.currentTimeMillis()), DECAY_GUARD);
+        if (!Boolean.TRUE.equals(acquired)) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        Set<String> members = redisTemplate.opsForZSet().range(RedisKey.HOT_POST.getKey(), 0, -1);
+        List<Long> ids;
+        if (members == null || members.isEmpty()) {
+            // 排行为空时用时间窗口内的帖子初始化
+            ids = postDao.findByCreateTimeAfter(now.minus(HOT_WINDOW)).stream().map(PostPO::getId).toList();
+        } else {
+            ids = members.stream().map(Long::valueOf).toList();
+        }
+
+        for (int i = 0 ; i < ids.size() ; i += DECAY_BATCH_SIZE) {
+            List<Long> batch = ids.subList(i, Math.min(ids.size(), i + DECAY_BATCH_SIZE));
+            Map<Long, PostPO> posts = new HashMap<>();
+            postDao.findAllById(batch).forEach(post -> posts.put(post.getId(), post));
+
+            Set<ZSetOperations.TypedTuple<String>> scores = new HashSet<>();
+            List<String> removed = new ArrayList<>();
+            for (Long id : batch) {
+                PostPO post = posts.get(id);
+                // 已删除或超出时间窗口的帖子移出排行
+                if (post == null || isExpired(post, now)) {
+                    removed.add(String.valueOf(id));
+                } else {
+                    scores.add(new DefaultTypedTuple<>(String.valueOf(id), score(post, now)));
+                }
+            }
+            if (!scores.isEmpty()) {
+                redisTemplate.opsForZSet().add(RedisKey.HOT_POST.getKey(), scores);
+            }
+            if (!removed.isEmpty()) {
+                redisTemplate.opsForZSet().remove(RedisKey.HOT_POST.getKey(), removed.toArray());
+            }
+        }
+        log.debug("Decayed hot scores of {} posts", ids.size());
+    }
+
+    private static void afterCommit(Runnable action) {
+        // 事务中的变更提交后再写入排行，回滚时排行不受影响
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static boolean isExpired(PostPO post, LocalDateTime now) {
+        return post.getCreateTime().isBefore(now.minus(HOT_WINDOW));
+    }
+
+    private static double score(PostPO post, LocalDateTime now) {
+        double interactions = 1 + post.getLikeUserIdList().size() * LIKE_WEIGHT + post.getCommentIdList().size() * COMMENT_WEIGHT;
+        double ageHours = Math.max(0, Duration.between(post.getCreateTime(), now).toMinutes() / 60.0);
+        return interactions / Math.pow(ageHours + 2, GRAVITY);
+    }
+}
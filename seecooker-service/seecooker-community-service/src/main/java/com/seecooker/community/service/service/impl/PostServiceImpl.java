@@ -1,28 +1,38 @@
 package com.seecooker.community.service.service.impl;
 
-import cn.dev33.satoken.stp.StpUtil;
 import com.aliyuncs.exceptions.ClientException;
+import com.seecooker.common.core.context.UserContext;
 import com.seecooker.common.core.enums.ImageType;
+import com.seecooker.common.core.enums.ImageVariant;
+import com.seecooker.common.core.enums.UserEventType;
 import com.seecooker.common.core.exception.BizException;
 import com.seecooker.common.core.exception.ErrorType;
 
-import com.seecooker.common.core.model.Result;
 import com.seecooker.common.core.model.dto.user.UserDTO;
+import com.seecooker.common.core.model.dto.user.UserProfileDTO;
+import com.seecooker.common.outbox.dao.OutboxDao;
+import com.seecooker.common.outbox.po.OutboxPO;
 import com.seecooker.community.service.dao.CommentDao;
 import com.seecooker.community.service.dao.PostDao;
 import com.seecooker.community.service.pojo.po.CommentPO;
 import com.seecooker.community.service.pojo.po.PostPO;
 import com.seecooker.community.service.pojo.vo.CommentVO;
+import com.seecooker.community.service.pojo.vo.DirectPublishPostVO;
 import com.seecooker.community.service.pojo.vo.PostCommentVO;
 import com.seecooker.community.service.pojo.vo.PostDetailVO;
 import com.seecooker.community.service.pojo.vo.PostListVO;
+import com.seecooker.community.service.pojo.vo.PostSearchVO;
+import com.seecooker.community.service.search.PostSearchTokenizer;
+import com.seecooker.community.service.service.HotPostService;
 import com.seecooker.community.service.service.PostService;
-import com.seecooker.feign.user.UserClient;
+import com.seecooker.feign.user.UserLoader;
 import com.seecooker.util.oss.AliOSSUtil;
+import com.seecooker.util.oss.UploadTicket;
 import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
@@ -42,19 +52,46 @@ import java.util.*;
 public class PostServiceImpl implements PostService {
     private final PostDao postDao;
     private final CommentDao commentDao;
-    private final UserClient userClient;
+    private final UserLoader userLoader;
+    private final OutboxDao outboxDao;
+    private final HotPostService hotPostService;
+    private final TransactionTemplate transactionTemplate;
     private final int pageSize = 8;
 
-    public PostServiceImpl(PostDao postDao, CommentDao commentDao, UserClient userClient) {
+    public PostServiceImpl(PostDao postDao, CommentDao commentDao, UserLoader userLoader, OutboxDao outboxDao,
+                           HotPostService hotPostService, TransactionTemplate transactionTemplate) {
         this.postDao = postDao;
         this.commentDao = commentDao;
-        this.userClient = userClient;
+        this.userLoader = userLoader;
+        this.outboxDao = outboxDao;
+        this.hotPostService = hotPostService;
+        this.transactionTemplate = transactionTemplate;
     }
 
     @Override
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
     public void addPost(String title, String content, MultipartFile[] images) throws IOException, ClientException {
+        // 先上传图片，再开启事务保存，避免数据库事务在网络IO期间一直占用连接
         List<String> postImages = AliOSSUtil.uploadFile(images, ImageType.POST_IMAGE);
-        Long posterId = StpUtil.getLoginIdAsLong();
+        transactionTemplate.executeWithoutResult(status -> savePost(title, content, postImages));
+    }
+
+    @Override
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
+    public void addPost(DirectPublishPostVO post) throws ClientException {
+        // 图片已由客户端直传，开启事务前确认均已上传
+        List<String> postImages = post.getImageKeys() == null ? Collections.emptyList()
+                : AliOSSUtil.confirmUploads(ImageType.POST_IMAGE, post.getImageKeys());
+        transactionTemplate.executeWithoutResult(status -> savePost(post.getTitle(), post.getContent(), postImages));
+    }
+
+    @Override
+    public List<UploadTicket> presignUploads(List<String> contentTypes) throws ClientException {
+        return AliOSSUtil.presignUploads(ImageType.POST_IMAGE, contentTypes);
+    }
+
+    private void savePost(String title, String content, List<String> postImages) {
+        Long posterId = UserContext.getLoginId();
         PostPO post = PostPO.builder()
                 .title(title)
                 .content(content)
@@ -62,19 +99,17 @@ public class PostServiceImpl implements PostService {
                 .images(postImages)
                 .likeUserIdList(Collections.emptyList())
                 .commentIdList(Collections.emptyList())
+                .searchTerms(PostSearchTokenizer.searchTerms(title, content))
+                .searchVersion(PostSearchTokenizer.VERSION)
                 .createTime(LocalDateTime.now())
                 .updateTime(LocalDateTime.now())
                 .build();
-        Long postId = postDao.save(post).getId();
+        post = postDao.save(post);
+        Long postId = post.getId();
+        hotPostService.updateScore(post);
 
-        // 在poster发布的帖子内插入id
-        UserDTO poster = getUser(posterId);
-        poster.getPosts().add(postId);
-
-        Result<Void> saveResult = userClient.updateUserPosts(posterId, poster.getPosts());
-        if (saveResult.fail()) {
-            throw new BizException(ErrorType.OPEN_FEIGN_API_ERROR);
-        }
+        // 在poster发布的帖子内插入id，随本地事务提交后异步同步到用户服务
+        publishUserEvent(UserEventType.POST_ADDED, posterId, postId);
     }
 
     @Override
@@ -93,15 +128,15 @@ public class PostServiceImpl implements PostService {
         }
         PostPO post = postOp.get();
 
-        UserDTO poster = getUser(post.getPosterId());
+        UserProfileDTO poster = getUserProfile(post.getPosterId());
 
         // 检查是否登陆
-        boolean isLogin = StpUtil.isLogin();
+        boolean isLogin = UserContext.isLogin();
         boolean like = false;
 
         // 是否已点赞
         if (isLogin) {
-            like = post.getLikeUserIdList().contains(StpUtil.getLoginIdAsLong());
+            like = post.getLikeUserIdList().contains(UserContext.getLoginId());
         }
 
         List<Long> likeUsersId = post.getLikeUserIdList();
@@ -110,10 +145,10 @@ public class PostServiceImpl implements PostService {
         return PostDetailVO.builder()
                 .title(post.getTitle())
                 .content(post.getContent())
-                .images(post.getImages())
+                .images(post.getImages().stream().map(image -> AliOSSUtil.variantUrl(image, ImageVariant.DETAIL)).toList())
                 .posterId(poster.getId())
                 .posterName(poster.getUsername())
-                .posterAvatar(poster.getAvatar())
+                .posterAvatar(AliOSSUtil.variantUrl(poster.getAvatar(), ImageVariant.THUMBNAIL))
                 .like(like) // 未登陆默认为false
                 .likeNum(likeNum)
                 .publishTime(post.getCreateTime().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")))
@@ -128,7 +163,7 @@ public class PostServiceImpl implements PostService {
         }
         PostPO post = postOp.get();
         CommentPO comment = CommentPO.builder()
-                .commenterId(StpUtil.getLoginIdAsLong())
+                .commenterId(UserContext.getLoginId())
                 .content(postComment.getContent())
                 .createTime(LocalDateTime.now())
                 .updateTime(LocalDateTime.now())
@@ -137,6 +172,7 @@ public class PostServiceImpl implements PostService {
         // 将评论id存入post
         post.getCommentIdList().add(comment.getId());
         postDao.save(post);
+        hotPostService.updateScore(post);
         return commentMapper(comment);
     }
 
@@ -149,6 +185,7 @@ public class PostServiceImpl implements PostService {
         PostPO post = postDao.findById(postId).get();
 
         List<CommentPO> commentPOs = commentDao.findAllById(post.getCommentIdList());
+        userLoader.prime(commentPOs.stream().map(CommentPO::getCommenterId).toList());
         return commentPOs.stream()
                 .sorted(Comparator.comparing(CommentPO::getCreateTime))
                 .map(this::commentMapper)
@@ -157,7 +194,7 @@ public class PostServiceImpl implements PostService {
 
     @Override
     public Boolean likePost(Long postId) {
-        long userId = StpUtil.getLoginIdAsLong();
+        long userId = UserContext.getLoginId();
         boolean like = false;
         Optional<PostPO> postOp = postDao.findById(postId);
         if (postOp.isEmpty()) {
@@ -169,6 +206,8 @@ public class PostServiceImpl implements PostService {
             like = true;
             post.getLikeUserIdList().add(userId);
             postDao.save(post);
+            hotPostService.updateScore(post);
+            publishUserEvent(UserEventType.POST_LIKED, post.getPosterId(), postId);
         }
 
         return like;
@@ -176,7 +215,7 @@ public class PostServiceImpl implements PostService {
 
     @Override
     public void deletePost(Long id) {
-        long userId = StpUtil.getLoginIdAsLong();
+        long userId = UserContext.getLoginId();
         Optional<PostPO> postOp = postDao.findById(id);
         if (postOp.isEmpty()) {
             throw new BizException(ErrorType.POST_NOT_EXIST);
@@ -186,13 +225,10 @@ public class PostServiceImpl implements PostService {
             throw new BizException(ErrorType.UNAUTHORIZED, "用户不能删除其他人发布的帖子");
         }
         postDao.delete(post);
+        hotPostService.removePost(id);
 
-        UserDTO user = getUser(userId);
-        user.getPosts().remove(id);
-        Result<Void> updateResult = userClient.updateUserPosts(userId, user.getPosts());
-        if (updateResult.fail()) {
-            throw new BizException(ErrorType.OPEN_FEIGN_API_ERROR);
-        }
+        // 附带帖子获赞数，用于扣减发布者的获赞统计
+        publishUserEvent(UserEventType.POST_DELETED, userId, id, post.getLikeUserIdList().size());
     }
 
     @Override
@@ -208,51 +244,94 @@ public class PostServiceImpl implements PostService {
         return mapPost(posts);
     }
 
+    @Override
+    public List<PostListVO> getHotPostsByPage(Integer pageNo) {
+        List<Long> ids = hotPostService.getHotPostIds(pageNo, pageSize);
+        Map<Long, PostPO> postMap = new HashMap<>();
+        postDao.findAllById(ids).forEach(post -> postMap.put(post.getId(), post));
+        // 按热度顺序返回
+        List<PostPO> posts = ids.stream().map(postMap::get).filter(Objects::nonNull).toList();
+        return mapPost(posts);
+    }
+
+    @Override
+    public List<PostSearchVO> searchPosts(String query, Integer pageNo) {
+        List<String> tokens = PostSearchTokenizer.queryTokens(query);
+        if (tokens.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<PostPO> posts = postDao.searchByTerms(String.join(" ", tokens), PageRequest.of(pageNo, pageSize));
+        userLoader.prime(posts.stream().map(PostPO::getPosterId).toList());
+        return posts.stream().map(postPO -> {
+            UserProfileDTO poster = getUserProfile(postPO.getPosterId());
+            return PostSearchVO.builder()
+                    .postId(postPO.getId())
+                    .title(PostSearchTokenizer.highlight(postPO.getTitle(), tokens))
+                    .snippet(PostSearchTokenizer.snippet(postPO.getContent(), tokens))
+                    .cover(postPO.getImages().isEmpty() ? null : AliOSSUtil.variantUrl(postPO.getImages().get(0), ImageVariant.LIST))
+                    .posterId(poster.getId())
+                    .posterName(poster.getUsername())
+                    .posterAvatar(AliOSSUtil.variantUrl(poster.getAvatar(), ImageVariant.THUMBNAIL))
+                    .likeNum(postPO.getLikeUserIdList().size())
+                    .commentNum(postPO.getCommentIdList().size())
+                    .publishTime(postPO.getCreateTime().format(DateTimeFormatter.ofPattern("yyyy-MM-dd")))
+                    .build();
+        }).toList();
+    }
+
     private CommentVO commentMapper(CommentPO commentPO) {
         // 评论VO的映射
-        UserDTO commenter = getUser(commentPO.getCommenterId());
+        UserProfileDTO commenter = getUserProfile(commentPO.getCommenterId());
         return CommentVO.builder()
                 .commenterId(commenter.getId())
                 .commenterName(commenter.getUsername())
-                .commenterAvatar(commenter.getAvatar())
+                .commenterAvatar(AliOSSUtil.variantUrl(commenter.getAvatar(), ImageVariant.THUMBNAIL))
                 .commentTime(commentPO.getCreateTime().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")))
                 .content(commentPO.getContent())
                 .build();
     }
 
+    private void publishUserEvent(UserEventType type, Long userId, Long targetId) {
+        publishUserEvent(type, userId, targetId, null);
+    }
+
+    private void publishUserEvent(UserEventType type, Long userId, Long targetId, Integer amount) {
+        // 写入发件箱，与业务数据同一事务提交
+        outboxDao.append(OutboxPO.builder()
+                .eventType(type)
+                .userId(userId)
+                .targetId(targetId)
+                .amount(amount)
+                .createTime(LocalDateTime.now())
+                .build());
+    }
+
+    private UserProfileDTO getUserProfile(Long userId) {
+        return userLoader.getProfile(userId);
+    }
+
     private UserDTO getUser(Long userId) {
-        // 调用feign-api 封装方法
-        Result<UserDTO> userResult = userClient.getUserById(userId);
-        if (userResult.fail()) {
-            throw new BizException(ErrorType.OPEN_FEIGN_API_ERROR);
-        }
-        return userResult.getData();
+        // 同一请求内复用已查询的用户数据
+        return userLoader.getUser(userId);
     }
 
     private List<PostListVO> mapPost(List<PostPO> posts) {
         // 将postPOList映射
-        boolean isLogin = StpUtil.isLogin();
-        UserDTO currentUser;
-        if (isLogin) {
-            currentUser = getUser(StpUtil.getLoginIdAsLong());
-        } else {
-            currentUser = null;
-        }
+        Long currentUserId = UserContext.getLoginIdOrNull();
+        // 发帖人资料在首次取用时合并为一次批量查询
+        userLoader.prime(posts.stream().map(PostPO::getPosterId).toList());
         return posts.stream().map(postPO -> {
-            UserDTO poster = getUser(postPO.getPosterId());
+            UserProfileDTO poster = getUserProfile(postPO.getPosterId());
 
-            boolean like = false;
-            if (isLogin) {
-                like = postPO.getLikeUserIdList().contains(currentUser.getId());
-            }
+            boolean like = currentUserId != null && postPO.getLikeUserIdList().contains(currentUserId);
 
             return PostListVO.builder()
                     .postId(postPO.getId())
                     .title(postPO.getTitle())
-                    .cover(postPO.getImages().isEmpty() ? null : postPO.getImages().get(0))
+                    .cover(postPO.getImages().isEmpty() ? null : AliOSSUtil.variantUrl(postPO.getImages().get(0), ImageVariant.LIST))
                     .posterId(poster.getId())
                     .posterName(poster.getUsername())
-                    .posterAvatar(poster.getAvatar())
+                    .posterAvatar(AliOSSUtil.variantUrl(poster.getAvatar(), ImageVariant.THUMBNAIL))
                     .like(like)
                     .likeNum(postPO.getLikeUserIdList().size())
                     .publishTime(postPO.getCreateTime().format(DateTimeFormatter.ofPattern("yyyy-MM-dd")))
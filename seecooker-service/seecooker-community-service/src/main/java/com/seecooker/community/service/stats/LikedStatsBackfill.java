@@ -0,0 +1,58 @@
+package com.seecooker.community.service.stats;
+
+import com.seecooker.common.core.enums.UserEventType;
+import com.seecooker.common.outbox.dao.OutboxDao;
+import com.seecooker.common.outbox.po.OutboxPO;
+import com.seecooker.common.outbox.po.UserTotalView;
+import com.seecooker.community.service.dao.PostDao;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 帖子获赞统计回填
+ * 首次启动时按作者汇总已有的获赞数，经发件箱发往用户服务作为获赞统计的初始值；多实例、多次启动时只执行一次
+ *
+ * @author xueruichen
+ * @date 2024.01.24
+ */
+@Slf4j
+@Component
+public class LikedStatsBackfill implements ApplicationRunner {
+    private final PostDao postDao;
+    private final OutboxDao outboxDao;
+    private final TransactionTemplate transactionTemplate;
+
+    public LikedStatsBackfill(PostDao postDao, OutboxDao outboxDao, TransactionTemplate transactionTemplate) {
+        this.postDao = postDao;
+        this.outboxDao = outboxDao;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (outboxDao.markOnce(UserEventType.LIKES_SEEDED.name()) == 0) {
+                return;
+            }
+            List<UserTotalView> totals = postDao.sumLikesByPoster();
+            // 回填事件与目标无关，不占用目标上的序号
+            outboxDao.saveAll(totals.stream()
+                    .map(total -> OutboxPO.builder()
+                            .eventType(UserEventType.LIKES_SEEDED)
+                            .userId(total.getUserId())
+                            .targetId(total.getUserId())
+                            .amount(total.getTotal())
+                            .sequence(0L)
+                            .createTime(LocalDateTime.now())
+                            .build())
+                    .toList());
+            log.info("Seeded liked stats for {} users", totals.size());
+        });
+    }
+}
@@ -0,0 +1,39 @@
+package com.seecooker.community.service.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PostSearchTokenizerTests {
+
+    @Test
+    void indexesCjkUnigramsAndBigrams() {
+        List<String> tokens = PostSearchTokenizer.tokenize("炸鸡腿", null);
+        assertTrue(tokens.containsAll(List.of("炸", "鸡", "腿", "炸鸡", "鸡腿")));
+    }
+
+    @Test
+    void singleCharacterQueryMatchesIndexedTerms() {
+        List<String> indexed = PostSearchTokenizer.tokenize("今天做了炸鸡");
+        List<String> query = PostSearchTokenizer.queryTokens("鸡");
+        assertEquals(List.of("鸡"), query);
+        assertTrue(indexed.containsAll(query));
+    }
+
+    @Test
+    void queryUsesBigramsForCjkRuns() {
+        assertEquals(List.of("鸡蛋", "蛋羹"), PostSearchTokenizer.queryTokens("鸡蛋羹"));
+    }
+
+    @Test
+    void splitsLatinWordsAndLowercases() {
+        assertEquals(List.of("air", "fryer", "200", "度"), PostSearchTokenizer.queryTokens("Air-Fryer 200度"));
+    }
+
+    @Test
+    void highlightsMatchesAndEscapesHtml() {
+        assertEquals("<em>鸡蛋</em>&lt;b&gt;", PostSearchTokenizer.highlight("鸡蛋<b>", List.of("鸡蛋")));
+    }
+}
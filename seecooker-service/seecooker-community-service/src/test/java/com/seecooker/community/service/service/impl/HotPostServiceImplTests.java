@@ -0,0 +1,132 @@
+package com.seecooker.community.service.service.impl;
+
+import com.seecooker.common.redis.enums.RedisKey;
+import com.seecooker.community.service.dao.PostDao;
+import com.seecooker.community.service.pojo.po.PostPO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class HotPostServiceImplTests {
+    private static final String KEY = RedisKey.HOT_POST.getKey();
+
+    private ZSetOperations<String, String> zSet;
+    private ValueOperations<String, String> value;
+    private PostDao postDao;
+    private HotPostServiceImpl hotPostService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        zSet = mock(ZSetOperations.class);
+        value = mock(ValueOperations.class);
+        when(redisTemplate.opsForZSet()).thenReturn(zSet);
+        when(redisTemplate.opsForValue()).thenReturn(value);
+        postDao = mock(PostDao.class);
+        hotPostService = new HotPostServiceImpl(redisTemplate, postDao);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void scoresInteractionsAgainstAge() {
+        // (1 + 3 * 1 + 1 * 2) / (2 + 2) ^ 1.5 = 0.75
+        hotPostService.updateScore(post(1L, Duration.ofHours(2), 3, 1));
+
+        verify(zSet).add(eq(KEY), eq("1"), doubleThat(score -> Math.abs(score - 0.75) < 0.01));
+    }
+
+    @Test
+    void olderPostsScoreLowerWithSameInteractions() {
+        hotPostService.updateScore(post(1L, Duration.ofHours(1), 5, 0));
+        hotPostService.updateScore(post(2L, Duration.ofHours(24), 5, 0));
+
+        ArgumentCaptor<Double> scores = ArgumentCaptor.forClass(Double.class);
+        verify(zSet, times(2)).add(eq(KEY), anyString(), scores.capture());
+        assertTrue(scores.getAllValues().get(0) > scores.getAllValues().get(1));
+    }
+
+    @Test
+    void removesPostsOutsideHotWindow() {
+        hotPostService.updateScore(post(1L, Duration.ofDays(8), 10, 10));
+
+        verify(zSet).remove(KEY, "1");
+        verify(zSet, never()).add(anyString(), anyString(), anyDouble());
+    }
+
+    @Test
+    void writesScoreOnlyAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        hotPostService.updateScore(post(1L, Duration.ofHours(2), 3, 1));
+        verifyNoInteractions(zSet);
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        verify(zSet).add(eq(KEY), eq("1"), anyDouble());
+    }
+
+    @Test
+    void skipsDecayWhenRecentlyRun() {
+        when(value.setIfAbsent(eq(RedisKey.HOT_POST_DECAY.getKey()), anyString(), any(Duration.class))).thenReturn(false);
+
+        hotPostService.decayScores();
+
+        verifyNoInteractions(zSet, postDao);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void decayRescoresLivePostsAndDropsDeletedOnes() {
+        when(value.setIfAbsent(eq(RedisKey.HOT_POST_DECAY.getKey()), anyString(), any(Duration.class))).thenReturn(true);
+        when(zSet.range(KEY, 0, -1)).thenReturn(new LinkedHashSet<>(List.of("1", "2")));
+        when(postDao.findAllById(List.of(1L, 2L))).thenReturn(List.of(post(1L, Duration.ofHours(2), 3, 1)));
+
+        hotPostService.decayScores();
+
+        ArgumentCaptor<Set<ZSetOperations.TypedTuple<String>>> scores = ArgumentCaptor.forClass(Set.class);
+        verify(zSet).add(eq(KEY), scores.capture());
+        ZSetOperations.TypedTuple<String> tuple = scores.getValue().iterator().next();
+        assertEquals("1", tuple.getValue());
+        assertEquals(0.75, tuple.getScore(), 0.01);
+        verify(zSet).remove(KEY, "2");
+    }
+
+    private static PostPO post(Long id, Duration age, int likes, int comments) {
+        List<Long> likeUserIds = new ArrayList<>();
+        for (long i = 0; i < likes; i++) {
+            likeUserIds.add(i);
+        }
+        List<Long> commentIds = new ArrayList<>();
+        for (long i = 0; i < comments; i++) {
+            commentIds.add(i);
+        }
+        return PostPO.builder()
+                .id(id)
+                .likeUserIdList(likeUserIds)
+                .commentIdList(commentIds)
+                .createTime(LocalDateTime.now().minus(age))
+                .build();
+    }
+}
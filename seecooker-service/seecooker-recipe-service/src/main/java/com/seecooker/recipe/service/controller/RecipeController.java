@@ -1,13 +1,17 @@
 package com.seecooker.recipe.service.controller;
 
 import com.aliyuncs.exceptions.ClientException;
+import com.seecooker.common.core.enums.ImageType;
 import com.seecooker.common.core.exception.BizException;
 import com.seecooker.common.core.exception.ErrorType;
 import com.seecooker.common.core.model.Result;
 import com.seecooker.recipe.service.pojo.vo.*;
 import com.seecooker.recipe.service.service.RecipeService;
+import com.seecooker.util.oss.UploadTicket;
 import jakarta.validation.constraints.NotNull;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -43,18 +47,42 @@ public class RecipeController {
         if (stepImages == null) {
             throw new BizException(ErrorType.ILLEGAL_ARGUMENTS, "步骤图不能为空");
         }
-        // 检查图片数量是否与步骤数量相等
-        if (publishRecipe.getStepContents().size() != stepImages.length) {
-            throw new BizException(ErrorType.RECIPE_STEP_MATCH_ERROR);
-        }
+        checkRecipe(publishRecipe, stepImages.length);
+        recipeService.addRecipe(publishRecipe, cover, stepImages);
+        return Result.success();
+    }
 
-        if (publishRecipe.getIngredients().size() != publishRecipe.getAmounts().size()) {
-            throw new BizException(ErrorType.ILLEGAL_ARGUMENTS, "配料与量不匹配");
+    /**
+     * 使用直传的图片发布菜谱
+     *
+     * @param publishRecipe 发布菜谱VO类，图片以直传凭证中的key给出
+     * @return 响应结果
+     */
+    @PostMapping(value = "recipe", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public Result<Void> publishRecipe(@RequestBody @Validated PublishRecipeVO publishRecipe) throws ClientException {
+        if (publishRecipe.getStepImageKeys() == null) {
+            throw new BizException(ErrorType.ILLEGAL_ARGUMENTS, "步骤图不能为空");
         }
-        recipeService.addRecipe(publishRecipe, cover, stepImages);
+        checkRecipe(publishRecipe, publishRecipe.getStepImageKeys().size());
+        recipeService.addRecipe(publishRecipe);
         return Result.success();
     }
 
+    /**
+     * 申请菜谱图片直传凭证
+     *
+     * @param imageType 图片类型，RECIPE_COVER_IMAGE或RECIPE_STEP_IMAGE
+     * @param contentTypes 每张图片的Content-Type
+     * @return 直传凭证
+     */
+    @PostMapping("recipe/upload")
+    public Result<List<UploadTicket>> presignUploads(@RequestParam ImageType imageType, @RequestParam List<String> contentTypes) throws ClientException {
+        if (imageType != ImageType.RECIPE_COVER_IMAGE && imageType != ImageType.RECIPE_STEP_IMAGE) {
+            throw new BizException(ErrorType.ILLEGAL_ARGUMENTS, "图片类型不合法");
+        }
+        return Result.success(recipeService.presignUploads(imageType, contentTypes));
+    }
+
     /**
      * 获取菜谱列表
      *
@@ -139,6 +167,19 @@ public class RecipeController {
         return Result.success(result);
     }
 
+    /**
+     * 根据用户id分页获取用户收藏菜谱
+     *
+     * @param userId 用户id
+     * @param pageNo 页码
+     * @return 用户收藏菜谱
+     */
+    @GetMapping("recipe/favorites/{userId}/page/{pageNo}")
+    public Result<List<RecipeListVO>> getFavoriteRecipesByPage(@PathVariable @NotNull Long userId, @PathVariable @NotNull Integer pageNo) {
+        List<RecipeListVO> result = recipeService.getFavoriteRecipesByPage(userId, pageNo);
+        return Result.success(result);
+    }
+
     /**
      * 获取推荐菜谱
      *
@@ -187,4 +228,15 @@ public class RecipeController {
         List<RecipeListVO> result = recipeService.getPublishRecipe(userId);
         return Result.success(result);
     }
+
+    private static void checkRecipe(PublishRecipeVO publishRecipe, int stepImageCount) {
+        // 检查图片数量是否与步骤数量相等
+        if (publishRecipe.getStepContents().size() != stepImageCount) {
+            throw new BizException(ErrorType.RECIPE_STEP_MATCH_ERROR);
+        }
+
+        if (publishRecipe.getIngredients().size() != publishRecipe.getAmounts().size()) {
+            throw new BizException(ErrorType.ILLEGAL_ARGUMENTS, "配料与量不匹配");
+        }
+    }
 }
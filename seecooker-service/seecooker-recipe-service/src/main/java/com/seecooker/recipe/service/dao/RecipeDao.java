@@ -1,8 +1,11 @@
 package com.seecooker.recipe.service.dao;
 
+import com.seecooker.common.outbox.po.UserTotalView;
 import com.seecooker.recipe.service.pojo.po.RecipePO;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -19,4 +22,24 @@ public interface RecipeDao extends JpaRepository<RecipePO, Long> {
 
     @Query("SELECT recipe.name FROM RecipePO recipe ORDER BY RANDOM() LIMIT 6")
     List<String> getRandomName();
+
+    /**
+     * 调整菜谱收藏数
+     *
+     * @param recipeId 菜谱id
+     * @param delta 收藏数变化量
+     * @return 更新行数
+     */
+    @Modifying
+    @Query("UPDATE RecipePO recipe SET recipe.favoriteNum = coalesce(recipe.favoriteNum, 0) + :delta WHERE recipe.id = :recipeId")
+    int addFavoriteNum(@Param("recipeId") Long recipeId, @Param("delta") int delta);
+
+    /**
+     * 按作者汇总菜谱被收藏数
+     *
+     * @return 各作者的被收藏总数
+     */
+    @Query(value = "SELECT author_id AS \"userId\", CAST(sum(coalesce(favorite_num, 0)) AS integer) AS \"total\" " +
+            "FROM recipe GROUP BY author_id", nativeQuery = true)
+    List<UserTotalView> sumFavoritesByAuthor();
 }
@@ -2,8 +2,10 @@ package com.seecooker.recipe.service.pojo.vo;
 
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 import java.util.List;
@@ -18,6 +20,8 @@ import java.util.List;
 @Getter
 @Setter
 @Builder
+@NoArgsConstructor
+@AllArgsConstructor
 public class PublishRecipeVO {
     /**
      * 菜谱名
@@ -49,4 +53,14 @@ public class PublishRecipeVO {
      */
     @NotNull
     private List<String> amounts;
+
+    /**
+     * 直传的封面图key，仅JSON发布时使用
+     */
+    private String coverKey;
+
+    /**
+     * 直传的步骤图key，仅JSON发布时使用
+     */
+    private List<String> stepImageKeys;
 }
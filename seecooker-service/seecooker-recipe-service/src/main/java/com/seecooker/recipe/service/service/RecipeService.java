@@ -1,7 +1,9 @@
 package com.seecooker.recipe.service.service;
 
 import com.aliyuncs.exceptions.ClientException;
+import com.seecooker.common.core.enums.ImageType;
 import com.seecooker.recipe.service.pojo.vo.*;
+import com.seecooker.util.oss.UploadTicket;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
@@ -23,6 +25,22 @@ public interface RecipeService {
      */
     void addRecipe(PublishRecipeVO publishRecipe, MultipartFile cover, MultipartFile[] stepImages) throws IOException, ClientException;
 
+    /**
+     * 使用已直传的图片添加菜谱，图片key在publishRecipe中给出
+     *
+     * @param publishRecipe VO类
+     */
+    void addRecipe(PublishRecipeVO publishRecipe) throws ClientException;
+
+    /**
+     * 申请菜谱图片直传凭证
+     *
+     * @param imageType 图片类型，封面图或步骤图
+     * @param contentTypes 每张图片的Content-Type
+     * @return 直传凭证
+     */
+    List<UploadTicket> presignUploads(ImageType imageType, List<String> contentTypes) throws ClientException;
+
     /**
      * 获取菜谱列表
      *
@@ -79,6 +97,15 @@ public interface RecipeService {
      */
     List<RecipeListVO> getFavoriteRecipes(Long userId);
 
+    /**
+     * 分页获取用户收藏的菜谱，按收藏时间倒序
+     *
+     * @param userId 用户id
+     * @param pageNo 页码
+     * @return 结果
+     */
+    List<RecipeListVO> getFavoriteRecipesByPage(Long userId, Integer pageNo);
+
     /**
      * 获取随机菜谱名
      *
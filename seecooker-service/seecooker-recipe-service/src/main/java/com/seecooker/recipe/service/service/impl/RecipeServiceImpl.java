@@ -1,14 +1,23 @@
 package com.seecooker.recipe.service.service.impl;
 
-import cn.dev33.satoken.stp.StpUtil;
 import com.aliyuncs.exceptions.ClientException;
+import com.seecooker.common.core.concurrent.FanOut;
+import com.seecooker.common.core.concurrent.FanOutExecutor;
+import com.seecooker.common.core.context.UserContext;
 import com.seecooker.common.core.enums.ImageType;
+import com.seecooker.common.core.enums.ImageVariant;
+import com.seecooker.common.core.enums.UserEventType;
 import com.seecooker.common.core.exception.BizException;
 import com.seecooker.common.core.exception.ErrorType;
 import com.seecooker.common.core.model.Result;
 import com.seecooker.common.core.model.dto.user.UserDTO;
+import com.seecooker.common.core.model.dto.user.UserProfileDTO;
+import com.seecooker.common.outbox.dao.OutboxDao;
+import com.seecooker.common.outbox.po.OutboxPO;
 import com.seecooker.common.redis.enums.RedisKey;
+import com.seecooker.feign.user.AsyncUserClient;
 import com.seecooker.feign.user.UserClient;
+import com.seecooker.feign.user.UserLoader;
 import com.seecooker.recipe.service.dao.IngredientDao;
 import com.seecooker.recipe.service.dao.RecipeDao;
 import com.seecooker.recipe.service.dao.RecipeScoreDao;
@@ -18,16 +27,19 @@ import com.seecooker.recipe.service.pojo.po.RecipeScorePO;
 import com.seecooker.recipe.service.pojo.vo.*;
 import com.seecooker.recipe.service.service.RecipeService;
 import com.seecooker.util.oss.AliOSSUtil;
+import com.seecooker.util.oss.UploadTicket;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -43,45 +55,55 @@ public class RecipeServiceImpl implements RecipeService {
     private final RecipeScoreDao recipeScoreDao;
     private final RecipeDao recipeDao;
     private final UserClient userClient;
+    private final UserLoader userLoader;
+    private final AsyncUserClient asyncUserClient;
+    private final FanOutExecutor fanOutExecutor;
     private final RedisTemplate redisTemplate;
+    private final OutboxDao outboxDao;
+    private final TransactionTemplate transactionTemplate;
     private static final int PAGE_SIZE = 8;
+    /**
+     * 不分页获取收藏时单次拉取的上限
+     */
+    private static final int MAX_FAVORITE_SIZE = 1000;
 
     public RecipeServiceImpl(RecipeDao recipeDao,
                              RecipeScoreDao recipeScoreDao,
                              IngredientDao ingredientDao,
-                             UserClient userClient, RedisTemplate redisTemplate) {
+                             UserClient userClient, UserLoader userLoader, AsyncUserClient asyncUserClient,
+                             FanOutExecutor fanOutExecutor, RedisTemplate redisTemplate,
+                             OutboxDao outboxDao, TransactionTemplate transactionTemplate) {
         this.recipeDao = recipeDao;
         this.recipeScoreDao = recipeScoreDao;
         this.ingredientDao = ingredientDao;
         this.userClient = userClient;
+        this.userLoader = userLoader;
+        this.asyncUserClient = asyncUserClient;
+        this.fanOutExecutor = fanOutExecutor;
         this.redisTemplate = redisTemplate;
+        this.outboxDao = outboxDao;
+        this.transactionTemplate = transactionTemplate;
     }
 
     @Override
     public void addRecipe(PublishRecipeVO publishRecipe, MultipartFile cover, MultipartFile[] stepImages) throws IOException, ClientException {
-        RecipePO recipe = RecipePO.builder()
-                .name(publishRecipe.getName())
-                .introduction(publishRecipe.getIntroduction())
-                .authorId(StpUtil.getLoginIdAsLong())
-                .cover(AliOSSUtil.uploadFile(cover, ImageType.RECIPE_COVER_IMAGE))
-                .stepImages(AliOSSUtil.uploadFile(stepImages, ImageType.RECIPE_STEP_IMAGE))
-                .stepContents(publishRecipe.getStepContents())
-                .ingredientList(publishRecipe.getIngredients())
-                .amountList(publishRecipe.getAmounts())
-                .createTime(LocalDateTime.now())
-                .updateTime(LocalDateTime.now())
-                .score(0.0)
-                .favoriteNum(0)
-                .build();
-        recipe = recipeDao.save(recipe);
+        // 先上传图片，再开启事务保存，避免数据库事务在网络IO期间一直占用连接
+        String coverUrl = AliOSSUtil.uploadFile(cover, ImageType.RECIPE_COVER_IMAGE);
+        List<String> stepImageUrls = AliOSSUtil.uploadFile(stepImages, ImageType.RECIPE_STEP_IMAGE);
+        transactionTemplate.executeWithoutResult(status -> saveRecipe(publishRecipe, coverUrl, stepImageUrls));
+    }
 
-        UserDTO author = getUser(StpUtil.getLoginIdAsLong());
-        author.getPostRecipes().add(recipe.getId());
+    @Override
+    public void addRecipe(PublishRecipeVO publishRecipe) throws ClientException {
+        // 图片已由客户端直传，开启事务前确认均已上传
+        String coverUrl = AliOSSUtil.confirmUpload(ImageType.RECIPE_COVER_IMAGE, publishRecipe.getCoverKey());
+        List<String> stepImageUrls = AliOSSUtil.confirmUploads(ImageType.RECIPE_STEP_IMAGE, publishRecipe.getStepImageKeys());
+        transactionTemplate.executeWithoutResult(status -> saveRecipe(publishRecipe, coverUrl, stepImageUrls));
+    }
 
-        Result<Void> updateRecipesResult = userClient.updatePostRecipes(StpUtil.getLoginIdAsLong(), author.getPostRecipes());
-        if (updateRecipesResult.fail()) {
-            throw new BizException(ErrorType.OPEN_FEIGN_API_ERROR);
-        }
+    @Override
+    public List<UploadTicket> presignUploads(ImageType imageType, List<String> contentTypes) throws ClientException {
+        return AliOSSUtil.presignUploads(imageType, contentTypes);
     }
 
     @Override
@@ -93,23 +115,30 @@ public class RecipeServiceImpl implements RecipeService {
     @Override
     public RecipeDetailVO getRecipeDetailById(Long recipeId) {
         RecipePO recipe = recipeDao.findById(recipeId).get();
+        Long loginId = UserContext.getLoginIdOrNull();
 
-        boolean isFavorite = false;
-        boolean isScored = false;
-        double score = 0.0;
-        boolean isLogin = StpUtil.isLogin();
-
-        UserDTO author = getUser(recipe.getAuthorId());
-
-        if (isLogin) {
-            UserDTO user = getUser(StpUtil.getLoginIdAsLong());
-            isFavorite = user.getFavoriteRecipes().contains(recipeId);
-            RecipeScorePO recipeScore = recipeScoreDao.findRecipeScorePOByUserIdAndRecipeId(StpUtil.getLoginIdAsLong(), recipeId);
-            if (recipeScore != null) {
-                isScored = true;
-                score = recipeScore.getScore();
-            }
+        // 作者资料、收藏状态和用户评分互不依赖，并行查询
+        FanOut fanOut = fanOutExecutor.fanOut();
+        CompletableFuture<UserProfileDTO> authorFuture = fanOut.fork(() -> getUserProfile(recipe.getAuthorId()));
+        CompletableFuture<Boolean> favoriteFuture = CompletableFuture.completedFuture(false);
+        CompletableFuture<RecipeScorePO> scoreFuture = CompletableFuture.completedFuture(null);
+        if (loginId != null) {
+            favoriteFuture = fanOut.include(asyncUserClient.filterFavoriteRecipes(loginId, List.of(recipeId))
+                    .thenApply(result -> {
+                        if (result.fail()) {
+                            throw new BizException(ErrorType.OPEN_FEIGN_API_ERROR);
+                        }
+                        return !result.getData().isEmpty();
+                    }));
+            scoreFuture = fanOut.fork(() -> recipeScoreDao.findRecipeScorePOByUserIdAndRecipeId(loginId, recipeId));
         }
+        fanOut.join();
+
+        UserProfileDTO author = authorFuture.join();
+        boolean isFavorite = favoriteFuture.join();
+        RecipeScorePO recipeScore = scoreFuture.join();
+        boolean isScored = recipeScore != null;
+        double score = isScored ? recipeScore.getScore() : 0.0;
 
         Map<String, String> ingredientAmount = new LinkedHashMap<>();
         for (int i = 0 ; i < recipe.getIngredientList().size() ; ++i) {
@@ -122,9 +151,9 @@ public class RecipeServiceImpl implements RecipeService {
                 .authorName(author.getUsername())
                 .introduction(recipe.getIntroduction())
                 .stepContents(recipe.getStepContents())
-                .stepImages(recipe.getStepImages())
+                .stepImages(recipe.getStepImages().stream().map(image -> AliOSSUtil.variantUrl(image, ImageVariant.DETAIL)).toList())
                 .name(recipe.getName())
-                .cover(recipe.getCover())
+                .cover(AliOSSUtil.variantUrl(recipe.getCover(), ImageVariant.DETAIL))
                 .favorite(isFavorite)
                 .averageScore(recipe.getScore())
                 .score(score)
@@ -142,25 +171,35 @@ public class RecipeServiceImpl implements RecipeService {
 
     @Override
     public Boolean favoriteRecipe(Long recipeId) {
-        Long userId = StpUtil.getLoginIdAsLong();
-        Result<Boolean> result = userClient.updateFavoriteRecipe(userId, recipeId);
-        if (result.fail()) {
-            throw new BizException(ErrorType.OPEN_FEIGN_API_ERROR);
-        }
+        Long userId = UserContext.getLoginId();
         Optional<RecipePO> recipeOp = recipeDao.findById(recipeId);
         if (recipeOp.isEmpty()) {
             throw new BizException(ErrorType.RECIPE_NOT_EXIST);
         }
-        RecipePO recipe = recipeOp.get();
-        // 更新收藏数据
-        recipe.setFavoriteNum(recipe.getFavoriteNum() + (result.getData() ? 1 : -1));
-        recipeDao.save(recipe);
-        return result.getData();
+        Long authorId = recipeOp.get().getAuthorId();
+        // 收藏关系由用户服务维护，先完成远程切换再开启事务，避免数据库事务在远程调用期间一直占用连接
+        Result<Boolean> result = userClient.updateFavoriteRecipe(userId, recipeId);
+        if (result.fail()) {
+            throw new BizException(ErrorType.OPEN_FEIGN_API_ERROR);
+        }
+        boolean favorited = result.getData();
+        transactionTemplate.executeWithoutResult(status -> {
+            // 更新收藏数据，原子递增避免并发收藏相互覆盖
+            recipeDao.addFavoriteNum(recipeId, favorited ? 1 : -1);
+            // 同步作者的被收藏统计
+            outboxDao.append(OutboxPO.builder()
+                    .eventType(favorited ? UserEventType.RECIPE_FAVORITED : UserEventType.RECIPE_UNFAVORITED)
+                    .userId(authorId)
+                    .targetId(recipeId)
+                    .createTime(LocalDateTime.now())
+                    .build());
+        });
+        return favorited;
     }
 
     @Override
     public double scoreRecipe(Long recipeId, Double score) {
-        Long userId = StpUtil.getLoginIdAsLong();
+        Long userId = UserContext.getLoginId();
         RecipeScorePO recipeScore = recipeScoreDao.findRecipeScorePOByUserIdAndRecipeId(userId, recipeId);
         if (recipeScore != null) {
             throw new BizException(ErrorType.RECIPE_ALREADY_SCORED, "用户已对该菜谱评分");
@@ -184,9 +223,12 @@ public class RecipeServiceImpl implements RecipeService {
 
     @Override
     public List<RecipeListVO> getFavoriteRecipes(Long userId) {
-        UserDTO user = getUser(userId);
-        List<RecipePO> recipes = recipeDao.findAllById(user.getFavoriteRecipes());
-        return mapRecipes(recipes);
+        return getFavoriteRecipes(userId, 0, MAX_FAVORITE_SIZE);
+    }
+
+    @Override
+    public List<RecipeListVO> getFavoriteRecipesByPage(Long userId, Integer pageNo) {
+        return getFavoriteRecipes(userId, pageNo, PAGE_SIZE);
     }
 
     @Override
@@ -199,31 +241,33 @@ public class RecipeServiceImpl implements RecipeService {
         List<RecipePO> recipes = recipeDao.findAll();
         Set<String> ingredientSet = new LinkedHashSet<>(ingredients);
         List<ExploreVO> result = new ArrayList<>();
+        List<RecipePO> matched = new ArrayList<>();
         for (RecipePO recipe : recipes) {
             int cnt = 0;
-            boolean favorite = false;
             for (String ingredient : recipe.getIngredientList()) {
                 if (ingredientSet.contains(ingredient)) {
                     cnt++;
                 }
             }
-            if (StpUtil.isLogin()) {
-                UserDTO user = getUser(StpUtil.getLoginIdAsLong());
-                favorite = user.getFavoriteRecipes().contains(recipe.getId());
-            }
             if (cnt == ingredientSet.size()) {
-                UserDTO author = getUser(recipe.getAuthorId());
-                result.add(ExploreVO.builder()
-                                .recipeId(recipe.getId())
-                                .name(recipe.getName())
-                                .authorAvatar(author.getAvatar())
-                                .authorName(author.getUsername())
-                                .introduction(recipe.getIntroduction())
-                                .favorite(favorite)
-                                .cover(recipe.getCover())
-                                .build());
+                matched.add(recipe);
             }
         }
+        // 一次性查询收藏状态，避免逐个菜谱调用用户服务
+        Set<Long> favoriteRecipes = getFavoriteStates(matched);
+        userLoader.prime(matched.stream().map(RecipePO::getAuthorId).toList());
+        for (RecipePO recipe : matched) {
+            UserProfileDTO author = getUserProfile(recipe.getAuthorId());
+            result.add(ExploreVO.builder()
+                            .recipeId(recipe.getId())
+                            .name(recipe.getName())
+                            .authorAvatar(AliOSSUtil.variantUrl(author.getAvatar(), ImageVariant.THUMBNAIL))
+                            .authorName(author.getUsername())
+                            .introduction(recipe.getIntroduction())
+                            .favorite(favoriteRecipes.contains(recipe.getId()))
+                            .cover(AliOSSUtil.variantUrl(recipe.getCover(), ImageVariant.LIST))
+                            .build());
+        }
         return result;
     }
 
@@ -257,31 +301,48 @@ public class RecipeServiceImpl implements RecipeService {
         return mapRecipes(recipe);
     }
 
+    private void saveRecipe(PublishRecipeVO publishRecipe, String cover, List<String> stepImages) {
+        RecipePO recipe = RecipePO.builder()
+                .name(publishRecipe.getName())
+                .introduction(publishRecipe.getIntroduction())
+                .authorId(UserContext.getLoginId())
+                .cover(cover)
+                .stepImages(stepImages)
+                .stepContents(publishRecipe.getStepContents())
+                .ingredientList(publishRecipe.getIngredients())
+                .amountList(publishRecipe.getAmounts())
+                .createTime(LocalDateTime.now())
+                .updateTime(LocalDateTime.now())
+                .score(0.0)
+                .favoriteNum(0)
+                .build();
+        recipe = recipeDao.save(recipe);
+
+        // 写入发件箱，与菜谱同一事务提交后异步同步到用户服务
+        outboxDao.append(OutboxPO.builder()
+                .eventType(UserEventType.RECIPE_ADDED)
+                .userId(recipe.getAuthorId())
+                .targetId(recipe.getId())
+                .createTime(LocalDateTime.now())
+                .build());
+    }
+
     private List<RecipeListVO> mapRecipes(List<RecipePO> recipes) {
-        boolean isLogin = StpUtil.isLogin();
-        List<Long> favoriteRecipes;
-        if (isLogin) {
-            Long userId = StpUtil.getLoginIdAsLong();
-            UserDTO user = getUser(userId);
-            favoriteRecipes = user.getFavoriteRecipes();
-        } else {
-            favoriteRecipes = Collections.emptyList();
-        }
+        Set<Long> favoriteRecipes = getFavoriteStates(recipes);
+        // 作者资料在首次取用时合并为一次批量查询
+        userLoader.prime(recipes.stream().map(RecipePO::getAuthorId).toList());
         return recipes.stream()
                 .map(recipePO -> {
-                    UserDTO author = getUser(recipePO.getAuthorId());
-                    boolean isFavorite = false;
-                    if (isLogin) {
-                        isFavorite = favoriteRecipes.contains(recipePO.getId());
-                    }
+                    UserProfileDTO author = getUserProfile(recipePO.getAuthorId());
+                    boolean isFavorite = favoriteRecipes.contains(recipePO.getId());
                     return RecipeListVO.builder()
-                            .cover(recipePO.getCover())
+                            .cover(AliOSSUtil.variantUrl(recipePO.getCover(), ImageVariant.LIST))
                             .recipeId(recipePO.getId())
                             .name(recipePO.getName())
                             .introduction(recipePO.getIntroduction())
                             .score(recipePO.getScore())
                             .authorId(author.getId())
-                            .authorAvatar(author.getAvatar())
+                            .authorAvatar(AliOSSUtil.variantUrl(author.getAvatar(), ImageVariant.THUMBNAIL))
                             .authorName(author.getUsername())
                             .favorite(isFavorite)
                             .favoriteNum(recipePO.getFavoriteNum())
@@ -291,11 +352,42 @@ public class RecipeServiceImpl implements RecipeService {
                 .toList();
     }
 
-    private UserDTO getUser(Long userId) {
-        Result<UserDTO> userResult = userClient.getUserById(userId);
-        if (userResult.fail()) {
+    private List<RecipeListVO> getFavoriteRecipes(Long userId, int pageNo, int pageSize) {
+        Result<List<Long>> result = userClient.getFavoriteRecipeIds(userId, pageNo, pageSize);
+        if (result.fail()) {
             throw new BizException(ErrorType.OPEN_FEIGN_API_ERROR);
         }
-        return userResult.getData();
+        List<Long> recipeIds = result.getData();
+        // findAllById不保证顺序，按收藏时间重新排序
+        Map<Long, RecipePO> recipeMap = new HashMap<>();
+        recipeDao.findAllById(recipeIds).forEach(recipe -> recipeMap.put(recipe.getId(), recipe));
+        List<RecipePO> recipes = recipeIds.stream()
+                .map(recipeMap::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return mapRecipes(recipes);
+    }
+
+    private Set<Long> getFavoriteStates(List<RecipePO> recipes) {
+        if (!UserContext.isLogin() || recipes.isEmpty()) {
+            return Collections.emptySet();
+        }
+        return new HashSet<>(filterFavoriteRecipes(UserContext.getLoginId(), recipes.stream().map(RecipePO::getId).toList()));
+    }
+
+    private List<Long> filterFavoriteRecipes(Long userId, List<Long> recipeIds) {
+        Result<List<Long>> result = userClient.filterFavoriteRecipes(userId, recipeIds);
+        if (result.fail()) {
+            throw new BizException(ErrorType.OPEN_FEIGN_API_ERROR);
+        }
+        return result.getData();
+    }
+
+    private UserProfileDTO getUserProfile(Long userId) {
+        return userLoader.getProfile(userId);
+    }
+
+    private UserDTO getUser(Long userId) {
+        return userLoader.getUser(userId);
     }
 }
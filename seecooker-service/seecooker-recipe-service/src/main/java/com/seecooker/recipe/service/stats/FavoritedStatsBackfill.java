@@ -0,0 +1,58 @@
+package com.seecooker.recipe.service.stats;
+
+import com.seecooker.common.core.enums.UserEventType;
+import com.seecooker.common.outbox.dao.OutboxDao;
+import com.seecooker.common.outbox.po.OutboxPO;
+import com.seecooker.common.outbox.po.UserTotalView;
+import com.seecooker.recipe.service.dao.RecipeDao;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 菜谱被收藏统计回填
+ * 首次启动时按作者汇总已有的被收藏数，经发件箱发往用户服务作为被收藏统计的初始值；多实例、多次启动时只执行一次
+ *
+ * @author xueruichen
+ * @date 2024.01.24
+ */
+@Slf4j
+@Component
+public class FavoritedStatsBackfill implements ApplicationRunner {
+    private final RecipeDao recipeDao;
+    private final OutboxDao outboxDao;
+    private final TransactionTemplate transactionTemplate;
+
+    public FavoritedStatsBackfill(RecipeDao recipeDao, OutboxDao outboxDao, TransactionTemplate transactionTemplate) {
+        this.recipeDao = recipeDao;
+        this.outboxDao = outboxDao;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (outboxDao.markOnce(UserEventType.FAVORITES_SEEDED.name()) == 0) {
+                return;
+            }
+            List<UserTotalView> totals = recipeDao.sumFavoritesByAuthor();
+            // 回填事件与目标无关，不占用目标上的序号
+            outboxDao.saveAll(totals.stream()
+                    .map(total -> OutboxPO.builder()
+                            .eventType(UserEventType.FAVORITES_SEEDED)
+                            .userId(total.getUserId())
+                            .targetId(total.getUserId())
+                            .amount(total.getTotal())
+                            .sequence(0L)
+                            .createTime(LocalDateTime.now())
+                            .build())
+                    .toList());
+            log.info("Seeded favorited stats for {} users", totals.size());
+        });
+    }
+}
@@ -1,6 +1,14 @@
 package com.seecooker.user.service.config;
 
-import org.springframework.amqp.core.Queue;
+import com.seecooker.common.core.enums.MessageExchange;
+import com.seecooker.common.core.enums.MessageQueue;
+import org.springframework.amqp.core.*;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -12,10 +20,56 @@ import org.springframework.context.annotation.Configuration;
  */
 @Configuration
 public class RabbitMQConfig {
-    public static final String QUEUE_NAME = "modifySignature";
+    /**
+     * 批量消费的监听容器工厂名
+     */
+    public static final String BATCH_LISTENER_FACTORY = "batchListenerContainerFactory";
 
     @Bean
-    public Queue favoriteQueue() {
-        return new Queue(QUEUE_NAME);
+    public FanoutExchange profileChangeExchange() {
+        return new FanoutExchange(MessageExchange.PROFILE_CHANGE.getExchange());
+    }
+
+    /**
+     * 单活跃消费者队列，保证同一用户的资料修改按发布顺序应用
+     */
+    @Bean
+    public Queue profileChangeQueue() {
+        return QueueBuilder.durable(MessageQueue.PROFILE_CHANGE.getQueue())
+                .singleActiveConsumer()
+                .build();
+    }
+
+    @Bean
+    public Binding profileChangeBinding(Queue profileChangeQueue, FanoutExchange profileChangeExchange) {
+        return BindingBuilder.bind(profileChangeQueue).to(profileChangeExchange);
+    }
+
+    @Bean
+    public Queue userEventQueue() {
+        return new Queue(MessageQueue.USER_EVENT.getQueue());
+    }
+
+    @Bean
+    public MessageConverter messageConverter() {
+        return new Jackson2JsonMessageConverter();
+    }
+
+    /**
+     * 批量消费：凑满batchSize条或等待receiveTimeout毫秒后整批交给监听方法
+     */
+    @Bean(BATCH_LISTENER_FACTORY)
+    public SimpleRabbitListenerContainerFactory batchListenerContainerFactory(SimpleRabbitListenerContainerFactoryConfigurer configurer,
+                                                                              ConnectionFactory connectionFactory,
+                                                                              @Value("${seecooker.profile.batch-size:100}") int batchSize,
+                                                                              @Value("${seecooker.profile.receive-timeout:200}") long receiveTimeout) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(batchSize);
+        factory.setPrefetchCount(batchSize);
+        factory.setReceiveTimeout(receiveTimeout);
+        return factory;
     }
 }
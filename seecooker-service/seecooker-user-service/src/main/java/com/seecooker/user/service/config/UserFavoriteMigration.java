@@ -0,0 +1,55 @@
+package com.seecooker.user.service.config;
+
+import com.seecooker.user.service.dao.UserFavoriteDao;
+import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * 将用户表中的收藏id数组迁移到收藏表
+ * 完成后写入迁移记录，之后的启动直接跳过；多实例同时启动时由事务级advisory lock串行执行，只有一个实例实际迁移
+ *
+ * @author xueruichen
+ * @date 2024.01.19
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "seecooker.migration", name = "user-favorite", havingValue = "true", matchIfMissing = true)
+public class UserFavoriteMigration implements ApplicationRunner {
+    private static final String MIGRATION_NAME = "user_favorite";
+    private static final String CREATE_TABLE_SQL =
+            "CREATE TABLE IF NOT EXISTS schema_migration (name varchar(64) PRIMARY KEY, applied_time timestamp NOT NULL)";
+    private static final String LOCK_SQL = "SELECT pg_advisory_xact_lock(hashtext(?))";
+    private static final String APPLIED_SQL = "SELECT count(*) FROM schema_migration WHERE name = ?";
+    private static final String MARK_APPLIED_SQL = "INSERT INTO schema_migration (name, applied_time) VALUES (?, now())";
+
+    private final UserFavoriteDao userFavoriteDao;
+    private final JdbcTemplate jdbcTemplate;
+
+    public UserFavoriteMigration(UserFavoriteDao userFavoriteDao, JdbcTemplate jdbcTemplate) {
+        this.userFavoriteDao = userFavoriteDao;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    @Transactional
+    public void run(ApplicationArguments args) {
+        jdbcTemplate.execute(CREATE_TABLE_SQL);
+        // 锁随事务结束释放，其他实例等待后看到迁移记录即跳过
+        jdbcTemplate.queryForList(LOCK_SQL, MIGRATION_NAME);
+        Integer applied = jdbcTemplate.queryForObject(APPLIED_SQL, Integer.class, MIGRATION_NAME);
+        if (applied != null && applied > 0) {
+            return;
+        }
+
+        int migrated = userFavoriteDao.migrateLegacyFavorites();
+        // 迁移后清空旧数组，避免已取消的收藏被再次导入
+        userFavoriteDao.clearLegacyFavorites();
+        jdbcTemplate.update(MARK_APPLIED_SQL, MIGRATION_NAME);
+        log.info("Migrated {} legacy favorites", migrated);
+    }
+}
@@ -2,15 +2,19 @@ package com.seecooker.user.service.controller;
 
 import cn.dev33.satoken.stp.SaTokenInfo;
 import cn.dev33.satoken.stp.StpUtil;
+import com.aliyuncs.exceptions.ClientException;
 import com.seecooker.common.core.exception.BizException;
 import com.seecooker.common.core.exception.ErrorType;
 import com.seecooker.common.core.model.Result;
 import com.seecooker.user.service.pojo.vo.LoginVO;
+import com.seecooker.user.service.pojo.vo.ModifyAvatarVO;
 import com.seecooker.user.service.pojo.vo.ModifyPwdVO;
 import com.seecooker.user.service.pojo.vo.RegisterVO;
 import com.seecooker.user.service.pojo.vo.UserInfoVO;
 import com.seecooker.user.service.service.UserService;
+import com.seecooker.util.oss.UploadTicket;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
@@ -45,6 +49,29 @@ public class UserController {
         return Result.success();
     }
 
+    /**
+     * 不带头像注册，直传客户端登录后再通过PUT user/modify/avatar设置头像
+     *
+     * @param registerVO 用户账号和密码
+     * @return 响应结果
+     */
+    @PostMapping(value = "user", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public Result<Void> register(@RequestBody @Validated RegisterVO registerVO) {
+        userService.addUser(registerVO.getUsername(), registerVO.getPassword(), null);
+        return Result.success();
+    }
+
+    /**
+     * 申请头像直传凭证，需登录
+     *
+     * @param contentType 头像的Content-Type
+     * @return 直传凭证
+     */
+    @PostMapping("user/upload/avatar")
+    public Result<UploadTicket> presignAvatar(@RequestParam String contentType) throws ClientException {
+        return Result.success(userService.presignAvatar(contentType));
+    }
+
     /**
      * 用户登陆
      *
@@ -126,8 +153,19 @@ public class UserController {
      */
     @PutMapping("user/modify/avatar")
     public Result<Void> modifyAvatar(String username,MultipartFile avatar)throws Exception{
-        String url = userService.uploadAvatar(avatar);
-        userService.modifyAvatar(username,url);
+        userService.modifyAvatar(username, avatar);
+        return Result.success();
+    }
+
+    /**
+     * 使用直传的头像修改当前登录用户的头像
+     *
+     * @param modifyAvatarVO 头像key
+     * @return 结果
+     */
+    @PutMapping(value = "user/modify/avatar", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public Result<Void> modifyAvatar(@RequestBody @Validated ModifyAvatarVO modifyAvatarVO) throws ClientException {
+        userService.modifyAvatarByKey(modifyAvatarVO.getAvatarKey());
         return Result.success();
     }
 
@@ -2,6 +2,7 @@ package com.seecooker.user.service.controller;
 
 import com.seecooker.common.core.model.Result;
 import com.seecooker.common.core.model.dto.user.UserDTO;
+import com.seecooker.common.core.model.dto.user.UserProfileDTO;
 import com.seecooker.user.service.service.UserClientService;
 import jakarta.validation.constraints.NotNull;
 import lombok.extern.slf4j.Slf4j;
@@ -32,10 +33,16 @@ public class UserFeignServer {
         return Result.success(user);
     }
 
-    @PutMapping("feign/user/update/postRecipes")
-    public Result<Void> updatePostRecipes(@RequestParam Long userId, @RequestParam List<Long> recipes) {
-        userService.updatePostRecipes(userId, recipes);
-        return Result.success();
+    @GetMapping("feign/user/profile")
+    public Result<UserProfileDTO> getUserProfileById(@RequestParam @NotNull Long userId) {
+        UserProfileDTO profile = userService.getUserProfileById(userId);
+        return Result.success(profile);
+    }
+
+    @PostMapping("feign/user/profiles")
+    public Result<List<UserProfileDTO>> getUserProfilesByIds(@RequestBody List<Long> userIds) {
+        List<UserProfileDTO> profiles = userService.getUserProfilesByIds(userIds);
+        return Result.success(profiles);
     }
 
     @PutMapping("feign/user/update/favorite")
@@ -44,9 +51,15 @@ public class UserFeignServer {
         return Result.success(res);
     }
 
-    @PutMapping("feign/user/update/posts")
-    Result<Void> updateUserPosts(@RequestParam Long userId, @RequestParam List<Long> posts) {
-        userService.updateUserPosts(userId, posts);
-        return Result.success();
+    @GetMapping("feign/user/favorites")
+    Result<List<Long>> getFavoriteRecipeIds(@RequestParam Long userId, @RequestParam Integer pageNo, @RequestParam Integer pageSize) {
+        List<Long> res = userService.getFavoriteRecipeIds(userId, pageNo, pageSize);
+        return Result.success(res);
+    }
+
+    @PostMapping("feign/user/favorites/filter")
+    Result<List<Long>> filterFavoriteRecipes(@RequestParam Long userId, @RequestBody List<Long> recipeIds) {
+        List<Long> res = userService.filterFavoriteRecipes(userId, recipeIds);
+        return Result.success(res);
     }
 }
@@ -0,0 +1,39 @@
+package com.seecooker.user.service.dao;
+
+import com.seecooker.user.service.pojo.po.ConsumedEventPO;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * 已消费事件dao层
+ *
+ * @author xueruichen
+ * @date 2024.01.20
+ */
+@Repository
+public interface ConsumedEventDao extends JpaRepository<ConsumedEventPO, String> {
+    /**
+     * 记录事件已消费
+     *
+     * @param eventId 事件id
+     * @return 插入行数，事件已消费过时为0
+     */
+    @Modifying
+    @Query(value = "INSERT INTO consumed_event (event_id, create_time) VALUES (:eventId, now()) ON CONFLICT (event_id) DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("eventId") String eventId);
+
+    /**
+     * 删除指定时间之前的消费记录
+     *
+     * @param time 时间
+     * @return 删除行数
+     */
+    @Modifying
+    @Query("DELETE FROM ConsumedEventPO e WHERE e.createTime < :time")
+    int deleteByCreateTimeBefore(@Param("time") LocalDateTime time);
+}
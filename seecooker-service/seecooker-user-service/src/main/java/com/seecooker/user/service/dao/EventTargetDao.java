@@ -0,0 +1,30 @@
+package com.seecooker.user.service.dao;
+
+import com.seecooker.user.service.pojo.po.EventTargetPO;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * 用户事件目标dao层
+ *
+ * @author xueruichen
+ * @date 2024.01.24
+ */
+@Repository
+public interface EventTargetDao extends JpaRepository<EventTargetPO, String> {
+    /**
+     * 事件序号大于目标上已应用的序号时更新
+     *
+     * @param targetKey 目标key
+     * @param sequence 事件序号
+     * @return 更新行数，事件早于已应用的事件时为0
+     */
+    @Modifying
+    @Query(value = "INSERT INTO event_target (target_key, sequence, update_time) VALUES (:targetKey, :sequence, now()) " +
+            "ON CONFLICT (target_key) DO UPDATE SET sequence = EXCLUDED.sequence, update_time = now() " +
+            "WHERE event_target.sequence < EXCLUDED.sequence", nativeQuery = true)
+    int advance(@Param("targetKey") String targetKey, @Param("sequence") long sequence);
+}
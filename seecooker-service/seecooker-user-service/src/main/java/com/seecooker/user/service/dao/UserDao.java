@@ -1,9 +1,17 @@
 package com.seecooker.user.service.dao;
 
+import com.seecooker.common.core.model.dto.user.UserProfileDTO;
+import com.seecooker.user.service.pojo.po.UserInfoView;
 import com.seecooker.user.service.pojo.po.UserPO;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 /**
  * 用户业务dao层
  *
@@ -13,5 +21,71 @@ import org.springframework.stereotype.Repository;
 @Repository
 public interface UserDao extends JpaRepository<UserPO, Long> {
     UserPO findByUsername(String username);
-}
 
+    /**
+     * 获取用户资料，不加载id列表
+     *
+     * @param id 用户id
+     * @return 用户资料
+     */
+    @Query("SELECT new com.seecooker.common.core.model.dto.user.UserProfileDTO(u.id, u.username, u.avatar, u.signature) FROM UserPO u WHERE u.id = :id")
+    UserProfileDTO findProfileById(@Param("id") Long id);
+
+    /**
+     * 批量获取用户资料
+     *
+     * @param ids 用户id
+     * @return 用户资料，不存在的用户不返回
+     */
+    @Query("SELECT new com.seecooker.common.core.model.dto.user.UserProfileDTO(u.id, u.username, u.avatar, u.signature) FROM UserPO u WHERE u.id IN :ids")
+    List<UserProfileDTO> findProfilesByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * 获取用户主页信息，统计行尚未生成时以id列表长度兜底
+     *
+     * @param id 用户id
+     * @return 用户主页信息
+     */
+    @Query(value = "SELECT u.username AS \"username\", u.avatar AS \"avatar\", u.signature AS \"signature\", " +
+            "coalesce(s.post_num, cardinality(u.posts), 0) AS \"postNum\", " +
+            "coalesce(s.recipe_num, cardinality(u.post_recipes), 0) AS \"recipeNum\", " +
+            "coalesce(s.liked_num, 0) AS \"likedNum\", coalesce(s.favorited_num, 0) AS \"favoritedNum\" " +
+            "FROM \"user\" u LEFT JOIN user_stats s ON s.user_id = u.id WHERE u.id = :id", nativeQuery = true)
+    UserInfoView findUserInfoById(@Param("id") Long id);
+
+    /**
+     * 在用户发布的帖子中追加id，已存在时不修改
+     *
+     * @param userId 用户id
+     * @param postId 帖子id
+     * @return 更新行数
+     */
+    @Modifying
+    @Query(value = "UPDATE \"user\" SET posts = array_append(posts, :postId), update_time = now() " +
+            "WHERE id = :userId AND NOT (:postId = ANY(coalesce(posts, CAST('{}' AS bigint[]))))", nativeQuery = true)
+    int addPost(@Param("userId") Long userId, @Param("postId") Long postId);
+
+    /**
+     * 从用户发布的帖子中移除id，不存在时不修改
+     *
+     * @param userId 用户id
+     * @param postId 帖子id
+     * @return 更新行数
+     */
+    @Modifying
+    @Query(value = "UPDATE \"user\" SET posts = array_remove(posts, :postId), update_time = now() " +
+            "WHERE id = :userId AND :postId = ANY(posts)", nativeQuery = true)
+    int removePost(@Param("userId") Long userId, @Param("postId") Long postId);
+
+    /**
+     * 在用户发布的菜谱中追加id，已存在时不修改
+     *
+     * @param userId 用户id
+     * @param recipeId 菜谱id
+     * @return 更新行数
+     */
+    @Modifying
+    @Query(value = "UPDATE \"user\" SET post_recipes = array_append(post_recipes, :recipeId), update_time = now() " +
+            "WHERE id = :userId AND NOT (:recipeId = ANY(coalesce(post_recipes, CAST('{}' AS bigint[]))))", nativeQuery = true)
+    int addPostRecipe(@Param("userId") Long userId, @Param("recipeId") Long recipeId);
+}
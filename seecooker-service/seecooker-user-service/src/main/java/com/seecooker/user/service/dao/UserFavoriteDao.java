@@ -0,0 +1,84 @@
+package com.seecooker.user.service.dao;
+
+import com.seecooker.user.service.pojo.po.UserFavoritePO;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 用户收藏菜谱dao层
+ *
+ * @author xueruichen
+ * @date 2024.01.19
+ */
+@Repository
+public interface UserFavoriteDao extends JpaRepository<UserFavoritePO, Long> {
+    /**
+     * 添加收藏，已收藏时不修改
+     *
+     * @param userId 用户id
+     * @param recipeId 菜谱id
+     * @return 插入行数
+     */
+    @Modifying
+    @Query(value = "INSERT INTO user_favorite (user_id, recipe_id, create_time) VALUES (:userId, :recipeId, now()) " +
+            "ON CONFLICT (user_id, recipe_id) DO NOTHING", nativeQuery = true)
+    int insertFavorite(@Param("userId") Long userId, @Param("recipeId") Long recipeId);
+
+    /**
+     * 取消收藏
+     *
+     * @param userId 用户id
+     * @param recipeId 菜谱id
+     * @return 删除行数
+     */
+    @Modifying
+    @Query(value = "DELETE FROM user_favorite WHERE user_id = :userId AND recipe_id = :recipeId", nativeQuery = true)
+    int deleteFavorite(@Param("userId") Long userId, @Param("recipeId") Long recipeId);
+
+    /**
+     * 按收藏时间倒序分页获取用户收藏的菜谱id
+     *
+     * @param userId 用户id
+     * @param pageable 分页参数
+     * @return 菜谱id列表
+     */
+    @Query("SELECT f.recipeId FROM UserFavoritePO f WHERE f.userId = :userId ORDER BY f.id DESC")
+    List<Long> findRecipeIdsByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    /**
+     * 在给定菜谱中筛选出用户已收藏的菜谱id
+     *
+     * @param userId 用户id
+     * @param recipeIds 菜谱id
+     * @return 已收藏的菜谱id
+     */
+    @Query("SELECT f.recipeId FROM UserFavoritePO f WHERE f.userId = :userId AND f.recipeId IN :recipeIds")
+    List<Long> findFavoriteRecipeIds(@Param("userId") Long userId, @Param("recipeIds") Collection<Long> recipeIds);
+
+    /**
+     * 将用户表中旧的收藏id数组迁移到收藏表
+     *
+     * @return 迁移的收藏数
+     */
+    @Modifying
+    @Query(value = "INSERT INTO user_favorite (user_id, recipe_id, create_time) " +
+            "SELECT id, unnest(favorite_recipes), now() FROM \"user\" WHERE cardinality(favorite_recipes) > 0 " +
+            "ON CONFLICT (user_id, recipe_id) DO NOTHING", nativeQuery = true)
+    int migrateLegacyFavorites();
+
+    /**
+     * 清空用户表中已迁移的收藏id数组
+     *
+     * @return 更新行数
+     */
+    @Modifying
+    @Query(value = "UPDATE \"user\" SET favorite_recipes = CAST('{}' AS bigint[]) WHERE cardinality(favorite_recipes) > 0", nativeQuery = true)
+    int clearLegacyFavorites();
+}
@@ -0,0 +1,73 @@
+package com.seecooker.user.service.dao;
+
+import com.seecooker.user.service.pojo.po.UserStatsPO;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * 用户统计数据dao层
+ *
+ * @author xueruichen
+ * @date 2024.01.21
+ */
+@Repository
+public interface UserStatsDao extends JpaRepository<UserStatsPO, Long> {
+    /**
+     * 增量更新用户统计数据
+     * 统计行不存在时以用户表中的帖子、菜谱id列表初始化，此时列表已包含本次变更，不再叠加帖子、菜谱增量；
+     * 获赞数与被收藏数由其他服务回填的总数覆盖
+     *
+     * @param userId 用户id
+     * @param postDelta 帖子数增量
+     * @param recipeDelta 菜谱数增量
+     * @param likedDelta 获赞数增量
+     * @param favoritedDelta 被收藏数增量
+     * @return 更新行数
+     */
+    @Modifying
+    @Query(value = "INSERT INTO user_stats (user_id, post_num, recipe_num, liked_num, favorited_num, update_time) " +
+            "SELECT id, coalesce(cardinality(posts), 0), coalesce(cardinality(post_recipes), 0), " +
+            "greatest(0, :likedDelta), greatest(0, :favoritedDelta), now() FROM \"user\" WHERE id = :userId " +
+            "ON CONFLICT (user_id) DO UPDATE SET " +
+            "post_num = greatest(0, user_stats.post_num + :postDelta), " +
+            "recipe_num = greatest(0, user_stats.recipe_num + :recipeDelta), " +
+            "liked_num = greatest(0, user_stats.liked_num + :likedDelta), " +
+            "favorited_num = greatest(0, user_stats.favorited_num + :favoritedDelta), " +
+            "update_time = now()", nativeQuery = true)
+    int applyDelta(@Param("userId") Long userId,
+                   @Param("postDelta") int postDelta,
+                   @Param("recipeDelta") int recipeDelta,
+                   @Param("likedDelta") int likedDelta,
+                   @Param("favoritedDelta") int favoritedDelta);
+
+    /**
+     * 以其他服务汇总的总数覆盖获赞数
+     *
+     * @param userId 用户id
+     * @param likedNum 获赞总数
+     * @return 更新行数
+     */
+    @Modifying
+    @Query(value = "INSERT INTO user_stats (user_id, post_num, recipe_num, liked_num, favorited_num, update_time) " +
+            "SELECT id, coalesce(cardinality(posts), 0), coalesce(cardinality(post_recipes), 0), :likedNum, 0, now() " +
+            "FROM \"user\" WHERE id = :userId " +
+            "ON CONFLICT (user_id) DO UPDATE SET liked_num = EXCLUDED.liked_num, update_time = now()", nativeQuery = true)
+    int seedLiked(@Param("userId") Long userId, @Param("likedNum") int likedNum);
+
+    /**
+     * 以其他服务汇总的总数覆盖被收藏数
+     *
+     * @param userId 用户id
+     * @param favoritedNum 被收藏总数
+     * @return 更新行数
+     */
+    @Modifying
+    @Query(value = "INSERT INTO user_stats (user_id, post_num, recipe_num, liked_num, favorited_num, update_time) " +
+            "SELECT id, coalesce(cardinality(posts), 0), coalesce(cardinality(post_recipes), 0), 0, :favoritedNum, now() " +
+            "FROM \"user\" WHERE id = :userId " +
+            "ON CONFLICT (user_id) DO UPDATE SET favorited_num = EXCLUDED.favorited_num, update_time = now()", nativeQuery = true)
+    int seedFavorited(@Param("userId") Long userId, @Param("favoritedNum") int favoritedNum);
+}
@@ -0,0 +1,36 @@
+package com.seecooker.user.service.pojo.po;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * 已消费事件持久层实体类，用于消息消费幂等
+ *
+ * @author xueruichen
+ * @date 2024.01.20
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "consumed_event")
+public class ConsumedEventPO {
+    /**
+     * 事件id
+     */
+    @Id
+    private String eventId;
+
+    /**
+     * 消费时间
+     */
+    @CreationTimestamp
+    private LocalDateTime createTime;
+}
@@ -0,0 +1,41 @@
+package com.seecooker.user.service.pojo.po;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * 用户事件目标持久层实体类
+ * 记录每个帖子、菜谱上最后应用的事件序号，保证新增、删除等事件乱序或重复投递时不会恢复已删除的id；
+ * 资料修改以"profile:类型:用户id"为key、修改时间戳为序号，晚到的旧修改不会覆盖新值
+ *
+ * @author xueruichen
+ * @date 2024.01.24
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "event_target")
+public class EventTargetPO {
+    /**
+     * 目标key，格式为"事件来源:目标id"或"profile:类型:用户id"
+     */
+    @Id
+    private String targetKey;
+
+    /**
+     * 最后应用的事件序号
+     */
+    private Long sequence;
+
+    /**
+     * 数据更新的时间戳
+     */
+    private LocalDateTime updateTime;
+}
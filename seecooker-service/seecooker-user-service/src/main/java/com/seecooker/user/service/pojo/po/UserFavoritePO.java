@@ -0,0 +1,48 @@
+package com.seecooker.user.service.pojo.po;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * 用户收藏菜谱关系持久层实体类
+ *
+ * @author xueruichen
+ * @date 2024.01.19
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "user_favorite", uniqueConstraints = @UniqueConstraint(columnNames = {"userId", "recipeId"}))
+public class UserFavoritePO {
+    /**
+     * id
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * 用户id
+     */
+    @NotNull
+    private Long userId;
+
+    /**
+     * 菜谱id
+     */
+    @NotNull
+    private Long recipeId;
+
+    /**
+     * 数据创建的时间戳
+     */
+    @CreationTimestamp
+    private LocalDateTime createTime;
+}
@@ -0,0 +1,23 @@
+package com.seecooker.user.service.pojo.po;
+
+/**
+ * 用户主页信息投影，包含资料与统计数据，不加载id列表
+ *
+ * @author xueruichen
+ * @date 2024.01.21
+ */
+public interface UserInfoView {
+    String getUsername();
+
+    String getAvatar();
+
+    String getSignature();
+
+    Integer getPostNum();
+
+    Integer getRecipeNum();
+
+    Integer getLikedNum();
+
+    Integer getFavoritedNum();
+}
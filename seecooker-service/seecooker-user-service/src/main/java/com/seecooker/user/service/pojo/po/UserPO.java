@@ -51,6 +51,7 @@ public class UserPO {
 
     /**
      * 用户收藏的菜谱id列表
+     * 已迁移至user_favorite表，仅保留用于启动时迁移旧数据
      */
     private List<Long> favoriteRecipes;
 
@@ -0,0 +1,57 @@
+package com.seecooker.user.service.pojo.po;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.*;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * 用户统计数据持久层实体类
+ * 由其他服务投递的用户事件增量更新
+ *
+ * @author xueruichen
+ * @date 2024.01.21
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "user_stats")
+public class UserStatsPO {
+    /**
+     * 用户id
+     */
+    @Id
+    private Long userId;
+
+    /**
+     * 发布帖子数
+     */
+    private Integer postNum;
+
+    /**
+     * 发布菜谱数
+     */
+    private Integer recipeNum;
+
+    /**
+     * 帖子获赞数
+     */
+    private Integer likedNum;
+
+    /**
+     * 菜谱被收藏数
+     */
+    private Integer favoritedNum;
+
+    /**
+     * 数据最后一次更新的时间戳
+     */
+    @UpdateTimestamp
+    private LocalDateTime updateTime;
+}
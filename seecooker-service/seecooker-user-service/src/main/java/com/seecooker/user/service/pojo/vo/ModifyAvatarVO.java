@@ -0,0 +1,19 @@
+package com.seecooker.user.service.pojo.vo;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * 使用直传头像修改头像VO类
+ *
+ * @author xueruichen
+ * @date 2024.01.24
+ */
+@Getter
+@Setter
+public class ModifyAvatarVO {
+    /**
+     * 直传凭证中的头像key，为空时清除头像
+     */
+    private String avatarKey;
+}
@@ -27,11 +27,21 @@ public class UserInfoVO {
      */
     private Integer postNum;
 
+    /**
+     * 发布菜谱数
+     */
+    private Integer recipeNum;
+
     /**
      * 获赞数
      */
     private Integer getLikedNum;
 
+    /**
+     * 菜谱被收藏数
+     */
+    private Integer favoritedNum;
+
     /**
      * 用户签名
      */
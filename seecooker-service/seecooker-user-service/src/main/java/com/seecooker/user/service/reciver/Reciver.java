@@ -1,34 +1,121 @@
 package com.seecooker.user.service.reciver;
 
-import com.seecooker.user.service.dao.UserDao;
-import com.seecooker.user.service.pojo.po.UserPO;
-import org.springframework.amqp.rabbit.annotation.Queue;
-import org.springframework.amqp.rabbit.annotation.RabbitHandler;
+import com.seecooker.common.core.enums.ProfileChangeType;
+import com.seecooker.common.core.model.dto.user.ProfileChangeDTO;
+import com.seecooker.user.service.config.RabbitMQConfig;
+import com.seecooker.user.service.dao.ConsumedEventDao;
+import com.seecooker.user.service.dao.EventTargetDao;
+import com.seecooker.user.service.service.UserCacheService;
+import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.time.LocalDateTime;
+import java.util.*;
+
 /**
- * 消息队列生产者
+ * 用户资料修改事件消费者
  *
  * @author xueruichen
  * @date 2024.01.11
  */
+@Slf4j
 @Component
-@RabbitListener(queues = "modifySignature")
 public class Reciver {
-    private final UserDao userDao;
+    private static final String INSERT_CONSUMED_SQL =
+            "INSERT INTO consumed_event (event_id, create_time) VALUES (?, now()) ON CONFLICT (event_id) DO NOTHING";
+    private static final String UPDATE_SIGNATURE_SQL = "UPDATE \"user\" SET signature = ?, update_time = now() WHERE id = ?";
+    private static final String UPDATE_AVATAR_SQL = "UPDATE \"user\" SET avatar = ?, update_time = now() WHERE id = ?";
+    /**
+     * 修改时再次校验用户名唯一，发布前的校验与消费之间可能被其他用户占用
+     */
+    private static final String UPDATE_USERNAME_SQL = "UPDATE \"user\" SET username = ?, update_time = now() WHERE id = ? " +
+            "AND NOT EXISTS (SELECT 1 FROM \"user\" u WHERE u.username = ? AND u.id <> ?)";
+    /**
+     * 消费记录保留天数，超过后不再对重复投递去重
+     */
+    private static final int CONSUMED_RETENTION_DAYS = 7;
+    /**
+     * 资料修改在event_target中的key前缀，序号为修改的时间戳
+     */
+    private static final String PROFILE_TARGET_PREFIX = "profile:";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ConsumedEventDao consumedEventDao;
+    private final EventTargetDao eventTargetDao;
+    private final UserCacheService userCacheService;
+
+    public Reciver(JdbcTemplate jdbcTemplate, ConsumedEventDao consumedEventDao, EventTargetDao eventTargetDao,
+                   UserCacheService userCacheService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.consumedEventDao = consumedEventDao;
+        this.eventTargetDao = eventTargetDao;
+        this.userCacheService = userCacheService;
+    }
+
+    /**
+     * 批量应用资料修改，跳过已消费的事件，同一用户同一类型只保留时间戳最新的修改；
+     * 早于已应用修改的事件（如重投的旧事件）直接丢弃
+     *
+     * @param events 资料修改事件
+     */
+    @Transactional
+    @RabbitListener(queues = "profileChange.user", containerFactory = RabbitMQConfig.BATCH_LISTENER_FACTORY)
+    public void handleProfileChanges(List<ProfileChangeDTO> events) {
+        int[] inserted = jdbcTemplate.batchUpdate(INSERT_CONSUMED_SQL,
+                events.stream().map(event -> new Object[]{event.getEventId()}).toList());
+
+        Map<ProfileChangeType, Map<Long, ProfileChangeDTO>> newest = new EnumMap<>(ProfileChangeType.class);
+        for (int i = 0; i < events.size(); ++i) {
+            if (inserted[i] == 0) {
+                continue;
+            }
+            ProfileChangeDTO event = events.get(i);
+            newest.computeIfAbsent(event.getType(), type -> new LinkedHashMap<>())
+                    .merge(event.getUserId(), event, (old, current) -> current.getTimestamp() >= old.getTimestamp() ? current : old);
+        }
+        Map<ProfileChangeType, Map<Long, String>> latest = new EnumMap<>(ProfileChangeType.class);
+        newest.forEach((type, changes) -> changes.forEach((userId, event) -> {
+            if (eventTargetDao.advance(PROFILE_TARGET_PREFIX + type + ":" + userId, event.getTimestamp()) == 0) {
+                log.debug("Skip stale profile change {} of user {}", type, userId);
+                return;
+            }
+            latest.computeIfAbsent(type, t -> new LinkedHashMap<>()).put(userId, event.getValue());
+        }));
+
+        Set<Long> changedUsers = new HashSet<>();
+        latest.forEach((type, changes) -> {
+            changedUsers.addAll(changes.keySet());
+            List<Object[]> args = new ArrayList<>(changes.size());
+            changes.forEach((userId, value) -> args.add(type == ProfileChangeType.USERNAME
+                    ? new Object[]{value, userId, value, userId}
+                    : new Object[]{value, userId}));
+            int[] updated = jdbcTemplate.batchUpdate(updateSql(type), args);
+            if (type == ProfileChangeType.USERNAME) {
+                for (int i = 0; i < updated.length; ++i) {
+                    if (updated[i] == 0) {
+                        log.warn("Username {} is already taken, change of user {} skipped", args.get(i)[0], args.get(i)[1]);
+                    }
+                }
+            }
+        });
+        changedUsers.forEach(userCacheService::evict);
+    }
 
-    public Reciver(UserDao userDao) {
-        this.userDao = userDao;
+    @Transactional
+    @Scheduled(cron = "0 0 4 * * ?")
+    public void cleanConsumedEvents() {
+        consumedEventDao.deleteByCreateTimeBefore(LocalDateTime.now().minusDays(CONSUMED_RETENTION_DAYS));
     }
 
-    @RabbitHandler
-    @RabbitListener(queuesToDeclare = @Queue("modifySignature"))
-    public void modifySignature(String idSignature) {
-        Long userId = Long.parseLong(idSignature.split(":")[0]);
-        String signature = idSignature.split(":")[1];
-        UserPO user = userDao.findById(userId).get();
-        user.setSignature(signature);
-        userDao.save(user);
+    private String updateSql(ProfileChangeType type) {
+        return switch (type) {
+            case SIGNATURE -> UPDATE_SIGNATURE_SQL;
+            case AVATAR -> UPDATE_AVATAR_SQL;
+            case USERNAME -> UPDATE_USERNAME_SQL;
+        };
     }
 }
@@ -0,0 +1,28 @@
+package com.seecooker.user.service.reciver;
+
+import com.seecooker.common.core.model.dto.user.UserEventDTO;
+import com.seecooker.user.service.service.UserClientService;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 用户事件消费者，接收其他服务发件箱投递的事件
+ *
+ * @author xueruichen
+ * @date 2024.01.17
+ */
+@Component
+public class UserEventReciver {
+    private final UserClientService userClientService;
+
+    public UserEventReciver(UserClientService userClientService) {
+        this.userClientService = userClientService;
+    }
+
+    @RabbitListener(queues = "userEvent")
+    public void handleUserEvents(List<UserEventDTO> events) {
+        userClientService.handleUserEvents(events);
+    }
+}
@@ -0,0 +1,130 @@
+package com.seecooker.user.service.sender;
+
+import com.seecooker.common.core.enums.MessageExchange;
+import com.seecooker.common.core.enums.ProfileChangeType;
+import com.seecooker.common.core.model.dto.user.ProfileChangeDTO;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 用户资料修改事件发布者
+ * 开启publisher confirm，broker未确认或超时未确认的事件会重新投递；
+ * 同一用户同一类型已有更新的修改发布时不再重投旧事件，避免旧值晚到覆盖新值
+ *
+ * @author xueruichen
+ * @date 2024.01.20
+ */
+@Slf4j
+@Component
+public class ProfileChangePublisher {
+    private static final int MAX_ATTEMPTS = 3;
+    /**
+     * 等待broker确认的超时时间，连接断开等情况下确认可能永远不会到达
+     */
+    private static final long CONFIRM_TIMEOUT_MILLIS = 30_000;
+
+    private final RabbitTemplate rabbitTemplate;
+    /**
+     * 等待broker确认的事件及已投递次数
+     */
+    private final Map<String, PendingEvent> pending = new ConcurrentHashMap<>();
+    /**
+     * 每个用户每种修改类型最近一次发布的事件id
+     */
+    private final Map<ChangeKey, String> latest = new ConcurrentHashMap<>();
+
+    public ProfileChangePublisher(RabbitTemplate rabbitTemplate) {
+        this.rabbitTemplate = rabbitTemplate;
+    }
+
+    @PostConstruct
+    public void init() {
+        rabbitTemplate.setConfirmCallback(this::confirm);
+    }
+
+    /**
+     * 发布资料修改事件
+     *
+     * @param userId 用户id
+     * @param type 修改类型
+     * @param value 修改后的值
+     */
+    public void publish(Long userId, ProfileChangeType type, String value) {
+        ProfileChangeDTO event = ProfileChangeDTO.builder()
+                .eventId(UUID.randomUUID().toString())
+                .userId(userId)
+                .type(type)
+                .value(value)
+                .timestamp(System.currentTimeMillis())
+                .build();
+        latest.put(ChangeKey.of(event), event.getEventId());
+        send(event, 1);
+    }
+
+    /**
+     * 处理超时未确认的事件
+     */
+    @Scheduled(fixedDelay = 5000)
+    public void expirePending() {
+        long expiredBefore = System.currentTimeMillis() - CONFIRM_TIMEOUT_MILLIS;
+        pending.forEach((eventId, pendingEvent) -> {
+            if (pendingEvent.sentAt() < expiredBefore && pending.remove(eventId, pendingEvent)) {
+                retry(pendingEvent, "confirm timed out");
+            }
+        });
+    }
+
+    private void send(ProfileChangeDTO event, int attempts) {
+        String eventId = event.getEventId();
+        pending.put(eventId, new PendingEvent(event, attempts, System.currentTimeMillis()));
+        rabbitTemplate.convertAndSend(MessageExchange.PROFILE_CHANGE.getExchange(), "", event, new CorrelationData(eventId));
+    }
+
+    private void confirm(CorrelationData correlationData, boolean ack, String cause) {
+        if (correlationData == null || correlationData.getId() == null) {
+            return;
+        }
+        PendingEvent pendingEvent = pending.remove(correlationData.getId());
+        if (pendingEvent == null) {
+            return;
+        }
+        if (ack) {
+            latest.remove(ChangeKey.of(pendingEvent.event()), pendingEvent.event().getEventId());
+            return;
+        }
+        retry(pendingEvent, cause);
+    }
+
+    private void retry(PendingEvent pendingEvent, String cause) {
+        ProfileChangeDTO event = pendingEvent.event();
+        ChangeKey key = ChangeKey.of(event);
+        // 已有更新的修改发布时放弃旧事件，由新事件决定最终值
+        if (!event.getEventId().equals(latest.get(key))) {
+            log.debug("Profile change {} of user {} superseded, not resent", event.getType(), event.getUserId());
+            return;
+        }
+        if (pendingEvent.attempts() >= MAX_ATTEMPTS) {
+            latest.remove(key, event.getEventId());
+            log.error("Profile change {} of user {} was not confirmed: {}", event.getType(), event.getUserId(), cause);
+            return;
+        }
+        // 重新投递沿用原事件id，消费端据此去重
+        send(event, pendingEvent.attempts() + 1);
+    }
+
+    private record PendingEvent(ProfileChangeDTO event, int attempts, long sentAt) {}
+
+    private record ChangeKey(Long userId, ProfileChangeType type) {
+        static ChangeKey of(ProfileChangeDTO event) {
+            return new ChangeKey(event.getUserId(), event.getType());
+        }
+    }
+}
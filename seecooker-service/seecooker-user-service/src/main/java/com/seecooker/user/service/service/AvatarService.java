@@ -0,0 +1,18 @@
+package com.seecooker.user.service.service;
+
+/**
+ * 用户头像服务
+ *
+ * @author xueruichen
+ * @date 2024.01.20
+ */
+public interface AvatarService {
+    /**
+     * 在后台线程中上传头像，上传完成后发布头像修改事件
+     *
+     * @param userId 用户id
+     * @param avatar 头像文件内容
+     * @param filename 头像原文件名
+     */
+    void uploadAndPublish(Long userId, byte[] avatar, String filename);
+}
@@ -0,0 +1,35 @@
+package com.seecooker.user.service.service;
+
+/**
+ * 密码哈希服务
+ * 在独立的有界线程池中执行BCrypt计算，避免占满请求线程
+ *
+ * @author xueruichen
+ * @date 2024.01.19
+ */
+public interface PasswordService {
+    /**
+     * 以配置的cost计算密码哈希
+     *
+     * @param password 明文密码
+     * @return 哈希值
+     */
+    String hash(String password);
+
+    /**
+     * 校验密码
+     *
+     * @param password 明文密码
+     * @param hashed 哈希值
+     * @return 是否匹配
+     */
+    boolean matches(String password, String hashed);
+
+    /**
+     * 判断哈希值的cost是否与当前配置不一致，需要重新计算
+     *
+     * @param hashed 哈希值
+     * @return 是否需要重新计算
+     */
+    boolean needsRehash(String hashed);
+}
@@ -0,0 +1,45 @@
+package com.seecooker.user.service.service;
+
+import com.seecooker.common.redis.enums.RedisKey;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 用户数据缓存服务
+ *
+ * @author xueruichen
+ * @date 2024.01.21
+ */
+public interface UserCacheService {
+    /**
+     * 读取缓存，未命中时调用loader加载并写入缓存
+     *
+     * @param key 缓存key前缀
+     * @param userId 用户id
+     * @param type 缓存数据类型
+     * @param loader 数据加载方法
+     * @return 缓存数据
+     */
+    <T> T get(RedisKey key, Long userId, Class<T> type, Supplier<T> loader);
+
+    /**
+     * 批量读取缓存，一次读取全部key，未命中的用户一次性调用loader加载并写入缓存
+     *
+     * @param key 缓存key前缀
+     * @param userIds 用户id
+     * @param type 缓存数据类型
+     * @param loader 批量加载方法，返回用户id到数据的映射
+     * @return 用户id到数据的映射，不存在的用户不包含在内
+     */
+    <T> Map<Long, T> getAll(RedisKey key, Collection<Long> userIds, Class<T> type, Function<Collection<Long>, Map<Long, T>> loader);
+
+    /**
+     * 删除用户的全部缓存，处于事务中时在提交后再删除一次
+     *
+     * @param userId 用户id
+     */
+    void evict(Long userId);
+}
@@ -1,6 +1,8 @@
 package com.seecooker.user.service.service;
 
 import com.seecooker.common.core.model.dto.user.UserDTO;
+import com.seecooker.common.core.model.dto.user.UserProfileDTO;
+import com.seecooker.common.core.model.dto.user.UserEventDTO;
 
 import java.util.List;
 
@@ -20,12 +22,20 @@ public interface UserClientService {
     UserDTO getUserById(Long id);
 
     /**
-     * 更新发布的菜谱
+     * 获取用户资料，不含id列表
      *
-     * @param userId 用户id
-     * @param recipes 发布菜谱
+     * @param id userId
+     * @return 结果
+     */
+    UserProfileDTO getUserProfileById(Long id);
+
+    /**
+     * 批量获取用户资料
+     *
+     * @param ids 用户id列表
+     * @return 用户资料，不存在的用户不返回
      */
-    void updatePostRecipes(Long userId, List<Long> recipes);
+    List<UserProfileDTO> getUserProfilesByIds(List<Long> ids);
 
     /**
      * 修改用户对菜谱的收藏状态
@@ -37,10 +47,28 @@ public interface UserClientService {
     Boolean updateFavoriteRecipe(Long userId, Long recipeId);
 
     /**
-     * 更新发布的帖子
+     * 分页获取用户收藏的菜谱id，按收藏时间倒序
+     *
+     * @param userId 用户id
+     * @param pageNo 页码
+     * @param pageSize 每页数量
+     * @return 菜谱id列表
+     */
+    List<Long> getFavoriteRecipeIds(Long userId, Integer pageNo, Integer pageSize);
+
+    /**
+     * 在给定菜谱中筛选出用户已收藏的菜谱
      *
      * @param userId 用户id
-     * @param posts 修改后的帖子id
+     * @param recipeIds 菜谱id
+     * @return 已收藏的菜谱id
+     */
+    List<Long> filterFavoriteRecipes(Long userId, List<Long> recipeIds);
+
+    /**
+     * 处理其他服务发来的用户事件，重复投递的事件不会产生副作用
+     *
+     * @param events 按发生顺序排列的事件
      */
-    void updateUserPosts(Long userId, List<Long> posts);
+    void handleUserEvents(List<UserEventDTO> events);
 }
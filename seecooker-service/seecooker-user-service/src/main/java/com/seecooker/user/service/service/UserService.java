@@ -1,9 +1,13 @@
 package com.seecooker.user.service.service;
 
+import com.aliyuncs.exceptions.ClientException;
 import com.seecooker.common.core.model.dto.user.UserDTO;
 import com.seecooker.user.service.pojo.vo.UserInfoVO;
+import com.seecooker.util.oss.UploadTicket;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+
 /**
  * 用户业务服务层接口
  *
@@ -65,6 +69,22 @@ public interface UserService {
      */
     String uploadAvatar(MultipartFile avatar) throws Exception;
 
+    /**
+     * 申请头像直传凭证
+     *
+     * @param contentType 头像的Content-Type
+     * @return 直传凭证
+     */
+    UploadTicket presignAvatar(String contentType) throws ClientException;
+
+    /**
+     * 确认直传的头像已上传，返回url
+     *
+     * @param avatarKey 直传凭证中的头像key
+     * @return 头像url，key为空时返回null
+     */
+    String confirmAvatar(String avatarKey) throws ClientException;
+
     /**
      * 修改用户名
      *
@@ -81,11 +101,17 @@ public interface UserService {
     void modifyPassword(String username,String password,String newPassword);
 
     /**
-     * 修改头像
+     * 修改头像，头像在后台上传后异步生效
      * @param username 用户名
-     * @param url 头像url
+     * @param avatar 头像文件
+     */
+    void modifyAvatar(String username, MultipartFile avatar) throws IOException;
+
+    /**
+     * 使用直传的头像修改当前登录用户的头像
+     * @param avatarKey 直传凭证中的头像key，为空时清除头像
      */
-    void modifyAvatar(String username,String url);
+    void modifyAvatarByKey(String avatarKey) throws ClientException;
 
     /**
      * 修改用户签名
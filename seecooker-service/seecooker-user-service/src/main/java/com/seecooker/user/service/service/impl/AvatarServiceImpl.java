@@ -0,0 +1,37 @@
+package com.seecooker.user.service.service.impl;
+
+import com.seecooker.common.core.enums.ImageType;
+import com.seecooker.common.core.enums.ProfileChangeType;
+import com.seecooker.user.service.sender.ProfileChangePublisher;
+import com.seecooker.user.service.service.AvatarService;
+import com.seecooker.util.oss.AliOSSUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+/**
+ * 用户头像服务实现类
+ *
+ * @author xueruichen
+ * @date 2024.01.20
+ */
+@Slf4j
+@Service
+public class AvatarServiceImpl implements AvatarService {
+    private final ProfileChangePublisher profileChangePublisher;
+
+    public AvatarServiceImpl(ProfileChangePublisher profileChangePublisher) {
+        this.profileChangePublisher = profileChangePublisher;
+    }
+
+    @Async
+    @Override
+    public void uploadAndPublish(Long userId, byte[] avatar, String filename) {
+        try {
+            String url = AliOSSUtil.uploadFile(avatar, filename, ImageType.AVATAR);
+            profileChangePublisher.publish(userId, ProfileChangeType.AVATAR, url);
+        } catch (Exception e) {
+            log.error("Failed to upload avatar of user {}: {}", userId, e.getMessage());
+        }
+    }
+}
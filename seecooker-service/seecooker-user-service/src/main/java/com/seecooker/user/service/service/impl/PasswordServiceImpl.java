@@ -0,0 +1,116 @@
+package com.seecooker.user.service.service.impl;
+
+import cn.dev33.satoken.secure.BCrypt;
+import com.seecooker.common.core.exception.BizException;
+import com.seecooker.common.core.exception.ErrorType;
+import com.seecooker.user.service.service.PasswordService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 密码哈希服务实现类
+ * 线程数与CPU核数一致，队列有界，队列已满时立即拒绝而非在请求线程上排队
+ *
+ * @author xueruichen
+ * @date 2024.01.19
+ */
+@Slf4j
+@Service
+public class PasswordServiceImpl implements PasswordService {
+    private final ThreadPoolExecutor executor;
+    private final int cost;
+    private final long waitMillis;
+    private final Timer hashTimer;
+    private final Timer checkTimer;
+    private final Counter rejectedCounter;
+
+    public PasswordServiceImpl(MeterRegistry meterRegistry,
+                               @Value("${seecooker.password.cost:10}") int cost,
+                               @Value("${seecooker.password.queue-capacity:64}") int queueCapacity,
+                               @Value("${seecooker.password.wait-millis:3000}") long waitMillis) {
+        int threads = Runtime.getRuntime().availableProcessors();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new ThreadFactory() {
+                    private final AtomicInteger count = new AtomicInteger();
+
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        Thread thread = new Thread(r, "password-hash-" + count.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.cost = cost;
+        this.waitMillis = waitMillis;
+
+        Gauge.builder("password.hash.queue", executor, e -> e.getQueue().size())
+                .description("Pending password hash tasks")
+                .register(meterRegistry);
+        Gauge.builder("password.hash.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Running password hash tasks")
+                .register(meterRegistry);
+        this.hashTimer = Timer.builder("password.hash.time").tag("operation", "hash").register(meterRegistry);
+        this.checkTimer = Timer.builder("password.hash.time").tag("operation", "check").register(meterRegistry);
+        this.rejectedCounter = Counter.builder("password.hash.rejected").register(meterRegistry);
+    }
+
+    @Override
+    public String hash(String password) {
+        return execute(() -> hashTimer.record(() -> BCrypt.hashpw(password, BCrypt.gensalt(cost))));
+    }
+
+    @Override
+    public boolean matches(String password, String hashed) {
+        return execute(() -> checkTimer.record(() -> BCrypt.checkpw(password, hashed)));
+    }
+
+    @Override
+    public boolean needsRehash(String hashed) {
+        // 哈希格式为 $2a$10$...，第4、5位为cost
+        try {
+            return Integer.parseInt(hashed.substring(4, 6)) != cost;
+        } catch (RuntimeException e) {
+            return true;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> T execute(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            log.warn("Password hash queue is full");
+            throw new BizException(ErrorType.SERVER_BUSY, "服务繁忙，请稍后重试");
+        }
+        try {
+            return future.get(waitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejectedCounter.increment();
+            throw new BizException(ErrorType.SERVER_BUSY, "服务繁忙，请稍后重试");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new BizException(ErrorType.SERVER_BUSY, "服务繁忙，请稍后重试");
+        } catch (ExecutionException e) {
+            throw new BizException(ErrorType.SERVER_ERROR, e.getCause().getMessage());
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.seecooker.user.service.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.seecooker.common.redis.enums.RedisKey;
+import com.seecooker.user.service.service.UserCacheService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 用户数据缓存服务实现类
+ * 以json字符串缓存在redis中，过期时间加入随机偏移避免集中失效
+ *
+ * @author xueruichen
+ * @date 2024.01.21
+ */
+@Slf4j
+@Service
+public class UserCacheServiceImpl implements UserCacheService {
+    private static final Duration TTL = Duration.ofMinutes(30);
+    private static final long TTL_JITTER_SECONDS = 300;
+    private static final List<RedisKey> USER_KEYS = List.of(RedisKey.USER, RedisKey.USER_PROFILE);
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+
+    public UserCacheServiceImpl(StringRedisTemplate redisTemplate, ObjectMapper objectMapper) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public <T> T get(RedisKey key, Long userId, Class<T> type, Supplier<T> loader) {
+        String cacheKey = key.getKey() + userId;
+        String cached = redisTemplate.opsForValue().get(cacheKey);
+        if (cached != null) {
+            try {
+                return objectMapper.readValue(cached, type);
+            } catch (JsonProcessingException e) {
+                log.warn("Failed to read cached {}: {}", cacheKey, e.getMessage());
+            }
+        }
+        T value = loader.get();
+        put(cacheKey, value);
+        return value;
+    }
+
+    @Override
+    public <T> Map<Long, T> getAll(RedisKey key, Collection<Long> userIds, Class<T> type, Function<Collection<Long>, Map<Long, T>> loader) {
+        List<Long> ids = userIds.stream().distinct().toList();
+        List<String> cached = redisTemplate.opsForValue().multiGet(ids.stream().map(id -> key.getKey() + id).toList());
+        Map<Long, T> result = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            String value = cached == null ? null : cached.get(i);
+            if (value == null) {
+                missing.add(ids.get(i));
+                continue;
+            }
+            try {
+                result.put(ids.get(i), objectMapper.readValue(value, type));
+            } catch (JsonProcessingException e) {
+                log.warn("Failed to read cached {}{}: {}", key.getKey(), ids.get(i), e.getMessage());
+                missing.add(ids.get(i));
+            }
+        }
+        if (!missing.isEmpty()) {
+            loader.apply(missing).forEach((id, value) -> {
+                put(key.getKey() + id, value);
+                result.put(id, value);
+            });
+        }
+        return result;
+    }
+
+    @Override
+    public void evict(Long userId) {
+        List<String> keys = USER_KEYS.stream().map(key -> key.getKey() + userId).toList();
+        redisTemplate.delete(keys);
+        // 事务提交前可能有并发读取将旧数据写回缓存，提交后再删除一次
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    redisTemplate.delete(keys);
+                }
+            });
+        }
+    }
+
+    private void put(String cacheKey, Object value) {
+        try {
+            Duration ttl = TTL.plusSeconds(ThreadLocalRandom.current().nextLong(TTL_JITTER_SECONDS));
+            redisTemplate.opsForValue().set(cacheKey, objectMapper.writeValueAsString(value), ttl);
+        } catch (JsonProcessingException e) {
+            log.warn("Failed to cache {}: {}", cacheKey, e.getMessage());
+        }
+    }
+}
@@ -3,15 +3,29 @@ package com.seecooker.user.service.service.impl;
 import com.seecooker.common.core.exception.BizException;
 import com.seecooker.common.core.exception.ErrorType;
 import com.seecooker.common.core.model.dto.user.UserDTO;
+import com.seecooker.common.core.model.dto.user.UserEventDTO;
+import com.seecooker.common.core.model.dto.user.UserProfileDTO;
+import com.seecooker.common.redis.enums.RedisKey;
+import com.seecooker.user.service.dao.ConsumedEventDao;
+import com.seecooker.user.service.dao.EventTargetDao;
 import com.seecooker.user.service.dao.UserDao;
+import com.seecooker.user.service.dao.UserFavoriteDao;
+import com.seecooker.user.service.dao.UserStatsDao;
 import com.seecooker.user.service.pojo.po.UserPO;
+import com.seecooker.user.service.service.UserCacheService;
 import com.seecooker.user.service.service.UserClientService;
 import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * feign-api 用户服务实现类
@@ -24,64 +38,152 @@ import java.util.Optional;
 @Transactional
 public class UserClientServiceImpl implements UserClientService {
     private final UserDao userDao;
+    private final UserFavoriteDao userFavoriteDao;
+    private final UserStatsDao userStatsDao;
+    private final ConsumedEventDao consumedEventDao;
+    private final EventTargetDao eventTargetDao;
+    private final UserCacheService userCacheService;
 
-    public UserClientServiceImpl(UserDao userDao) {
+    public UserClientServiceImpl(UserDao userDao, UserFavoriteDao userFavoriteDao,
+                                 UserStatsDao userStatsDao, ConsumedEventDao consumedEventDao,
+                                 EventTargetDao eventTargetDao, UserCacheService userCacheService) {
         this.userDao = userDao;
+        this.userFavoriteDao = userFavoriteDao;
+        this.userStatsDao = userStatsDao;
+        this.consumedEventDao = consumedEventDao;
+        this.eventTargetDao = eventTargetDao;
+        this.userCacheService = userCacheService;
     }
 
     @Override
     public UserDTO getUserById(Long id) {
-        Optional<UserPO> userOp = userDao.findById(id);
-        if (userOp.isEmpty()) {
-            throw new BizException(ErrorType.USER_NOT_EXIST, "用户不存在");
-        }
-        UserPO user = userOp.get();
+        return userCacheService.get(RedisKey.USER, id, UserDTO.class, () -> loadUser(id));
+    }
 
-        return UserDTO.builder()
-                .id(id)
-                .username(user.getUsername())
-                .avatar(user.getAvatar())
-                .posts(user.getPosts())
-                .postRecipes(user.getPostRecipes())
-                .favoriteRecipes(user.getFavoriteRecipes())
-                .posts(user.getPosts())
-                .signature(user.getSignature())
-                .build();
+    @Override
+    public UserProfileDTO getUserProfileById(Long id) {
+        return userCacheService.get(RedisKey.USER_PROFILE, id, UserProfileDTO.class, () -> {
+            UserProfileDTO profile = userDao.findProfileById(id);
+            if (profile == null) {
+                throw new BizException(ErrorType.USER_NOT_EXIST, "用户不存在");
+            }
+            return profile;
+        });
     }
 
     @Override
-    public void updatePostRecipes(Long userId, List<Long> recipes) {
-        UserPO user = getUser(userId);
-        user.setPostRecipes(recipes);
-        userDao.save(user);
+    public List<UserProfileDTO> getUserProfilesByIds(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<Long, UserProfileDTO> profiles = userCacheService.getAll(RedisKey.USER_PROFILE, ids, UserProfileDTO.class,
+                missing -> userDao.findProfilesByIds(missing).stream()
+                        .collect(Collectors.toMap(UserProfileDTO::getId, Function.identity())));
+        return new ArrayList<>(profiles.values());
     }
 
     @Override
     public Boolean updateFavoriteRecipe(Long userId, Long recipeId) {
-        UserPO user = getUser(userId);
-        boolean favorite = false;
-        if (user.getFavoriteRecipes().contains(recipeId)) {
-            user.getFavoriteRecipes().remove(recipeId);
-        } else {
-            user.getFavoriteRecipes().add(recipeId);
-            favorite = true;
+        if (!userDao.existsById(userId)) {
+            throw new BizException(ErrorType.USER_NOT_EXIST, "用户不存在");
+        }
+        // 删除成功说明原先已收藏，即为取消收藏；否则插入收藏
+        if (userFavoriteDao.deleteFavorite(userId, recipeId) > 0) {
+            return false;
+        }
+        userFavoriteDao.insertFavorite(userId, recipeId);
+        return true;
+    }
+
+    @Override
+    public List<Long> getFavoriteRecipeIds(Long userId, Integer pageNo, Integer pageSize) {
+        return userFavoriteDao.findRecipeIdsByUserId(userId, PageRequest.of(pageNo, pageSize));
+    }
+
+    @Override
+    public List<Long> filterFavoriteRecipes(Long userId, List<Long> recipeIds) {
+        if (recipeIds == null || recipeIds.isEmpty()) {
+            return Collections.emptyList();
         }
-        userDao.save(user);
-        return favorite;
+        return userFavoriteDao.findFavoriteRecipeIds(userId, recipeIds);
     }
 
     @Override
-    public void updateUserPosts(Long userId, List<Long> posts) {
-        UserPO user = getUser(userId);
-        user.setPosts(posts);
-        userDao.save(user);
+    public void handleUserEvents(List<UserEventDTO> events) {
+        for (UserEventDTO event : events) {
+            if (!userDao.existsById(event.getUserId())) {
+                log.warn("Skip event {} of missing user {}", event.getEventId(), event.getUserId());
+                continue;
+            }
+            // 统计数据为增量更新，重复投递的事件需跳过
+            if (consumedEventDao.insertIfAbsent(event.getEventId()) == 0) {
+                log.debug("Skip duplicate event {}", event.getEventId());
+                continue;
+            }
+            if (isStale(event)) {
+                log.debug("Skip stale event {}", event.getEventId());
+                continue;
+            }
+            Long userId = event.getUserId();
+            int amount = event.getAmount() == null ? 0 : event.getAmount();
+            // 单条语句原地增删id，仅在列表实际变化时计入统计
+            switch (event.getType()) {
+                case POST_ADDED -> {
+                    applyStats(userId, userDao.addPost(userId, event.getTargetId()), 0, 0, 0);
+                    userCacheService.evict(userId);
+                }
+                case POST_DELETED -> {
+                    applyStats(userId, -userDao.removePost(userId, event.getTargetId()), 0, -amount, 0);
+                    userCacheService.evict(userId);
+                }
+                case RECIPE_ADDED -> {
+                    applyStats(userId, 0, userDao.addPostRecipe(userId, event.getTargetId()), 0, 0);
+                    userCacheService.evict(userId);
+                }
+                case POST_LIKED -> applyStats(userId, 0, 0, 1, 0);
+                case RECIPE_FAVORITED -> applyStats(userId, 0, 0, 0, 1);
+                case RECIPE_UNFAVORITED -> applyStats(userId, 0, 0, 0, -1);
+                case LIKES_SEEDED -> userStatsDao.seedLiked(userId, amount);
+                case FAVORITES_SEEDED -> userStatsDao.seedFavorited(userId, amount);
+            }
+        }
+    }
+
+    private boolean isStale(UserEventDTO event) {
+        // 新增、删除id的事件按目标上的序号应用，晚到的旧事件不能恢复已删除的id；计数事件与顺序无关
+        boolean ordered = switch (event.getType()) {
+            case POST_ADDED, POST_DELETED, RECIPE_ADDED -> true;
+            default -> false;
+        };
+        if (!ordered || event.getSequence() == null) {
+            return false;
+        }
+        String source = event.getEventId().substring(0, event.getEventId().indexOf(':') + 1);
+        return eventTargetDao.advance(source + event.getTargetId(), event.getSequence()) == 0;
+    }
+
+    private void applyStats(Long userId, int postDelta, int recipeDelta, int likedDelta, int favoritedDelta) {
+        if (postDelta == 0 && recipeDelta == 0 && likedDelta == 0 && favoritedDelta == 0) {
+            return;
+        }
+        userStatsDao.applyDelta(userId, postDelta, recipeDelta, likedDelta, favoritedDelta);
     }
 
-    private UserPO getUser(Long id) {
+    private UserDTO loadUser(Long id) {
         Optional<UserPO> userOp = userDao.findById(id);
         if (userOp.isEmpty()) {
             throw new BizException(ErrorType.USER_NOT_EXIST, "用户不存在");
         }
-        return userOp.get();
+        UserPO user = userOp.get();
+
+        return UserDTO.builder()
+                .id(id)
+                .username(user.getUsername())
+                .avatar(user.getAvatar())
+                .posts(user.getPosts())
+                .postRecipes(user.getPostRecipes())
+                .posts(user.getPosts())
+                .signature(user.getSignature())
+                .build();
     }
 }
@@ -1,25 +1,33 @@
 package com.seecooker.user.service.service.impl;
 
 
-import cn.dev33.satoken.secure.BCrypt;
 import cn.dev33.satoken.stp.StpUtil;
+import com.aliyuncs.exceptions.ClientException;
+import com.seecooker.common.core.context.UserContext;
 import com.seecooker.common.core.enums.ImageType;
+import com.seecooker.common.core.enums.ProfileChangeType;
 import com.seecooker.common.core.exception.BizException;
 import com.seecooker.common.core.exception.ErrorType;
 import com.seecooker.user.service.dao.UserDao;
+import com.seecooker.user.service.pojo.po.UserInfoView;
 import com.seecooker.user.service.pojo.po.UserPO;
 import com.seecooker.user.service.pojo.vo.UserInfoVO;
+import com.seecooker.user.service.sender.ProfileChangePublisher;
+import com.seecooker.user.service.service.AvatarService;
+import com.seecooker.user.service.service.UserCacheService;
+import com.seecooker.user.service.service.PasswordService;
 import com.seecooker.user.service.service.UserService;
 import com.seecooker.util.oss.AliOSSUtil;
+import com.seecooker.util.oss.UploadTicket;
 import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.Collections;
-import java.util.Optional;
+import java.util.List;
 
 
 /**
@@ -34,10 +42,18 @@ import java.util.Optional;
 public class UserServiceImpl implements UserService {
     private final UserDao userDao;
     private static final String DEFAULT_AVATAR = "https://dummyimage.com/100x100";
-    private final RabbitTemplate rabbitTemplate;
-    public UserServiceImpl(UserDao userDao, RabbitTemplate rabbitTemplate) {
+    private final PasswordService passwordService;
+    private final ProfileChangePublisher profileChangePublisher;
+    private final AvatarService avatarService;
+    private final UserCacheService userCacheService;
+    public UserServiceImpl(UserDao userDao, PasswordService passwordService,
+                           ProfileChangePublisher profileChangePublisher, AvatarService avatarService,
+                           UserCacheService userCacheService) {
         this.userDao = userDao;
-        this.rabbitTemplate = rabbitTemplate;
+        this.passwordService = passwordService;
+        this.profileChangePublisher = profileChangePublisher;
+        this.avatarService = avatarService;
+        this.userCacheService = userCacheService;
     }
 
     @Override
@@ -50,7 +66,7 @@ public class UserServiceImpl implements UserService {
         }
         user = userDao.save(UserPO.builder()
                         .username(username)
-                        .password(BCrypt.hashpw(password))
+                        .password(passwordService.hash(password))
                         .avatar(avatar == null ? DEFAULT_AVATAR : avatar)
                         .posts(Collections.emptyList())
                         .postRecipes(Collections.emptyList())
@@ -70,9 +86,15 @@ public class UserServiceImpl implements UserService {
             throw new BizException(ErrorType.USER_NOT_EXIST);
         }
         // 密码错误
-        if (!BCrypt.checkpw(password, user.getPassword())) {
+        if (!passwordService.matches(password, user.getPassword())) {
             throw new BizException(ErrorType.PASSWORD_ERROR);
         }
+        // 旧密码的cost与当前配置不一致时，借登录时的明文重新计算
+        if (passwordService.needsRehash(user.getPassword())) {
+            user.setPassword(passwordService.hash(password));
+            userDao.save(user);
+            userCacheService.evict(user.getId());
+        }
         StpUtil.login(user.getId());
     }
 
@@ -102,24 +124,37 @@ public class UserServiceImpl implements UserService {
         return AliOSSUtil.uploadFile(avatar, ImageType.AVATAR);
     }
 
+    @Override
+    public UploadTicket presignAvatar(String contentType) throws ClientException {
+        // 每次只签发一张，凭证归属当前登录用户
+        return AliOSSUtil.presignUploads(ImageType.AVATAR, List.of(contentType)).get(0);
+    }
+
+    @Override
+    public String confirmAvatar(String avatarKey) throws ClientException {
+        return AliOSSUtil.confirmUpload(ImageType.AVATAR, avatarKey);
+    }
+
     private UserInfoVO getUserInfoVOById(Long id) {
-        Optional<UserPO> user = userDao.findById(id);
-        if (user.isEmpty()) {
+        UserInfoView user = userDao.findUserInfoById(id);
+        if (user == null) {
             log.error("The user dos not exist");
             throw new BizException(ErrorType.USER_NOT_EXIST);
         }
         return UserInfoVO.builder()
-                .username(user.get().getUsername())
-                .avatar(user.get().getAvatar())
-                .postNum(user.get().getPosts().size())
-                .getLikedNum(0)
-                .signature(user.get().getSignature())
+                .username(user.getUsername())
+                .avatar(user.getAvatar())
+                .postNum(user.getPostNum())
+                .recipeNum(user.getRecipeNum())
+                .getLikedNum(user.getLikedNum())
+                .favoritedNum(user.getFavoritedNum())
+                .signature(user.getSignature())
                 .build();
     }
 
     @Override
     public Long getCurrentLoginUserId() {
-        return StpUtil.getLoginIdAsLong();
+        return UserContext.getLoginId();
     }
     @Override
     public void modifyUsername(String username,String newUsername){
@@ -144,9 +179,8 @@ public class UserServiceImpl implements UserService {
             log.error("The username does not exist");
             throw new BizException(ErrorType.USER_NOT_EXIST);
         }
-
-        user.setUsername(newUsername);
-        userDao.save(user);
+        // 唯一性已在此处同步校验，消费端更新时会再次校验
+        profileChangePublisher.publish(user.getId(), ProfileChangeType.USERNAME, newUsername);
     }
     @Override
     public void modifyPassword(String username,String password,String newPassword){
@@ -157,28 +191,40 @@ public class UserServiceImpl implements UserService {
             throw new BizException(ErrorType.USER_NOT_EXIST);
         }
         // 密码错误，抛出异常
-        if (!BCrypt.checkpw(password, user.getPassword())) {
+        if (!passwordService.matches(password, user.getPassword())) {
             throw new BizException(ErrorType.PASSWORD_ERROR);
         }
-        user.setPassword(BCrypt.hashpw(newPassword));
+        user.setPassword(passwordService.hash(newPassword));
         userDao.save(user);
+        userCacheService.evict(user.getId());
     }
     @Override
-    public void modifyAvatar(String username,String avatar){
+    public void modifyAvatar(String username, MultipartFile avatar) throws IOException {
         UserPO user = userDao.findByUsername(username);
         // 用户名不存在，抛出异常
         if (user == null) {
             log.error("The username does not exist");
             throw new BizException(ErrorType.USER_NOT_EXIST);
         }
-        if(avatar==null||avatar.isEmpty())avatar=null;
-        user.setAvatar(avatar);
-        userDao.save(user);
+        if (avatar == null || avatar.isEmpty()) {
+            profileChangePublisher.publish(user.getId(), ProfileChangeType.AVATAR, null);
+            return;
+        }
+        // 请求结束后上传文件会被清理，先读入内存再交给后台线程上传
+        avatarService.uploadAndPublish(user.getId(), avatar.getBytes(), avatar.getOriginalFilename());
+    }
+
+    @Override
+    public void modifyAvatarByKey(String avatarKey) throws ClientException {
+        // 只能修改当前登录用户的头像
+        Long userId = UserContext.getLoginId();
+        // 头像已由客户端直传，确认后直接发布修改事件
+        profileChangePublisher.publish(userId, ProfileChangeType.AVATAR, confirmAvatar(avatarKey));
     }
 
     @Override
     public void modifySignature(String signature) {
-        Long userId = StpUtil.getLoginIdAsLong();
-        rabbitTemplate.convertAndSend("modifySignature", userId+":"+signature);
+        Long userId = UserContext.getLoginId();
+        profileChangePublisher.publish(userId, ProfileChangeType.SIGNATURE, signature);
     }
 }
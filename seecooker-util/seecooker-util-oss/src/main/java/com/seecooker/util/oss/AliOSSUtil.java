@@ -1,31 +1,131 @@
 package com.seecooker.util.oss;
 
-import com.aliyun.oss.HttpMethod;
+import com.aliyun.oss.ClientBuilderConfiguration;
 import com.aliyun.oss.OSS;
 import com.aliyun.oss.OSSClientBuilder;
 import com.aliyun.oss.common.auth.CredentialsProviderFactory;
-import com.aliyun.oss.common.auth.EnvironmentVariableCredentialsProvider;
-import com.aliyun.oss.model.GeneratePresignedUrlRequest;
 import com.aliyuncs.exceptions.ClientException;
+import com.seecooker.common.core.context.UserContext;
 import com.seecooker.common.core.enums.ImageType;
+import com.seecooker.common.core.enums.ImageVariant;
 import com.seecooker.common.core.exception.BizException;
 import com.seecooker.common.core.exception.ErrorType;
+import com.seecooker.util.oss.storage.AliOSSStorage;
+import com.seecooker.util.oss.storage.ObjectStorage;
+import com.seecooker.util.oss.storage.StoredObject;
+import com.seecooker.util.oss.ticket.InMemoryUploadTicketStore;
+import com.seecooker.util.oss.ticket.UploadTicketStore;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.util.*;
+import java.util.regex.Pattern;
 
 /**
  * 阿里云oss工具类
+ * 实际读写由ObjectStorage完成，默认为共用连接池的阿里云oss，也可配置为本地文件系统；
+ * 经服务上传的原图按内容的SHA-256命名，相同内容只保存一份；客户端直传的原图以签发凭证时生成的uuid命名，不做去重
  *
  * @author xueruichen
  * @date 2023.11.24
  */
 public class AliOSSUtil {
-    private static final String BUCKET_NAME = "seecooker";
-    private static final String ENDPOINT = "https://oss-cn-shanghai.aliyuncs.com";
+    static final String BUCKET_NAME = "seecooker";
+    static final String ENDPOINT = "https://oss-cn-shanghai.aliyuncs.com";
+    /**
+     * 原图所在目录，规格图存放在同级的规格目录下
+     */
+    private static final String ORIGIN_DIR = "/origin/";
+    /**
+     * 直传url有效期
+     */
+    private static final Duration UPLOAD_EXPIRY = Duration.ofMinutes(10);
+    /**
+     * 直传凭证的确认截止时间，超过后不再接受该key，已上传的对象由清理任务删除
+     */
+    private static final Duration CONFIRM_EXPIRY = Duration.ofMinutes(30);
+    /**
+     * 直传图片的大小上限
+     */
+    static final long MAX_UPLOAD_BYTES = ImageVariantProcessor.MAX_IMAGE_BYTES;
+    /**
+     * 单次最多申请的直传凭证数
+     */
+    private static final int MAX_UPLOADS = 20;
+    /**
+     * 允许直传的图片类型及对应扩展名
+     */
+    private static final Map<String, String> UPLOAD_EXTENSIONS = Map.of(
+            "image/jpeg", ".jpg",
+            "image/png", ".png",
+            "image/webp", ".webp",
+            "image/gif", ".gif");
+    private static final Map<String, String> UPLOAD_CONTENT_TYPES = Map.of(
+            ".jpg", "image/jpeg",
+            ".png", "image/png",
+            ".webp", "image/webp",
+            ".gif", "image/gif");
+    private static final Pattern UPLOAD_KEY = Pattern.compile("[0-9a-f]{8}(-[0-9a-f]{4}){3}-[0-9a-f]{12}\\.(jpg|png|webp|gif)");
+    private static volatile ObjectStorage objectStorage;
+    private static volatile PresignedUrlCache signedUrls = new PresignedUrlCache(Duration.ofSeconds(360), Duration.ofSeconds(120), 10000);
+    private static volatile VariantCache variants = new VariantCache(Duration.ofSeconds(30), 10000);
+    private static volatile UploadTicketStore tickets = new InMemoryUploadTicketStore();
     private AliOSSUtil() {}
+
+    /**
+     * 设置使用的存储和缓存，由自动配置在启动时调用
+     *
+     * @param storage 对象存储
+     * @param urlCache 签名url缓存
+     * @param variantCache 规格图存在状态缓存
+     * @param ticketStore 直传凭证记录
+     */
+    public static void init(ObjectStorage storage, PresignedUrlCache urlCache, VariantCache variantCache, UploadTicketStore ticketStore) {
+        objectStorage = storage;
+        signedUrls = urlCache;
+        variants = variantCache;
+        tickets = ticketStore;
+    }
+
+    /**
+     * 使用环境变量中的凭证创建oss客户端
+     *
+     * @param configuration 客户端配置
+     * @return oss客户端
+     */
+    public static OSS buildClient(ClientBuilderConfiguration configuration) throws ClientException {
+        return new OSSClientBuilder().build(ENDPOINT, CredentialsProviderFactory.newEnvironmentVariableCredentialsProvider(), configuration);
+    }
+
+    /**
+     * 创建默认bucket的oss存储
+     *
+     * @param client oss客户端
+     * @return oss存储
+     */
+    public static ObjectStorage ossStorage(OSS client) {
+        return new AliOSSStorage(client, ENDPOINT, BUCKET_NAME);
+    }
+
+    static ObjectStorage storage() throws ClientException {
+        ObjectStorage storage = objectStorage;
+        if (storage == null) {
+            synchronized (AliOSSUtil.class) {
+                storage = objectStorage;
+                if (storage == null) {
+                    // 未经自动配置时按默认配置创建
+                    storage = ossStorage(buildClient(new ClientBuilderConfiguration()));
+                    objectStorage = storage;
+                }
+            }
+        }
+        return storage;
+    }
+
     public static String uploadFile(MultipartFile file, ImageType imageType) throws IOException, ClientException {
         if (file == null) {
             return null;
@@ -33,79 +133,236 @@ public class AliOSSUtil {
         if ("".equals(file.getOriginalFilename())) {
             return null;
         }
-        EnvironmentVariableCredentialsProvider credentialsProvider = CredentialsProviderFactory.newEnvironmentVariableCredentialsProvider();
-        OSS ossClient = new OSSClientBuilder().build(ENDPOINT, credentialsProvider.getCredentials().getAccessKeyId(), credentialsProvider.getCredentials().getSecretAccessKey());
-
-        String url = uploadFile(file, imageType, ossClient);
-        ossClient.shutdown();
+        return uploadFile(file, imageType, storage());
+    }
 
-        return url;
+    /**
+     * 上传已读入内存的文件，用于请求结束后在后台线程中上传
+     *
+     * @param bytes 文件内容
+     * @param originalFilename 原文件名
+     * @param imageType 图片类型
+     * @return 文件url
+     */
+    public static String uploadFile(byte[] bytes, String originalFilename, ImageType imageType) throws ClientException {
+        return uploadFile(bytes, originalFilename, imageType, storage());
     }
 
     public static List<String> uploadFile(MultipartFile[] files, ImageType imageType) throws IOException, ClientException {
         if (files == null) {
             return Collections.emptyList();
         }
-        EnvironmentVariableCredentialsProvider credentialsProvider = CredentialsProviderFactory.newEnvironmentVariableCredentialsProvider();
-        OSS ossClient = new OSSClientBuilder().build(ENDPOINT, credentialsProvider.getCredentials().getAccessKeyId(), credentialsProvider.getCredentials().getSecretAccessKey());
+        ObjectStorage storage = storage();
         List<String> urls = new ArrayList<>();
         for (MultipartFile file : files) {
             if ("".equals(file.getOriginalFilename())) {
                 urls.add(null);
                 continue;
             }
-            String url = uploadFile(file, imageType, ossClient);
+            String url = uploadFile(file, imageType, storage);
             urls.add(url);
         }
-        ossClient.shutdown();
         return urls;
     }
 
-    private static String uploadFile(MultipartFile file, ImageType imageType, OSS ossClient) throws IOException {
-        InputStream inputStream = file.getInputStream();
-        // 避免文件重名覆盖
-        String originalFilename = file.getOriginalFilename();
+    private static String uploadFile(MultipartFile file, ImageType imageType, ObjectStorage storage) throws IOException {
+        return uploadFile(file.getBytes(), file.getOriginalFilename(), imageType, storage);
+    }
+
+    private static String uploadFile(byte[] bytes, String originalFilename, ImageType imageType, ObjectStorage storage) {
         if (originalFilename == null) {
             throw new BizException(ErrorType.FILE_NOT_NAMED);
         }
-        String filename = imageType.getType() + "/" + UUID.randomUUID() + originalFilename.substring(originalFilename.lastIndexOf("."));
+        // 按内容哈希命名，相同内容的图片只保存一份，也不会重名覆盖
+        String filename = imageType.getType() + ORIGIN_DIR + sha256(bytes) + originalFilename.substring(originalFilename.lastIndexOf("."));
 
-        // 上传文件
-        ossClient.putObject(BUCKET_NAME, filename, inputStream);
+        if (!storage.exists(filename)) {
+            // 上传文件
+            storage.put(filename, new ByteArrayInputStream(bytes), bytes.length, null);
+        }
+        // 相同内容此前上传时规格图可能生成失败或尚未生成，缺少任一规格图时重新生成
+        if (missingVariant(filename, imageType, storage)) {
+            ImageVariantProcessor.submit(bytes, filename, imageType);
+        }
+        return storage.url(filename);
+    }
 
-        return ENDPOINT.split("//")[0] + "//" + BUCKET_NAME + "." + ENDPOINT.split("//")[1] + "/" + filename;
+    private static boolean missingVariant(String originKey, ImageType imageType, ObjectStorage storage) {
+        for (ImageVariant variant : imageType.getVariants()) {
+            if (!variants.exists(variantKey(originKey, variant), storage::exists)) {
+                return true;
+            }
+        }
+        return false;
     }
 
-    public static String authorizeAccess(String url) throws ClientException {
-        EnvironmentVariableCredentialsProvider credentialsProvider = CredentialsProviderFactory.newEnvironmentVariableCredentialsProvider();
-        OSS ossClient = new OSSClientBuilder().build(ENDPOINT, credentialsProvider);
-        Date expiration = new Date(new Date().getTime() + 360 * 1000L);
+    /**
+     * 为当前登录用户申请图片直传凭证，客户端直接上传到存储，服务不经手图片内容
+     *
+     * @param imageType 图片类型
+     * @param contentTypes 每张图片的Content-Type
+     * @return 与contentTypes一一对应的直传凭证
+     */
+    public static List<UploadTicket> presignUploads(ImageType imageType, List<String> contentTypes) throws ClientException {
+        if (contentTypes == null || contentTypes.isEmpty() || contentTypes.size() > MAX_UPLOADS) {
+            throw new BizException(ErrorType.ILLEGAL_ARGUMENTS, "图片数量不合法");
+        }
+        ObjectStorage storage = storage();
+        if (!storage.supportsDirectUpload()) {
+            throw new BizException(ErrorType.DIRECT_UPLOAD_UNSUPPORTED, "当前存储不支持直传，请使用表单上传");
+        }
+        Long ownerId = UserContext.getLoginId();
+        long now = System.currentTimeMillis();
+        Date expiration = new Date(now + UPLOAD_EXPIRY.toMillis());
+        List<UploadTicket> issued = new ArrayList<>(contentTypes.size());
+        for (String contentType : contentTypes) {
+            String extension = UPLOAD_EXTENSIONS.get(contentType);
+            if (extension == null) {
+                throw new BizException(ErrorType.ILLEGAL_ARGUMENTS, "不支持的图片类型");
+            }
+            String key = imageType.getType() + ORIGIN_DIR + UUID.randomUUID() + extension;
+            issued.add(UploadTicket.builder()
+                    .key(key)
+                    .uploadUrl(storage.presignPut(key, expiration, contentType))
+                    .contentType(contentType)
+                    .maxSize(MAX_UPLOAD_BYTES)
+                    .expiration(expiration.getTime())
+                    .build());
+        }
+        // 签名url无法限制上传大小，确认时再检查
+        for (UploadTicket ticket : issued) {
+            tickets.issue(ticket.getKey(), ownerId, now + CONFIRM_EXPIRY.toMillis());
+        }
+        return issued;
+    }
 
-        // 生成签名URL。
-        GeneratePresignedUrlRequest request = new GeneratePresignedUrlRequest(BUCKET_NAME, url.substring(url.indexOf('/', BUCKET_NAME.length() + ENDPOINT.length() + 1) + 1), HttpMethod.GET);
-        // 设置过期时间。
-        request.setExpiration(expiration);
-        // 通过HTTP GET请求生成签名URL。
-        String signedUrl = String.valueOf(ossClient.generatePresignedUrl(request));
-        ossClient.shutdown();
-        return signedUrl;
+    /**
+     * 确认当前登录用户直传的图片均已上传，并开始生成规格图
+     * 每个key只接受申请凭证的用户在截止时间前确认一次；大小超限或类型与凭证不符的对象会被删除
+     *
+     * @param imageType 图片类型
+     * @param keys 直传凭证中的对象key
+     * @return 与keys一一对应的图片url
+     */
+    public static List<String> confirmUploads(ImageType imageType, List<String> keys) throws ClientException {
+        if (keys == null) {
+            return Collections.emptyList();
+        }
+        Long ownerId = UserContext.getLoginId();
+        ObjectStorage storage = storage();
+        UploadTicketStore ticketStore = tickets;
+        String prefix = imageType.getType() + ORIGIN_DIR;
+        if (new HashSet<>(keys).size() != keys.size()) {
+            throw new BizException(ErrorType.ILLEGAL_ARGUMENTS, "图片key重复");
+        }
+        for (String key : keys) {
+            // 只接受本类型直传凭证生成的key
+            if (key == null || !key.startsWith(prefix) || !UPLOAD_KEY.matcher(key.substring(prefix.length())).matches()) {
+                throw new BizException(ErrorType.ILLEGAL_ARGUMENTS, "图片key不合法");
+            }
+            if (!ownerId.equals(ticketStore.ownerOf(key))) {
+                throw new BizException(ErrorType.ILLEGAL_ARGUMENTS, "图片凭证无效或已过期");
+            }
+            checkUploaded(storage, key);
+        }
+        for (String key : keys) {
+            if (!ticketStore.consume(key, ownerId)) {
+                throw new BizException(ErrorType.ILLEGAL_ARGUMENTS, "图片凭证无效或已过期");
+            }
+        }
+        for (String key : keys) {
+            // 在后台线程中读取原图生成规格图
+            ImageVariantProcessor.submit(key, imageType);
+        }
+        return keys.stream().map(storage::url).toList();
+    }
+
+    private static void checkUploaded(ObjectStorage storage, String key) {
+        StoredObject object = storage.stat(key);
+        if (object == null) {
+            throw new BizException(ErrorType.ILLEGAL_ARGUMENTS, "图片尚未上传");
+        }
+        String expectedType = UPLOAD_CONTENT_TYPES.get(key.substring(key.lastIndexOf('.')));
+        String contentType = object.contentType() == null ? null : object.contentType().split(";")[0].trim();
+        if (object.size() > MAX_UPLOAD_BYTES || !expectedType.equalsIgnoreCase(contentType)) {
+            storage.delete(key);
+            throw new BizException(ErrorType.ILLEGAL_ARGUMENTS, "图片大小或类型不合法");
+        }
+    }
+
+    /**
+     * 确认单张直传的图片
+     *
+     * @param imageType 图片类型
+     * @param key 直传凭证中的对象key，为null时表示未上传图片
+     * @return 图片url，key为null时返回null
+     */
+    public static String confirmUpload(ImageType imageType, String key) throws ClientException {
+        if (key == null) {
+            return null;
+        }
+        return confirmUploads(imageType, List.of(key)).get(0);
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 获取图片指定规格的url，规格图尚未生成、生成失败或旧数据、外部图片没有规格图时返回原url
+     *
+     * @param url 原图url
+     * @param variant 图片规格
+     * @return 规格图url
+     */
+    public static String variantUrl(String url, ImageVariant variant) {
+        if (url == null || !url.contains(ORIGIN_DIR)) {
+            return url;
+        }
+        try {
+            ObjectStorage storage = storage();
+            String key = storage.keyOf(url);
+            if (key == null) {
+                return url;
+            }
+            String variantKey = variantKey(key, variant);
+            return variants.exists(variantKey, storage::exists) ? storage.url(variantKey) : url;
+        } catch (Exception e) {
+            // 无法确认规格图是否存在时使用原图
+            return url;
+        }
+    }
+
+    static void variantGenerated(String variantKey) {
+        variants.markPresent(variantKey);
+    }
+
+    static String variantKey(String originKey, ImageVariant variant) {
+        int dot = originKey.lastIndexOf('.');
+        String base = dot > originKey.lastIndexOf('/') ? originKey.substring(0, dot) : originKey;
+        return base.replace(ORIGIN_DIR, "/" + variant.getType() + "/") + ".jpg";
+    }
+
+    public static String authorizeAccess(String url) throws ClientException {
+        return authorizeAccess(List.of(url)).get(0);
     }
 
     public static List<String> authorizeAccess(List<String> urls) throws ClientException {
-        EnvironmentVariableCredentialsProvider credentialsProvider = CredentialsProviderFactory.newEnvironmentVariableCredentialsProvider();
-        OSS ossClient = new OSSClientBuilder().build(ENDPOINT, credentialsProvider);
-        Date expiration = new Date(new Date().getTime() + 360 * 1000L);
-
-        // 生成签名URL。
-        List<String> signedUrls = urls.stream().map(url->{
-            GeneratePresignedUrlRequest request = new GeneratePresignedUrlRequest(BUCKET_NAME, url.substring(url.indexOf('/', BUCKET_NAME.length() + ENDPOINT.length() + 1) + 1), HttpMethod.GET);
-            // 设置过期时间。
-            request.setExpiration(expiration);
-            // 通过HTTP GET请求生成签名URL。
-            return String.valueOf(ossClient.generatePresignedUrl(request));
-        }).toList();
-
-        ossClient.shutdown();
-        return signedUrls;
+        ObjectStorage storage = storage();
+        List<String> keys = new ArrayList<>();
+        for (String url : urls) {
+            String key = storage.keyOf(url);
+            if (key != null) {
+                keys.add(key);
+            }
+        }
+        // 有效期充足的签名直接复用，其余一并签名
+        Iterator<String> signed = signedUrls.getAll(keys, storage::presign).iterator();
+        // 不属于当前存储的url原样返回
+        return urls.stream().map(url -> storage.keyOf(url) == null ? url : signed.next()).toList();
     }
 }
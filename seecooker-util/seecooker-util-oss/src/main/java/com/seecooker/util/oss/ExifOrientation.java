@@ -0,0 +1,138 @@
+package com.seecooker.util.oss;
+
+import java.awt.image.BufferedImage;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * JPEG图片的EXIF方向处理
+ * 手机拍摄的照片以传感器方向保存像素，显示方向记录在EXIF的Orientation中，ImageIO解码时会忽略该字段
+ *
+ * @author xueruichen
+ * @date 2024.01.24
+ */
+class ExifOrientation {
+    private static final int TAG_ORIENTATION = 0x0112;
+    private static final byte[] EXIF_HEADER = "Exif\0\0".getBytes(StandardCharsets.ISO_8859_1);
+
+    private ExifOrientation() {}
+
+    /**
+     * 读取JPEG图片的EXIF方向
+     *
+     * @param data 图片数据
+     * @return 方向值1-8，非JPEG或没有方向信息时为1
+     */
+    static int read(byte[] data) {
+        if (data.length < 4 || (data[0] & 0xFF) != 0xFF || (data[1] & 0xFF) != 0xD8) {
+            return 1;
+        }
+        int pos = 2;
+        while (pos + 4 <= data.length) {
+            if ((data[pos] & 0xFF) != 0xFF) {
+                return 1;
+            }
+            int marker = data[pos + 1] & 0xFF;
+            // 图像数据开始后不会再有EXIF
+            if (marker == 0xDA || marker == 0xD9) {
+                return 1;
+            }
+            int length = u16(data, pos + 2, true);
+            if (length < 2) {
+                return 1;
+            }
+            int segmentEnd = Math.min(data.length, pos + 2 + length);
+            if (marker == 0xE1 && startsWith(data, pos + 4, segmentEnd)) {
+                return readTiff(data, pos + 4 + EXIF_HEADER.length, segmentEnd);
+            }
+            pos = pos + 2 + length;
+        }
+        return 1;
+    }
+
+    /**
+     * 按EXIF方向旋转或翻转图片，得到正常显示方向的图片
+     *
+     * @param image RGB图片
+     * @param orientation EXIF方向
+     * @return 正常方向的图片
+     */
+    static BufferedImage apply(BufferedImage image, int orientation) {
+        if (orientation < 2 || orientation > 8) {
+            return image;
+        }
+        int width = image.getWidth();
+        int height = image.getHeight();
+        boolean transpose = orientation >= 5;
+        BufferedImage target = new BufferedImage(transpose ? height : width, transpose ? width : height, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int rgb = image.getRGB(x, y);
+                switch (orientation) {
+                    case 2 -> target.setRGB(width - 1 - x, y, rgb);
+                    case 3 -> target.setRGB(width - 1 - x, height - 1 - y, rgb);
+                    case 4 -> target.setRGB(x, height - 1 - y, rgb);
+                    case 5 -> target.setRGB(y, x, rgb);
+                    case 6 -> target.setRGB(height - 1 - y, x, rgb);
+                    case 7 -> target.setRGB(height - 1 - y, width - 1 - x, rgb);
+                    default -> target.setRGB(y, width - 1 - x, rgb);
+                }
+            }
+        }
+        return target;
+    }
+
+    private static int readTiff(byte[] data, int start, int end) {
+        if (start + 8 > end) {
+            return 1;
+        }
+        boolean bigEndian;
+        if (data[start] == 'M' && data[start + 1] == 'M') {
+            bigEndian = true;
+        } else if (data[start] == 'I' && data[start + 1] == 'I') {
+            bigEndian = false;
+        } else {
+            return 1;
+        }
+        long ifdOffset = u32(data, start + 4, bigEndian);
+        if (ifdOffset < 8 || start + ifdOffset + 2 > end) {
+            return 1;
+        }
+        int ifd = start + (int) ifdOffset;
+        int count = u16(data, ifd, bigEndian);
+        for (int i = 0; i < count; i++) {
+            int entry = ifd + 2 + i * 12;
+            if (entry + 12 > end) {
+                return 1;
+            }
+            if (u16(data, entry, bigEndian) == TAG_ORIENTATION) {
+                int orientation = u16(data, entry + 8, bigEndian);
+                return orientation >= 1 && orientation <= 8 ? orientation : 1;
+            }
+        }
+        return 1;
+    }
+
+    private static boolean startsWith(byte[] data, int from, int end) {
+        if (from + EXIF_HEADER.length > end) {
+            return false;
+        }
+        for (int i = 0; i < EXIF_HEADER.length; i++) {
+            if (data[from + i] != EXIF_HEADER[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int u16(byte[] data, int pos, boolean bigEndian) {
+        int b0 = data[pos] & 0xFF;
+        int b1 = data[pos + 1] & 0xFF;
+        return bigEndian ? (b0 << 8) | b1 : (b1 << 8) | b0;
+    }
+
+    private static long u32(byte[] data, int pos, boolean bigEndian) {
+        long first = u16(data, pos, bigEndian);
+        long second = u16(data, pos + 2, bigEndian);
+        return bigEndian ? (first << 16) | second : (second << 16) | first;
+    }
+}
@@ -0,0 +1,207 @@
+package com.seecooker.util.oss;
+
+import com.seecooker.common.core.enums.ImageType;
+import com.seecooker.common.core.enums.ImageVariant;
+import com.seecooker.util.oss.storage.ObjectStorage;
+import com.seecooker.util.oss.storage.StoredObject;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.Iterator;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 图片规格处理类
+ * 原图上传后在后台线程中缩放、按EXIF方向摆正、重新压缩为各规格图片并上传；
+ * 超过大小或像素上限的图片不生成规格图，仍使用原图
+ *
+ * @author xueruichen
+ * @date 2024.01.16
+ */
+@Slf4j
+public class ImageVariantProcessor {
+    private static final float JPEG_QUALITY = 0.8f;
+    private static final int QUEUE_CAPACITY = 256;
+    /**
+     * 生成规格图的原图大小上限
+     */
+    static final long MAX_IMAGE_BYTES = 20L * 1024 * 1024;
+    /**
+     * 生成规格图的原图像素上限，解码前按图片头中的宽高检查
+     */
+    static final long MAX_IMAGE_PIXELS = 50_000_000L;
+    private static final AtomicLong DROPPED = new AtomicLong();
+    private static final ExecutorService EXECUTOR = new ThreadPoolExecutor(
+            2, 2, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(QUEUE_CAPACITY),
+            new ThreadFactory() {
+                private final AtomicInteger count = new AtomicInteger();
+
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "image-variant-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            },
+            // 队列已满时丢弃任务，不在请求线程上解码缩放；缺失的规格图在原图再次上传时补生成，期间使用原图
+            (task, executor) -> log.warn("Image variant queue is full, dropped task ({} dropped in total)",
+                    DROPPED.incrementAndGet()));
+
+    private ImageVariantProcessor() {}
+
+    /**
+     * 获取因队列已满而丢弃的任务数
+     *
+     * @return 累计丢弃的任务数
+     */
+    public static long droppedCount() {
+        return DROPPED.get();
+    }
+
+    /**
+     * 提交规格图生成任务
+     *
+     * @param image 原图数据
+     * @param originKey 原图在bucket中的key
+     * @param imageType 图片类型
+     */
+    public static void submit(byte[] image, String originKey, ImageType imageType) {
+        if (imageType.getVariants().isEmpty()) {
+            return;
+        }
+        EXECUTOR.execute(() -> process(image, originKey, imageType));
+    }
+
+    /**
+     * 提交规格图生成任务，原图由后台线程从存储中读取，用于客户端直传的图片
+     *
+     * @param originKey 原图在bucket中的key
+     * @param imageType 图片类型
+     */
+    public static void submit(String originKey, ImageType imageType) {
+        if (imageType.getVariants().isEmpty()) {
+            return;
+        }
+        EXECUTOR.execute(() -> {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try {
+                ObjectStorage storage = AliOSSUtil.storage();
+                // 读取前检查大小，超限的原图不读入内存
+                StoredObject object = storage.stat(originKey);
+                if (object == null || object.size() > MAX_IMAGE_BYTES) {
+                    log.warn("Image {} is missing or too large for variants", originKey);
+                    return;
+                }
+                storage.transferTo(originKey, Channels.newChannel(out));
+            } catch (Exception e) {
+                log.error("Failed to read image {}: {}", originKey, e.getMessage());
+                return;
+            }
+            process(out.toByteArray(), originKey, imageType);
+        });
+    }
+
+    private static void process(byte[] image, String originKey, ImageType imageType) {
+        if (image.length > MAX_IMAGE_BYTES) {
+            log.warn("Image {} is too large for variants: {} bytes", originKey, image.length);
+            return;
+        }
+        BufferedImage source;
+        try {
+            source = decode(image, originKey);
+        } catch (IOException e) {
+            log.warn("Failed to decode image {}: {}", originKey, e.getMessage());
+            return;
+        }
+        if (source == null) {
+            return;
+        }
+        int orientation = ExifOrientation.read(image);
+        try {
+            ObjectStorage storage = AliOSSUtil.storage();
+            for (ImageVariant variant : imageType.getVariants()) {
+                byte[] bytes = encodeJpeg(ExifOrientation.apply(resize(source, variant.getMaxSize()), orientation));
+                String variantKey = AliOSSUtil.variantKey(originKey, variant);
+                storage.put(variantKey, new ByteArrayInputStream(bytes), bytes.length, "image/jpeg");
+                AliOSSUtil.variantGenerated(variantKey);
+            }
+        } catch (Exception e) {
+            log.error("Failed to generate variants for {}: {}", originKey, e.getMessage());
+        }
+    }
+
+    private static BufferedImage decode(byte[] image, String originKey) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(new ByteArrayInputStream(image))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                log.warn("Unsupported image format: {}", originKey);
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                // 先读图片头中的宽高，避免解码超大图片耗尽内存
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels > MAX_IMAGE_PIXELS) {
+                    log.warn("Image {} has too many pixels for variants: {}", originKey, pixels);
+                    return null;
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static BufferedImage resize(BufferedImage source, int maxSize) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        double scale = Math.min(1.0, (double) maxSize / Math.max(width, height));
+        int targetWidth = Math.max(1, (int) Math.round(width * scale));
+        int targetHeight = Math.max(1, (int) Math.round(height * scale));
+
+        // 统一转为RGB，透明部分填充白色
+        BufferedImage target = new BufferedImage(targetWidth, targetHeight, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, targetWidth, targetHeight);
+            graphics.drawImage(source, 0, 0, targetWidth, targetHeight, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private static byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(JPEG_QUALITY);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream imageOut = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(imageOut);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,91 @@
+package com.seecooker.util.oss;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 签名url缓存
+ * 同一对象在签名剩余有效期充足时复用已有签名，临近过期时重新签名，按LRU淘汰
+ *
+ * @author xueruichen
+ * @date 2024.01.24
+ */
+public class PresignedUrlCache {
+    private final long expiryMillis;
+    private final long refreshBeforeMillis;
+    private final Map<String, SignedUrl> entries;
+
+    /**
+     * @param expiry 签名有效期
+     * @param refreshBefore 剩余有效期不足该值时重新签名，保证返回的url至少还能使用这么久
+     * @param maxSize 最多缓存的对象数
+     */
+    public PresignedUrlCache(Duration expiry, Duration refreshBefore, int maxSize) {
+        this.expiryMillis = expiry.toMillis();
+        this.refreshBeforeMillis = refreshBefore.toMillis();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, SignedUrl> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * 批量获取签名url，缺失或临近过期的对象使用同一过期时间一并签名
+     *
+     * @param keys 对象key
+     * @param signer 签名方法
+     * @return 与key一一对应的签名url
+     */
+    public List<String> getAll(List<String> keys, Signer signer) {
+        long now = System.currentTimeMillis();
+        String[] urls = new String[keys.size()];
+        boolean missing = false;
+        synchronized (entries) {
+            for (int i = 0; i < urls.length; i++) {
+                SignedUrl signed = entries.get(keys.get(i));
+                if (signed != null && signed.expiresAt - now > refreshBeforeMillis) {
+                    urls[i] = signed.url;
+                } else {
+                    missing = true;
+                }
+            }
+        }
+        if (!missing) {
+            return Arrays.asList(urls);
+        }
+
+        Date expiration = new Date(now + expiryMillis);
+        Map<String, String> signedUrls = new HashMap<>();
+        for (int i = 0; i < urls.length; i++) {
+            if (urls[i] == null) {
+                urls[i] = signedUrls.computeIfAbsent(keys.get(i), key -> signer.sign(key, expiration));
+            }
+        }
+        synchronized (entries) {
+            signedUrls.forEach((key, url) -> entries.put(key, new SignedUrl(url, expiration.getTime())));
+        }
+        return Arrays.asList(urls);
+    }
+
+    @FunctionalInterface
+    public interface Signer {
+        /**
+         * 为对象生成签名url
+         *
+         * @param key 对象key
+         * @param expiration 过期时间
+         * @return 签名url
+         */
+        String sign(String key, Date expiration);
+    }
+
+    private record SignedUrl(String url, long expiresAt) {
+    }
+}
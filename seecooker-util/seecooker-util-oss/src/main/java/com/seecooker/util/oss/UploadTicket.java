@@ -0,0 +1,41 @@
+package com.seecooker.util.oss;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * 直传凭证
+ * 客户端使用PUT方法、携带contentType对应的Content-Type请求头将图片上传到uploadUrl，之后只需提交key
+ * key只能由申请凭证的用户提交一次
+ *
+ * @author xueruichen
+ * @date 2024.01.24
+ */
+@Getter
+@Builder
+public class UploadTicket {
+    /**
+     * 对象key，上传完成后提交给业务接口
+     */
+    private String key;
+
+    /**
+     * 签名上传url
+     */
+    private String uploadUrl;
+
+    /**
+     * 上传时必须使用的Content-Type
+     */
+    private String contentType;
+
+    /**
+     * 允许上传的最大字节数，超过时确认失败
+     */
+    private Long maxSize;
+
+    /**
+     * 上传url过期时间戳（毫秒）
+     */
+    private Long expiration;
+}
@@ -0,0 +1,65 @@
+package com.seecooker.util.oss;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * 规格图存在状态缓存
+ * 规格图在后台生成，生成前或生成失败时应返回原图；已确认存在的规格图长期缓存，不存在的在重查间隔内不再查询存储，按LRU淘汰
+ *
+ * @author xueruichen
+ * @date 2024.01.24
+ */
+public class VariantCache {
+    private final long recheckMillis;
+    private final Map<String, Long> entries;
+
+    /**
+     * @param recheckInterval 规格图不存在时多久后再次查询存储
+     * @param maxSize 最多缓存的规格图数
+     */
+    public VariantCache(Duration recheckInterval, int maxSize) {
+        this.recheckMillis = recheckInterval.toMillis();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * 规格图是否存在
+     *
+     * @param variantKey 规格图key
+     * @param lookup 查询存储中是否存在
+     * @return 是否存在
+     */
+    public boolean exists(String variantKey, Predicate<String> lookup) {
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            Long recheckAt = entries.get(variantKey);
+            if (recheckAt != null && (recheckAt == Long.MAX_VALUE || recheckAt > now)) {
+                return recheckAt == Long.MAX_VALUE;
+            }
+        }
+        boolean exists = lookup.test(variantKey);
+        synchronized (entries) {
+            entries.put(variantKey, exists ? Long.MAX_VALUE : now + recheckMillis);
+        }
+        return exists;
+    }
+
+    /**
+     * 记录规格图已生成
+     *
+     * @param variantKey 规格图key
+     */
+    public void markPresent(String variantKey) {
+        synchronized (entries) {
+            entries.put(variantKey, Long.MAX_VALUE);
+        }
+    }
+}
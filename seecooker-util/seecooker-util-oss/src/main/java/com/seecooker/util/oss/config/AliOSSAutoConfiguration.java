@@ -0,0 +1,126 @@
+package com.seecooker.util.oss.config;
+
+import com.aliyun.oss.ClientBuilderConfiguration;
+import com.aliyun.oss.OSS;
+import com.aliyuncs.exceptions.ClientException;
+import com.seecooker.util.oss.AliOSSUtil;
+import com.seecooker.util.oss.PresignedUrlCache;
+import com.seecooker.util.oss.VariantCache;
+import com.seecooker.util.oss.storage.LocalFileStorage;
+import com.seecooker.util.oss.storage.ObjectStorage;
+import com.seecooker.util.oss.ticket.InMemoryUploadTicketStore;
+import com.seecooker.util.oss.ticket.RedisUploadTicketStore;
+import com.seecooker.util.oss.ticket.UploadSweeper;
+import com.seecooker.util.oss.ticket.UploadTicketStore;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.nio.file.Path;
+
+/**
+ * 对象存储自动配置
+ * 按seecooker.oss.storage创建存储后端、签名url缓存和规格图状态缓存并交给AliOSSUtil使用；使用oss时共用一个客户端，应用关闭时释放连接池
+ * 有redis时直传凭证记录在redis中，各实例共享；存储支持直传时定时清理过期未确认的直传对象
+ *
+ * @author xueruichen
+ * @date 2024.01.24
+ */
+@AutoConfiguration(afterName = "org.springframework.boot.autoconfigure.data.redis.RedisAutoConfiguration")
+@EnableConfigurationProperties(AliOSSProperties.class)
+public class AliOSSAutoConfiguration {
+    @Bean
+    public PresignedUrlCache presignedUrlCache(AliOSSProperties properties, ObjectStorage storage, UploadTicketStore ticketStore) {
+        PresignedUrlCache cache = new PresignedUrlCache(properties.getPresignExpiry(),
+                properties.getPresignRefreshBefore(), properties.getPresignCacheSize());
+        AliOSSUtil.init(storage, cache, new VariantCache(properties.getVariantRecheckInterval(), properties.getVariantCacheSize()),
+                ticketStore);
+        return cache;
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(UploadTicketStore.class)
+    public UploadTicketStore uploadTicketStore() {
+        return new InMemoryUploadTicketStore();
+    }
+
+    @Bean
+    public UploadSweeper uploadSweeper(ObjectStorage storage, UploadTicketStore ticketStore, AliOSSProperties properties) {
+        return new UploadSweeper(storage, ticketStore, properties.getUploadSweepInterval());
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(StringRedisTemplate.class)
+    @ConditionalOnBean(StringRedisTemplate.class)
+    static class RedisTicketStoreConfiguration {
+        @Bean
+        public UploadTicketStore redisUploadTicketStore(StringRedisTemplate redisTemplate) {
+            return new RedisUploadTicketStore(redisTemplate);
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnProperty(prefix = "seecooker.oss", name = "storage", havingValue = "oss", matchIfMissing = true)
+    static class OSSStorageConfiguration {
+        @Bean(destroyMethod = "shutdown")
+        public OSS ossClient(AliOSSProperties properties) throws ClientException {
+            ClientBuilderConfiguration configuration = new ClientBuilderConfiguration();
+            configuration.setMaxConnections(properties.getMaxConnections());
+            configuration.setConnectionTimeout((int) properties.getConnectionTimeout().toMillis());
+            configuration.setConnectionRequestTimeout((int) properties.getConnectionRequestTimeout().toMillis());
+            configuration.setSocketTimeout((int) properties.getSocketTimeout().toMillis());
+            configuration.setIdleConnectionTime(properties.getIdleConnectionTime().toMillis());
+            configuration.setMaxErrorRetry(properties.getMaxErrorRetry());
+            return AliOSSUtil.buildClient(configuration);
+        }
+
+        @Bean
+        public ObjectStorage objectStorage(OSS ossClient) {
+            return AliOSSUtil.ossStorage(ossClient);
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnProperty(prefix = "seecooker.oss", name = "storage", havingValue = "local")
+    static class LocalStorageConfiguration {
+        @Bean
+        public ObjectStorage objectStorage(AliOSSProperties properties) {
+            return new LocalFileStorage(Path.of(properties.getLocalRoot()), properties.getLocalBaseUrl());
+        }
+    }
+
+    /**
+     * 本地存储的url前缀为服务自身路径时，以静态资源提供存储目录
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnProperty(prefix = "seecooker.oss", name = "storage", havingValue = "local")
+    @ConditionalOnClass(WebMvcConfigurer.class)
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    static class LocalStorageWebConfiguration implements WebMvcConfigurer {
+        private final AliOSSProperties properties;
+
+        LocalStorageWebConfiguration(AliOSSProperties properties) {
+            this.properties = properties;
+        }
+
+        @Override
+        public void addResourceHandlers(ResourceHandlerRegistry registry) {
+            String baseUrl = properties.getLocalBaseUrl();
+            if (!baseUrl.startsWith("/")) {
+                return;
+            }
+            String path = baseUrl.endsWith("/") ? baseUrl : baseUrl + "/";
+            String location = Path.of(properties.getLocalRoot()).toAbsolutePath().normalize().toUri().toString();
+            registry.addResourceHandler(path + "**").addResourceLocations(location.endsWith("/") ? location : location + "/");
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.seecooker.util.oss.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 阿里云oss客户端连接池配置
+ *
+ * @author xueruichen
+ * @date 2024.01.24
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "seecooker.oss")
+public class AliOSSProperties {
+    /**
+     * 存储后端，oss为阿里云oss，local为本地文件系统
+     */
+    private String storage = "oss";
+
+    /**
+     * 本地存储的根目录
+     */
+    private String localRoot = System.getProperty("java.io.tmpdir") + "/seecooker-storage";
+
+    /**
+     * 本地存储对外访问的url前缀；以/开头时为服务自身的路径，由服务以静态资源提供根目录下的文件
+     */
+    private String localBaseUrl = "/storage";
+
+    /**
+     * 连接池最大连接数，上传与规格图生成共用
+     */
+    private int maxConnections = 128;
+
+    /**
+     * 建立连接超时时间
+     */
+    private Duration connectionTimeout = Duration.ofSeconds(3);
+
+    /**
+     * 从连接池获取连接的超时时间
+     */
+    private Duration connectionRequestTimeout = Duration.ofSeconds(1);
+
+    /**
+     * 读写数据超时时间
+     */
+    private Duration socketTimeout = Duration.ofSeconds(30);
+
+    /**
+     * 空闲连接保留时间，超过后由连接池回收
+     */
+    private Duration idleConnectionTime = Duration.ofSeconds(60);
+
+    /**
+     * 失败重试次数
+     */
+    private int maxErrorRetry = 2;
+
+    /**
+     * 签名url有效期
+     */
+    private Duration presignExpiry = Duration.ofSeconds(360);
+
+    /**
+     * 签名剩余有效期不足该值时重新签名
+     */
+    private Duration presignRefreshBefore = Duration.ofSeconds(120);
+
+    /**
+     * 最多缓存签名url的对象数
+     */
+    private int presignCacheSize = 10000;
+
+    /**
+     * 规格图不存在时多久后再次查询存储
+     */
+    private Duration variantRecheckInterval = Duration.ofSeconds(30);
+
+    /**
+     * 最多缓存存在状态的规格图数
+     */
+    private int variantCacheSize = 10000;
+
+    /**
+     * 清理过期未确认直传对象的间隔
+     */
+    private Duration uploadSweepInterval = Duration.ofMinutes(1);
+}
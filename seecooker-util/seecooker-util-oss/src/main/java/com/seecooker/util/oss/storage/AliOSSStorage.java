@@ -0,0 +1,126 @@
+package com.seecooker.util.oss.storage;
+
+import com.aliyun.oss.HttpMethod;
+import com.aliyun.oss.OSS;
+import com.aliyun.oss.OSSErrorCode;
+import com.aliyun.oss.OSSException;
+import com.aliyun.oss.model.GeneratePresignedUrlRequest;
+import com.aliyun.oss.model.OSSObject;
+import com.aliyun.oss.model.ObjectMetadata;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Date;
+
+/**
+ * 阿里云oss存储
+ *
+ * @author xueruichen
+ * @date 2024.01.24
+ */
+public class AliOSSStorage implements ObjectStorage {
+    private final OSS client;
+    private final String bucket;
+    private final String baseUrl;
+
+    /**
+     * @param client oss客户端
+     * @param endpoint oss访问域名，如https://oss-cn-shanghai.aliyuncs.com
+     * @param bucket bucket名称
+     */
+    public AliOSSStorage(OSS client, String endpoint, String bucket) {
+        this.client = client;
+        this.bucket = bucket;
+        String[] parts = endpoint.split("//");
+        this.baseUrl = parts[0] + "//" + bucket + "." + parts[1];
+    }
+
+    @Override
+    public void put(String key, InputStream content, long length, String contentType) {
+        ObjectMetadata metadata = new ObjectMetadata();
+        metadata.setContentLength(length);
+        if (contentType != null) {
+            metadata.setContentType(contentType);
+        }
+        client.putObject(bucket, key, content, metadata);
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return client.doesObjectExist(bucket, key);
+    }
+
+    @Override
+    public StoredObject stat(String key) {
+        try {
+            ObjectMetadata metadata = client.getObjectMetadata(bucket, key);
+            return new StoredObject(metadata.getContentLength(), metadata.getContentType());
+        } catch (OSSException e) {
+            if (OSSErrorCode.NO_SUCH_KEY.equals(e.getErrorCode())) {
+                return null;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void delete(String key) {
+        client.deleteObject(bucket, key);
+    }
+
+    @Override
+    public long transferTo(String key, WritableByteChannel target) throws IOException {
+        OSSObject object = client.getObject(bucket, key);
+        try (ReadableByteChannel source = Channels.newChannel(object.getObjectContent())) {
+            ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+            long total = 0;
+            while (source.read(buffer) != -1) {
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    total += target.write(buffer);
+                }
+                buffer.clear();
+            }
+            return total;
+        } finally {
+            object.close();
+        }
+    }
+
+    @Override
+    public String url(String key) {
+        return baseUrl + "/" + key;
+    }
+
+    @Override
+    public String keyOf(String url) {
+        if (url == null || !url.startsWith(baseUrl + "/")) {
+            return null;
+        }
+        return url.substring(baseUrl.length() + 1);
+    }
+
+    @Override
+    public String presign(String key, Date expiration) {
+        GeneratePresignedUrlRequest request = new GeneratePresignedUrlRequest(bucket, key, HttpMethod.GET);
+        request.setExpiration(expiration);
+        return String.valueOf(client.generatePresignedUrl(request));
+    }
+
+    @Override
+    public boolean supportsDirectUpload() {
+        return true;
+    }
+
+    @Override
+    public String presignPut(String key, Date expiration, String contentType) {
+        GeneratePresignedUrlRequest request = new GeneratePresignedUrlRequest(bucket, key, HttpMethod.PUT);
+        request.setExpiration(expiration);
+        request.setContentType(contentType);
+        return String.valueOf(client.generatePresignedUrl(request));
+    }
+}
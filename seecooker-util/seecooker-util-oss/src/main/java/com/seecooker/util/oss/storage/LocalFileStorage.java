@@ -0,0 +1,150 @@
+package com.seecooker.util.oss.storage;
+
+import com.seecooker.common.core.exception.BizException;
+import com.seecooker.common.core.exception.ErrorType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URLConnection;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Date;
+
+/**
+ * 本地文件系统存储，用于离线运行和压测
+ * 读取通过FileChannel的transferTo完成，目标为文件或socket通道时由内核直接拷贝；
+ * 写入先写到同目录的临时文件再原子替换，读取方不会看到写了一半的对象
+ *
+ * @author xueruichen
+ * @date 2024.01.24
+ */
+public class LocalFileStorage implements ObjectStorage {
+    private final Path root;
+    private final String baseUrl;
+
+    /**
+     * @param root 存储根目录
+     * @param baseUrl 对外访问的url前缀，对应根目录
+     */
+    public LocalFileStorage(Path root, String baseUrl) {
+        this.root = root.toAbsolutePath().normalize();
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+    }
+
+    @Override
+    public void put(String key, InputStream content, long length, String contentType) {
+        Path target = resolve(key);
+        Path temp = null;
+        try {
+            Files.createDirectories(target.getParent());
+            temp = Files.createTempFile(target.getParent(), ".upload-", ".tmp");
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+                 ReadableByteChannel source = Channels.newChannel(content)) {
+                long position = 0;
+                while (position < length) {
+                    long transferred = channel.transferFrom(source, position, length - position);
+                    if (transferred <= 0) {
+                        throw new IOException("Unexpected end of content for " + key);
+                    }
+                    position += transferred;
+                }
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to store " + key, e);
+        } finally {
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException ignored) {
+                    // 临时文件清理失败不影响结果
+                }
+            }
+        }
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return Files.isRegularFile(resolve(key));
+    }
+
+    @Override
+    public StoredObject stat(String key) {
+        Path path = resolve(key);
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        try {
+            String contentType = Files.probeContentType(path);
+            return new StoredObject(Files.size(path),
+                    contentType != null ? contentType : URLConnection.guessContentTypeFromName(path.getFileName().toString()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to stat " + key, e);
+        }
+    }
+
+    @Override
+    public void delete(String key) {
+        try {
+            Files.deleteIfExists(resolve(key));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to delete " + key, e);
+        }
+    }
+
+    @Override
+    public long transferTo(String key, WritableByteChannel target) throws IOException {
+        try (FileChannel channel = FileChannel.open(resolve(key), StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            while (position < size) {
+                position += channel.transferTo(position, size - position, target);
+            }
+            return size;
+        }
+    }
+
+    @Override
+    public String url(String key) {
+        return baseUrl + "/" + key;
+    }
+
+    @Override
+    public String keyOf(String url) {
+        if (url == null || !url.startsWith(baseUrl + "/")) {
+            return null;
+        }
+        return url.substring(baseUrl.length() + 1);
+    }
+
+    @Override
+    public String presign(String key, Date expiration) {
+        // 本地存储不做访问控制
+        return url(key);
+    }
+
+    @Override
+    public boolean supportsDirectUpload() {
+        return false;
+    }
+
+    @Override
+    public String presignPut(String key, Date expiration, String contentType) {
+        throw new BizException(ErrorType.DIRECT_UPLOAD_UNSUPPORTED, "本地存储不支持直传，请使用表单上传");
+    }
+
+    private Path resolve(String key) {
+        Path path = root.resolve(key).normalize();
+        if (!path.startsWith(root) || path.equals(root)) {
+            throw new IllegalArgumentException("Illegal object key: " + key);
+        }
+        return path;
+    }
+}
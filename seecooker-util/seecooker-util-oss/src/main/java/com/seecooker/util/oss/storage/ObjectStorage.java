@@ -0,0 +1,100 @@
+package com.seecooker.util.oss.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.WritableByteChannel;
+import java.util.Date;
+
+/**
+ * 对象存储接口
+ * 屏蔽具体存储后端，对象以key标识，key即对象在存储中的相对路径
+ *
+ * @author xueruichen
+ * @date 2024.01.24
+ */
+public interface ObjectStorage {
+    /**
+     * 写入对象，已存在时覆盖
+     *
+     * @param key 对象key
+     * @param content 对象内容
+     * @param length 内容长度
+     * @param contentType 内容类型，为null时由后端决定
+     */
+    void put(String key, InputStream content, long length, String contentType);
+
+    /**
+     * 对象是否存在
+     *
+     * @param key 对象key
+     * @return 是否存在
+     */
+    boolean exists(String key);
+
+    /**
+     * 读取对象元数据，不读取内容
+     *
+     * @param key 对象key
+     * @return 对象元数据，不存在时为null
+     */
+    StoredObject stat(String key);
+
+    /**
+     * 删除对象，不存在时忽略
+     *
+     * @param key 对象key
+     */
+    void delete(String key);
+
+    /**
+     * 将对象内容写入目标通道
+     *
+     * @param key 对象key
+     * @param target 目标通道
+     * @return 写入的字节数
+     */
+    long transferTo(String key, WritableByteChannel target) throws IOException;
+
+    /**
+     * 获取对象的访问url
+     *
+     * @param key 对象key
+     * @return 访问url
+     */
+    String url(String key);
+
+    /**
+     * 由访问url解析对象key
+     *
+     * @param url 访问url
+     * @return 对象key，不属于本存储时为null
+     */
+    String keyOf(String url);
+
+    /**
+     * 生成带签名的临时访问url
+     *
+     * @param key 对象key
+     * @param expiration 过期时间
+     * @return 签名url
+     */
+    String presign(String key, Date expiration);
+
+    /**
+     * 是否支持客户端通过签名url直接上传
+     *
+     * @return 是否支持
+     */
+    boolean supportsDirectUpload();
+
+    /**
+     * 生成带签名的临时上传url，客户端使用PUT方法并携带相同的Content-Type直接上传
+     * 不支持直传的存储抛出BizException
+     *
+     * @param key 对象key
+     * @param expiration 过期时间
+     * @param contentType 内容类型
+     * @return 签名url
+     */
+    String presignPut(String key, Date expiration, String contentType);
+}
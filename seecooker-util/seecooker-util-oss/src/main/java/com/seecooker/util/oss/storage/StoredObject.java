@@ -0,0 +1,12 @@
+package com.seecooker.util.oss.storage;
+
+/**
+ * 存储中对象的元数据
+ *
+ * @param size 对象大小（字节）
+ * @param contentType 内容类型，未知时为null
+ * @author xueruichen
+ * @date 2024.01.24
+ */
+public record StoredObject(long size, String contentType) {
+}
@@ -0,0 +1,53 @@
+package com.seecooker.util.oss.ticket;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 进程内的直传凭证记录，仅用于单实例运行和测试，多实例部署时应使用RedisUploadTicketStore
+ *
+ * @author xueruichen
+ * @date 2024.01.24
+ */
+public class InMemoryUploadTicketStore implements UploadTicketStore {
+    private final Map<String, Ticket> tickets = new ConcurrentHashMap<>();
+
+    @Override
+    public void issue(String key, Long ownerId, long deadline) {
+        tickets.put(key, new Ticket(ownerId, deadline));
+    }
+
+    @Override
+    public Long ownerOf(String key) {
+        Ticket ticket = tickets.get(key);
+        return ticket == null || ticket.deadline <= System.currentTimeMillis() ? null : ticket.ownerId;
+    }
+
+    @Override
+    public boolean consume(String key, Long ownerId) {
+        Ticket ticket = tickets.get(key);
+        if (ticket == null || ticket.deadline <= System.currentTimeMillis() || !ticket.ownerId.equals(ownerId)) {
+            return false;
+        }
+        return tickets.remove(key, ticket);
+    }
+
+    @Override
+    public List<String> pollExpired(long now, int limit) {
+        List<String> expired = new ArrayList<>();
+        for (Map.Entry<String, Ticket> entry : tickets.entrySet()) {
+            if (expired.size() >= limit) {
+                break;
+            }
+            if (entry.getValue().deadline <= now && tickets.remove(entry.getKey(), entry.getValue())) {
+                expired.add(entry.getKey());
+            }
+        }
+        return expired;
+    }
+
+    private record Ticket(Long ownerId, long deadline) {
+    }
+}
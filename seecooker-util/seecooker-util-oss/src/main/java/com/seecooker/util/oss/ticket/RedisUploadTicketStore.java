@@ -0,0 +1,76 @@
+package com.seecooker.util.oss.ticket;
+
+import com.seecooker.common.redis.enums.RedisKey;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 基于redis的直传凭证记录，各服务实例共享
+ * 每个key对应一个带过期时间的字符串保存所属用户，另以有序集合按确认截止时间记录全部未确认的key供清理任务使用
+ *
+ * @author xueruichen
+ * @date 2024.01.24
+ */
+public class RedisUploadTicketStore implements UploadTicketStore {
+    /**
+     * 所属用户一致时删除凭证，保证同一key只能确认一次
+     */
+    private static final RedisScript<Long> CONSUME = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then "
+                    + "redis.call('DEL', KEYS[1]); redis.call('ZREM', KEYS[2], ARGV[2]); return 1 "
+                    + "end return 0", Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    public RedisUploadTicketStore(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public void issue(String key, Long ownerId, long deadline) {
+        long ttl = Math.max(1, deadline - System.currentTimeMillis());
+        redisTemplate.opsForValue().set(ticketKey(key), String.valueOf(ownerId), Duration.ofMillis(ttl));
+        redisTemplate.opsForZSet().add(RedisKey.UPLOAD_TICKET_DEADLINE.getKey(), key, deadline);
+    }
+
+    @Override
+    public Long ownerOf(String key) {
+        String owner = redisTemplate.opsForValue().get(ticketKey(key));
+        return owner == null ? null : Long.valueOf(owner);
+    }
+
+    @Override
+    public boolean consume(String key, Long ownerId) {
+        Long result = redisTemplate.execute(CONSUME, List.of(ticketKey(key), RedisKey.UPLOAD_TICKET_DEADLINE.getKey()),
+                String.valueOf(ownerId), key);
+        return result != null && result == 1;
+    }
+
+    @Override
+    public List<String> pollExpired(long now, int limit) {
+        Set<String> candidates = redisTemplate.opsForZSet()
+                .rangeByScore(RedisKey.UPLOAD_TICKET_DEADLINE.getKey(), 0, now, 0, limit);
+        List<String> expired = new ArrayList<>();
+        if (candidates == null) {
+            return expired;
+        }
+        for (String key : candidates) {
+            // 只有移除成功的实例负责删除对象
+            Long removed = redisTemplate.opsForZSet().remove(RedisKey.UPLOAD_TICKET_DEADLINE.getKey(), key);
+            if (removed != null && removed > 0) {
+                expired.add(key);
+            }
+        }
+        return expired;
+    }
+
+    private static String ticketKey(String key) {
+        return RedisKey.UPLOAD_TICKET.getKey() + key;
+    }
+}
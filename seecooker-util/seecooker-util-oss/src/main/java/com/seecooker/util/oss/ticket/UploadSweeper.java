@@ -0,0 +1,69 @@
+package com.seecooker.util.oss.ticket;
+
+import com.seecooker.util.oss.storage.ObjectStorage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 直传对象清理任务
+ * 定时删除签发了凭证、已上传但过了确认截止时间仍未提交的对象
+ *
+ * @author xueruichen
+ * @date 2024.01.24
+ */
+@Slf4j
+public class UploadSweeper implements DisposableBean {
+    private static final int BATCH_SIZE = 100;
+
+    private final ObjectStorage storage;
+    private final UploadTicketStore ticketStore;
+    private final ScheduledExecutorService scheduler;
+
+    public UploadSweeper(ObjectStorage storage, UploadTicketStore ticketStore, Duration interval) {
+        this.storage = storage;
+        this.ticketStore = ticketStore;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "upload-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::sweep, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 删除一批过期未确认的对象
+     *
+     * @return 删除的对象数
+     */
+    public int sweep() {
+        List<String> keys;
+        try {
+            keys = ticketStore.pollExpired(System.currentTimeMillis(), BATCH_SIZE);
+        } catch (Exception e) {
+            log.warn("Failed to poll unconfirmed uploads: {}", e.getMessage());
+            return 0;
+        }
+        int deleted = 0;
+        for (String key : keys) {
+            try {
+                storage.delete(key);
+                deleted++;
+            } catch (Exception e) {
+                // 记录已被取出，不会再次清理
+                log.warn("Failed to delete unconfirmed upload {}: {}", key, e.getMessage());
+            }
+        }
+        return deleted;
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,47 @@
+package com.seecooker.util.oss.ticket;
+
+import java.util.List;
+
+/**
+ * 直传凭证记录
+ * 签发凭证时记录对象key所属用户和确认截止时间；key只能由所属用户在截止前确认一次，过期未确认的key交给清理任务删除对象
+ *
+ * @author xueruichen
+ * @date 2024.01.24
+ */
+public interface UploadTicketStore {
+    /**
+     * 记录签发的凭证
+     *
+     * @param key 对象key
+     * @param ownerId 申请凭证的用户id
+     * @param deadline 确认截止时间（毫秒）
+     */
+    void issue(String key, Long ownerId, long deadline);
+
+    /**
+     * 获取凭证所属用户
+     *
+     * @param key 对象key
+     * @return 用户id，凭证不存在、已确认或已过期时为null
+     */
+    Long ownerOf(String key);
+
+    /**
+     * 确认并作废凭证，同一key只有一次能成功
+     *
+     * @param key 对象key
+     * @param ownerId 确认的用户id
+     * @return 是否确认成功
+     */
+    boolean consume(String key, Long ownerId);
+
+    /**
+     * 取出并移除已过确认截止时间仍未确认的key，多个实例同时调用时每个key只返回给其中一个
+     *
+     * @param now 当前时间（毫秒）
+     * @param limit 最多返回的个数
+     * @return 过期未确认的对象key
+     */
+    List<String> pollExpired(long now, int limit);
+}
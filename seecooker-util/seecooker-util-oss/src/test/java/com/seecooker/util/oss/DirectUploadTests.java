@@ -0,0 +1,123 @@
+package com.seecooker.util.oss;
+
+import com.seecooker.common.core.context.UserContext;
+import com.seecooker.common.core.enums.ImageType;
+import com.seecooker.common.core.exception.BizException;
+import com.seecooker.common.core.exception.ErrorType;
+import com.seecooker.util.oss.storage.LocalFileStorage;
+import com.seecooker.util.oss.storage.ObjectStorage;
+import com.seecooker.util.oss.ticket.InMemoryUploadTicketStore;
+import com.seecooker.util.oss.ticket.UploadSweeper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DirectUploadTests {
+    @TempDir
+    Path root;
+
+    private ObjectStorage storage;
+    private InMemoryUploadTicketStore tickets;
+
+    @BeforeEach
+    void setUp() {
+        storage = new LocalFileStorage(root, "http://localhost/files");
+        tickets = new InMemoryUploadTicketStore();
+        AliOSSUtil.init(storage, new PresignedUrlCache(Duration.ofMinutes(6), Duration.ofMinutes(2), 16),
+                new VariantCache(Duration.ZERO, 16), tickets);
+        UserContext.begin(1L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        UserContext.clear();
+    }
+
+    @Test
+    void rejectsKeysOutsideIssuedLayout() {
+        String otherType = "recipe-cover-image/origin/" + UUID.randomUUID() + ".png";
+        for (String key : List.of("post-image/origin/abc.png", "post-image/origin/../secret.png", otherType)) {
+            assertIllegal(() -> AliOSSUtil.confirmUploads(ImageType.POST_IMAGE, List.of(key)));
+        }
+    }
+
+    @Test
+    void acceptsOwnKeyOnlyOnce() throws Exception {
+        String key = issueAndUpload(1L, 16);
+
+        assertEquals(List.of("http://localhost/files/" + key), AliOSSUtil.confirmUploads(ImageType.POST_IMAGE, List.of(key)));
+        assertIllegal(() -> AliOSSUtil.confirmUploads(ImageType.POST_IMAGE, List.of(key)));
+    }
+
+    @Test
+    void rejectsKeyIssuedToAnotherUser() {
+        String key = issueAndUpload(2L, 16);
+
+        assertIllegal(() -> AliOSSUtil.confirmUploads(ImageType.POST_IMAGE, List.of(key)));
+        assertEquals(2L, tickets.ownerOf(key));
+    }
+
+    @Test
+    void rejectsExpiredTicketAndSweepsObject() {
+        String key = newKey();
+        tickets.issue(key, 1L, System.currentTimeMillis() - 1);
+        upload(key, 16);
+
+        assertIllegal(() -> AliOSSUtil.confirmUploads(ImageType.POST_IMAGE, List.of(key)));
+
+        UploadSweeper sweeper = new UploadSweeper(storage, tickets, Duration.ofHours(1));
+        try {
+            assertEquals(1, sweeper.sweep());
+        } finally {
+            sweeper.destroy();
+        }
+        assertFalse(storage.exists(key));
+    }
+
+    @Test
+    void rejectsMissingAndOversizedObjects() {
+        String missing = newKey();
+        tickets.issue(missing, 1L, System.currentTimeMillis() + 60_000);
+        assertIllegal(() -> AliOSSUtil.confirmUploads(ImageType.POST_IMAGE, List.of(missing)));
+
+        String oversized = issueAndUpload(1L, (int) AliOSSUtil.MAX_UPLOAD_BYTES + 1);
+        assertIllegal(() -> AliOSSUtil.confirmUploads(ImageType.POST_IMAGE, List.of(oversized)));
+        assertFalse(storage.exists(oversized));
+    }
+
+    @Test
+    void localStorageRefusesDirectUpload() {
+        BizException e = assertThrows(BizException.class,
+                () -> AliOSSUtil.presignUploads(ImageType.POST_IMAGE, List.of("image/png")));
+        assertEquals(ErrorType.DIRECT_UPLOAD_UNSUPPORTED, e.getErrorType());
+    }
+
+    private String issueAndUpload(Long ownerId, int size) {
+        String key = newKey();
+        tickets.issue(key, ownerId, System.currentTimeMillis() + 60_000);
+        upload(key, size);
+        return key;
+    }
+
+    private void upload(String key, int size) {
+        storage.put(key, new ByteArrayInputStream(new byte[size]), size, "image/png");
+    }
+
+    private static String newKey() {
+        return "post-image/origin/" + UUID.randomUUID() + ".png";
+    }
+
+    private static void assertIllegal(org.junit.jupiter.api.function.Executable executable) {
+        BizException e = assertThrows(BizException.class, executable);
+        assertEquals(ErrorType.ILLEGAL_ARGUMENTS, e.getErrorType());
+    }
+}
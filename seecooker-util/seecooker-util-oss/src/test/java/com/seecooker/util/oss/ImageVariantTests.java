@@ -0,0 +1,135 @@
+package com.seecooker.util.oss;
+
+import com.seecooker.common.core.enums.ImageType;
+import com.seecooker.common.core.enums.ImageVariant;
+import com.seecooker.util.oss.storage.LocalFileStorage;
+import com.seecooker.util.oss.storage.ObjectStorage;
+import com.seecooker.util.oss.ticket.InMemoryUploadTicketStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageVariantTests {
+    @TempDir
+    Path root;
+
+    @Test
+    void variantUrlFallsBackToOriginUntilVariantExists() {
+        ObjectStorage storage = new LocalFileStorage(root, "http://localhost/files");
+        AliOSSUtil.init(storage, new PresignedUrlCache(Duration.ofMinutes(6), Duration.ofMinutes(2), 16),
+                new VariantCache(Duration.ZERO, 16), new InMemoryUploadTicketStore());
+        String origin = storage.url("post-image/origin/abc.png");
+
+        assertEquals(origin, AliOSSUtil.variantUrl(origin, ImageVariant.LIST));
+
+        storage.put("post-image/list/abc.jpg", new ByteArrayInputStream(new byte[1]), 1, "image/jpeg");
+        assertEquals("http://localhost/files/post-image/list/abc.jpg", AliOSSUtil.variantUrl(origin, ImageVariant.LIST));
+    }
+
+    @Test
+    void reuploadRegeneratesMissingVariants() throws Exception {
+        ObjectStorage storage = new LocalFileStorage(root, "http://localhost/files");
+        AliOSSUtil.init(storage, new PresignedUrlCache(Duration.ofMinutes(6), Duration.ofMinutes(2), 16),
+                new VariantCache(Duration.ZERO, 16), new InMemoryUploadTicketStore());
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(4, 4, BufferedImage.TYPE_INT_RGB), "png", png);
+        byte[] bytes = png.toByteArray();
+
+        String url = AliOSSUtil.uploadFile(bytes, "a.png", ImageType.AVATAR);
+        String originKey = storage.keyOf(url);
+        String variantKey = AliOSSUtil.variantKey(originKey, ImageVariant.THUMBNAIL);
+        waitFor(storage, variantKey);
+        // 原图已存在但规格图缺失，如此前生成失败
+        storage.delete(variantKey);
+        AliOSSUtil.init(storage, new PresignedUrlCache(Duration.ofMinutes(6), Duration.ofMinutes(2), 16),
+                new VariantCache(Duration.ZERO, 16), new InMemoryUploadTicketStore());
+
+        assertEquals(url, AliOSSUtil.uploadFile(bytes, "a.png", ImageType.AVATAR));
+        waitFor(storage, variantKey);
+    }
+
+    @Test
+    void variantUrlKeepsExternalUrls() {
+        assertNull(AliOSSUtil.variantUrl(null, ImageVariant.LIST));
+        assertEquals("https://example.com/a.png", AliOSSUtil.variantUrl("https://example.com/a.png", ImageVariant.LIST));
+    }
+
+    @Test
+    void variantCacheRechecksMissingVariantsAfterInterval() {
+        VariantCache cache = new VariantCache(Duration.ofHours(1), 16);
+        int[] lookups = new int[1];
+        assertFalse(cache.exists("k", key -> ++lookups[0] > 1));
+        assertFalse(cache.exists("k", key -> ++lookups[0] > 1));
+        assertEquals(1, lookups[0]);
+
+        cache.markPresent("k");
+        assertTrue(cache.exists("k", key -> false));
+    }
+
+    @Test
+    void readsExifOrientation() {
+        assertEquals(6, ExifOrientation.read(jpegWithOrientation(6, true)));
+        assertEquals(8, ExifOrientation.read(jpegWithOrientation(8, false)));
+        assertEquals(1, ExifOrientation.read(new byte[]{(byte) 0x89, 'P', 'N', 'G'}));
+    }
+
+    @Test
+    void rotatesClockwiseForOrientationSix() {
+        BufferedImage image = new BufferedImage(2, 1, BufferedImage.TYPE_INT_RGB);
+        image.setRGB(0, 0, 0xFF0000);
+        image.setRGB(1, 0, 0x00FF00);
+
+        BufferedImage rotated = ExifOrientation.apply(image, 6);
+
+        assertEquals(1, rotated.getWidth());
+        assertEquals(2, rotated.getHeight());
+        assertEquals(0xFF0000, rotated.getRGB(0, 0) & 0xFFFFFF);
+        assertEquals(0x00FF00, rotated.getRGB(0, 1) & 0xFFFFFF);
+    }
+
+    private static void waitFor(ObjectStorage storage, String key) throws InterruptedException {
+        for (int i = 0; i < 100 && !storage.exists(key); i++) {
+            Thread.sleep(50);
+        }
+        assertTrue(storage.exists(key), key);
+    }
+
+    private static byte[] jpegWithOrientation(int orientation, boolean bigEndian) {
+        // SOI + APP1(Exif) 中只含一个Orientation条目的IFD0
+        byte[] tiff = new byte[8 + 2 + 12 + 4];
+        tiff[0] = tiff[1] = (byte) (bigEndian ? 'M' : 'I');
+        put16(tiff, 2, 42, bigEndian);
+        // IFD0紧跟在8字节的头之后
+        put16(tiff, bigEndian ? 6 : 4, 8, bigEndian);
+        put16(tiff, 8, 1, bigEndian);
+        put16(tiff, 10, 0x0112, bigEndian);
+        put16(tiff, 12, 3, bigEndian);
+        put16(tiff, bigEndian ? 16 : 14, 1, bigEndian);
+        put16(tiff, 18, orientation, bigEndian);
+        byte[] exif = "Exif\0\0".getBytes();
+        int length = 2 + exif.length + tiff.length;
+        byte[] jpeg = new byte[4 + length];
+        jpeg[0] = (byte) 0xFF;
+        jpeg[1] = (byte) 0xD8;
+        jpeg[2] = (byte) 0xFF;
+        jpeg[3] = (byte) 0xE1;
+        jpeg[4] = (byte) (length >> 8);
+        jpeg[5] = (byte) length;
+        System.arraycopy(exif, 0, jpeg, 6, exif.length);
+        System.arraycopy(tiff, 0, jpeg, 6 + exif.length, tiff.length);
+        return jpeg;
+    }
+
+    private static void put16(byte[] data, int pos, int value, boolean bigEndian) {
+        data[pos] = (byte) (bigEndian ? value >> 8 : value);
+        data[pos + 1] = (byte) (bigEndian ? value : value >> 8);
+    }
+}
@@ -0,0 +1,55 @@
+package com.seecooker.util.oss;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PresignedUrlCacheTests {
+    private final List<String> signed = new ArrayList<>();
+    private final PresignedUrlCache.Signer signer = (key, expiration) -> {
+        signed.add(key);
+        return key + "?expires=" + expiration.getTime() + "&n=" + signed.size();
+    };
+
+    @Test
+    void reusesSignatureWhileValid() {
+        PresignedUrlCache cache = new PresignedUrlCache(Duration.ofMinutes(10), Duration.ofMinutes(1), 100);
+        List<String> first = cache.getAll(List.of("a", "b"), signer);
+        List<String> second = cache.getAll(List.of("b", "a"), signer);
+        assertEquals(first.get(0), second.get(1));
+        assertEquals(first.get(1), second.get(0));
+        assertEquals(List.of("a", "b"), signed);
+    }
+
+    @Test
+    void resignsWhenCloseToExpiry() throws InterruptedException {
+        PresignedUrlCache cache = new PresignedUrlCache(Duration.ofMillis(200), Duration.ofMillis(150), 100);
+        String first = cache.getAll(List.of("a"), signer).get(0);
+        Thread.sleep(100);
+        String second = cache.getAll(List.of("a"), signer).get(0);
+        assertNotEquals(first, second);
+        assertEquals(2, signed.size());
+    }
+
+    @Test
+    void duplicateKeysAreSignedOnce() {
+        PresignedUrlCache cache = new PresignedUrlCache(Duration.ofMinutes(10), Duration.ofMinutes(1), 100);
+        List<String> urls = cache.getAll(List.of("a", "a", "b"), signer);
+        assertEquals(urls.get(0), urls.get(1));
+        assertEquals(List.of("a", "b"), signed);
+    }
+
+    @Test
+    void evictsLeastRecentlyUsed() {
+        PresignedUrlCache cache = new PresignedUrlCache(Duration.ofMinutes(10), Duration.ofMinutes(1), 2);
+        cache.getAll(List.of("a", "b"), signer);
+        cache.getAll(List.of("a"), signer);
+        cache.getAll(List.of("c"), signer);
+        cache.getAll(List.of("a", "b"), signer);
+        assertEquals(List.of("a", "b", "c", "b"), signed);
+    }
+}
@@ -0,0 +1,93 @@
+package com.seecooker.util.oss.storage;
+
+import com.aliyun.oss.ClientBuilderConfiguration;
+import com.aliyun.oss.OSS;
+import com.seecooker.util.oss.AliOSSUtil;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 存储后端吞吐量压测，两种后端执行相同的并发写入与读取
+ * 规模可通过seecooker.benchmark.objects/size/threads系统属性调整；oss仅在环境变量中有凭证时执行，结束后删除写入的对象
+ */
+class StorageThroughputTests {
+    private static final int OBJECTS = Integer.getInteger("seecooker.benchmark.objects", 64);
+    private static final int OBJECT_SIZE = Integer.getInteger("seecooker.benchmark.size", 256 * 1024);
+    private static final int THREADS = Integer.getInteger("seecooker.benchmark.threads", 8);
+
+    @Test
+    void localFileStorage(@TempDir Path root) throws Exception {
+        benchmark("local", new LocalFileStorage(root, "/storage"));
+    }
+
+    @Test
+    @EnabledIfEnvironmentVariable(named = "OSS_ACCESS_KEY_ID", matches = ".+")
+    void aliOSSStorage() throws Exception {
+        OSS client = AliOSSUtil.buildClient(new ClientBuilderConfiguration());
+        try {
+            benchmark("oss", AliOSSUtil.ossStorage(client));
+        } finally {
+            client.shutdown();
+        }
+    }
+
+    private static void benchmark(String name, ObjectStorage storage) throws Exception {
+        byte[] content = new byte[OBJECT_SIZE];
+        new Random(1).nextBytes(content);
+        String prefix = "benchmark/" + UUID.randomUUID() + "/";
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            long writeNanos = timed(executor, i ->
+                    storage.put(prefix + i, new ByteArrayInputStream(content), content.length, "application/octet-stream"));
+            long readNanos = timed(executor, i ->
+                    assertEquals(OBJECT_SIZE, storage.transferTo(prefix + i, Channels.newChannel(OutputStream.nullOutputStream()))));
+            System.out.printf("%s storage: %d objects x %d KB, %d threads, write %.1f MB/s, read %.1f MB/s%n",
+                    name, OBJECTS, OBJECT_SIZE / 1024, THREADS, megabytesPerSecond(writeNanos), megabytesPerSecond(readNanos));
+        } finally {
+            executor.shutdown();
+            for (int i = 0; i < OBJECTS; i++) {
+                storage.delete(prefix + i);
+            }
+        }
+    }
+
+    private static long timed(ExecutorService executor, ObjectTask task) throws Exception {
+        long start = System.nanoTime();
+        List<Future<?>> futures = new ArrayList<>(OBJECTS);
+        for (int i = 0; i < OBJECTS; i++) {
+            int index = i;
+            futures.add(executor.submit(() -> {
+                task.run(index);
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static double megabytesPerSecond(long nanos) {
+        return (double) OBJECTS * OBJECT_SIZE / (1024 * 1024) / (nanos / 1e9);
+    }
+
+    @FunctionalInterface
+    private interface ObjectTask {
+        void run(int index) throws Exception;
+    }
+}